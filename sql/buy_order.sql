@@ -0,0 +1,23 @@
+-- 求购单（买家按模板挂出的买单）
+-- 创建时按 price * quantity 从余额中冻结资金；撮合成交时逐件累加 filled_quantity，
+-- 取消时退回未成交部分。未完成的求购单在启动时载入进程内求购簿（BidBook）。
+
+CREATE TABLE IF NOT EXISTS buy_order
+(
+    id              BIGINT         NOT NULL COMMENT '求购单ID（IdGenerator 生成）',
+    buyer_id        BIGINT         NOT NULL COMMENT '买家ID',
+    template_id     BIGINT         NOT NULL COMMENT '饰品模板ID',
+    price           DECIMAL(12, 2) NOT NULL COMMENT '求购单价',
+    min_wear        DECIMAL(10, 8)          DEFAULT NULL COMMENT '最低磨损（含），为空不限',
+    max_wear        DECIMAL(10, 8)          DEFAULT NULL COMMENT '最高磨损（不含），为空不限',
+    quantity        INT            NOT NULL COMMENT '求购数量',
+    filled_quantity INT            NOT NULL DEFAULT 0 COMMENT '已成交数量',
+    status          TINYINT        NOT NULL DEFAULT 0 COMMENT '状态：0=求购中, 1=已完成, 2=已取消',
+    version         INT            NOT NULL DEFAULT 0 COMMENT '版本号',
+    create_time     DATETIME       NOT NULL COMMENT '创建时间',
+    update_time     DATETIME                DEFAULT NULL COMMENT '更新时间',
+    PRIMARY KEY (id),
+    KEY idx_status_template (status, template_id),
+    KEY idx_buyer_time (buyer_id, create_time)
+) ENGINE = InnoDB
+  DEFAULT CHARSET = utf8mb4 COMMENT ='求购单';
@@ -0,0 +1,48 @@
+-- 市场挂单读模型（反范式）
+-- 仅保存在售挂单，由 ListingViewProjection 在挂单写入的同一事务中维护；
+-- 市场列表、计数查询只读这一张表，不再关联 market_listing / sys_user / item_template / user_inventory。
+
+CREATE TABLE IF NOT EXISTS market_listing_view
+(
+    id           BIGINT         NOT NULL COMMENT '挂单ID（同 market_listing.id）',
+    seller_id    BIGINT         NOT NULL COMMENT '卖家ID',
+    seller_name  VARCHAR(64)             DEFAULT NULL COMMENT '卖家用户名',
+    inventory_id BIGINT         NOT NULL COMMENT '库存ID',
+    template_id  BIGINT         NOT NULL COMMENT '饰品模板ID',
+    item_name    VARCHAR(255)            DEFAULT NULL COMMENT '饰品名称',
+    item_type    VARCHAR(64)             DEFAULT NULL COMMENT '饰品类型',
+    icon_url     VARCHAR(512)            DEFAULT NULL COMMENT '饰品图片URL',
+    wear_value   DECIMAL(20, 18)         DEFAULT NULL COMMENT '磨损度',
+    price        DECIMAL(12, 2) NOT NULL COMMENT '售价',
+    status       TINYINT        NOT NULL DEFAULT 0 COMMENT '挂单状态（恒为 0：在售）',
+    create_time  DATETIME       NOT NULL COMMENT '上架时间',
+    PRIMARY KEY (id),
+    KEY idx_template_price (template_id, price, id),
+    KEY idx_template_wear (template_id, wear_value),
+    KEY idx_price (price, id),
+    KEY idx_create_time (create_time, id),
+    KEY idx_seller (seller_id),
+    KEY idx_item_name (item_name)
+) ENGINE = InnoDB
+  DEFAULT CHARSET = utf8mb4 COMMENT ='市场挂单读模型';
+
+-- 初始化：回填当前在售挂单
+INSERT IGNORE INTO market_listing_view (id, seller_id, seller_name, inventory_id, template_id, item_name, item_type,
+                                        icon_url, wear_value, price, status, create_time)
+SELECT ml.id,
+       ml.seller_id,
+       u.username,
+       ml.inventory_id,
+       ml.template_id,
+       it.name,
+       it.type,
+       it.icon_url,
+       ui.wear_value,
+       ml.price,
+       ml.status,
+       ml.create_time
+FROM market_listing ml
+         LEFT JOIN sys_user u ON ml.seller_id = u.id
+         LEFT JOIN item_template it ON ml.template_id = it.id
+         LEFT JOIN user_inventory ui ON ml.inventory_id = ui.id
+WHERE ml.status = 0;
@@ -0,0 +1,48 @@
+-- 成交价K线（按模板预聚合）
+-- 由 OrderMessageConsumer 在交易成功后的同一事务中按 1h / 1d 两个粒度 upsert；
+-- 1h K线保留 90 天（PriceCandleTask 定期清理），1d K线长期保留作为降采样后的历史。
+
+CREATE TABLE IF NOT EXISTS price_candle
+(
+    template_id      BIGINT         NOT NULL COMMENT '饰品模板ID',
+    period           VARCHAR(4)     NOT NULL COMMENT '粒度：1h / 1d',
+    bucket_start     DATETIME       NOT NULL COMMENT '区间起始时间',
+    open_price       DECIMAL(12, 2) NOT NULL COMMENT '开盘价（区间内第一笔成交）',
+    high_price       DECIMAL(12, 2) NOT NULL COMMENT '最高价',
+    low_price        DECIMAL(12, 2) NOT NULL COMMENT '最低价',
+    close_price      DECIMAL(12, 2) NOT NULL COMMENT '收盘价（区间内最后一笔成交）',
+    volume           INT            NOT NULL COMMENT '成交笔数',
+    turnover         DECIMAL(16, 2) NOT NULL COMMENT '成交额',
+    first_trade_time DATETIME(3)    NOT NULL COMMENT '区间内第一笔成交时间',
+    last_trade_time  DATETIME(3)    NOT NULL COMMENT '区间内最后一笔成交时间',
+    PRIMARY KEY (template_id, period, bucket_start),
+    KEY idx_period_bucket (period, bucket_start)
+) ENGINE = InnoDB
+  DEFAULT CHARSET = utf8mb4 COMMENT ='成交价K线';
+
+-- 初始化：由历史成功订单回填
+INSERT IGNORE INTO price_candle (template_id, period, bucket_start, open_price, high_price, low_price, close_price,
+                          volume, turnover, first_trade_time, last_trade_time)
+SELECT t.template_id,
+       t.period,
+       t.bucket_start,
+       SUBSTRING_INDEX(GROUP_CONCAT(t.total_amount ORDER BY t.trade_time, t.id), ',', 1),
+       MAX(t.total_amount),
+       MIN(t.total_amount),
+       SUBSTRING_INDEX(GROUP_CONCAT(t.total_amount ORDER BY t.trade_time DESC, t.id DESC), ',', 1),
+       COUNT(*),
+       SUM(t.total_amount),
+       MIN(t.trade_time),
+       MAX(t.trade_time)
+FROM (SELECT o.id,
+             ml.template_id,
+             p.period,
+             IF(p.period = '1h', DATE_FORMAT(COALESCE(o.finish_time, o.create_time), '%Y-%m-%d %H:00:00'),
+                DATE(COALESCE(o.finish_time, o.create_time))) AS bucket_start,
+             o.total_amount,
+             COALESCE(o.finish_time, o.create_time)           AS trade_time
+      FROM trade_order o
+               JOIN market_listing ml ON ml.id = o.listing_id
+               CROSS JOIN (SELECT '1h' AS period UNION ALL SELECT '1d') p
+      WHERE o.status = 3) t
+GROUP BY t.template_id, t.period, t.bucket_start;
@@ -0,0 +1,102 @@
+package com.buff.benchmark;
+
+import com.buff.util.IdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 订单号生成基准：原先的时间格式化 + 随机数方案与 Snowflake 方案对比
+ * <p>
+ * Snowflake 单节点每毫秒最多 4096 个ID，持续超过该速率时向未来借用时间戳，借用超过 5 秒即拒绝发号；
+ * 因此按批次计时（每批 100 万次调用，约借用 250ms），每轮使用新的生成器，测得的是单次发号的开销而非持续吞吐上限。
+ * <p>
+ * 运行：mvn -Pjmh test-compile exec:exec
+ *
+ * @author Administrator
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, batchSize = 1_000_000)
+@Measurement(iterations = 10, batchSize = 1_000_000)
+@Fork(1)
+public class IdGeneratorBenchmark {
+
+    private IdGenerator idGenerator;
+
+    @Setup(Level.Iteration)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        // 只在租用节点号时访问 Redis，发号本身不涉及网络
+        RedisTemplate<String, Object> redisTemplate = mock(RedisTemplate.class);
+        ValueOperations<String, Object> valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), any(), any(Duration.class))).thenReturn(true);
+        idGenerator = new IdGenerator(redisTemplate);
+        idGenerator.init();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        idGenerator.releaseLease();
+    }
+
+    /**
+     * 原方案：yyyyMMddHHmmss + 6位随机数，每次调用新建格式化器与 Random
+     */
+    @Benchmark
+    public String legacyOrderNo() {
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
+        int random = new Random().nextInt(900000) + 100000;
+        return timestamp + random;
+    }
+
+    @Benchmark
+    public long snowflakeId() {
+        return idGenerator.nextId();
+    }
+
+    /**
+     * 订单号取订单ID的十进制形式
+     */
+    @Benchmark
+    public String snowflakeOrderNo() {
+        return String.valueOf(idGenerator.nextId());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String legacyOrderNoContended() {
+        return legacyOrderNo();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long snowflakeIdContended() {
+        return idGenerator.nextId();
+    }
+}
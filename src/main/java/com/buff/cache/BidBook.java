@@ -0,0 +1,314 @@
+package com.buff.cache;
+
+import com.buff.constant.BuyOrderStatus;
+import com.buff.constant.RedisKey;
+import com.buff.event.ListingEventRelay;
+import com.buff.mapper.BuyOrderMapper;
+import com.buff.model.entity.BuyOrder;
+import com.buff.model.vo.BidLevelVO;
+import com.buff.util.ShardedExecutor;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.PatternTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 进程内求购簿（按模板分组的求购中求购单）
+ * <p>
+ * 每个模板的求购按 (价格降序, 创建时间升序, ID升序) 排列，价格优先、时间优先。
+ * 模板按ID分片到单线程执行器，一个模板的读写与撮合全部在其分片线程上串行执行，
+ * 求购簿本身不加锁，撮合时也无需对求购单行加锁等待（数据库侧仅做条件更新兜底）。
+ * <ul>
+ *   <li>启动时从 buy_order(status=0) 全量加载，之后每 10 分钟全量校准；每个模板在自己的分片线程上读库并替换，
+ *   读取与替换之间不会插入该模板的其它修改</li>
+ *   <li>本节点变更后广播 market:bid:changed:{templateId}，其它节点重新加载该模板</li>
+ * </ul>
+ * 查询与修改求购的方法（bestBid / levels / upsert / remove / consumeOne / refresh）只能在对应模板的分片线程上调用，
+ * 调用方通过 {@link #submit} / {@link #execute} 进入分片线程；{@link #hasBids} 读取单独维护的并发计数，可在任意线程调用。
+ *
+ * @author Administrator
+ */
+@Slf4j
+@Component
+public class BidBook implements MessageListener {
+
+    private static final int SHARD_COUNT = 8;
+
+    /**
+     * 价格降序，价格相同先到先得
+     */
+    private static final Comparator<BuyOrder> PRIORITY =
+            Comparator.comparing(BuyOrder::getPrice).reversed()
+                    .thenComparing(BuyOrder::getCreateTime, Comparator.nullsFirst(Comparator.naturalOrder()))
+                    .thenComparing(BuyOrder::getId);
+
+    private final BuyOrderMapper buyOrderMapper;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+
+    private final ShardedExecutor executor = new ShardedExecutor("bid-match-", SHARD_COUNT);
+
+    /**
+     * 每个模板的求购集合只在该模板的分片线程上读写
+     */
+    private final Map<Long, TreeSet<BuyOrder>> books = new ConcurrentHashMap<>();
+
+    /**
+     * 每个模板的求购数量，由分片线程在修改求购集合后写入，供其它线程预判
+     */
+    private final Map<Long, Integer> bidCounts = new ConcurrentHashMap<>();
+
+    public BidBook(BuyOrderMapper buyOrderMapper,
+                   RedisTemplate<String, Object> redisTemplate,
+                   RedisMessageListenerContainer redisMessageListenerContainer) {
+        this.buyOrderMapper = buyOrderMapper;
+        this.redisTemplate = redisTemplate;
+        this.redisMessageListenerContainer = redisMessageListenerContainer;
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        redisMessageListenerContainer.addMessageListener(this, new PatternTopic(RedisKey.BID_CHANGE_PREFIX + "*"));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        reload();
+    }
+
+    /**
+     * 每 10 分钟全量校准一次，修正可能丢失的广播
+     */
+    @Scheduled(initialDelay = 600_000, fixedDelay = 600_000)
+    public void resync() {
+        reload();
+    }
+
+    /**
+     * 从数据库全量重建求购簿。
+     * 各模板的求购在自己的分片线程上读取并替换：若在调度线程上一次读出再排队替换，
+     * 读取之后、替换之前在分片线程上新增或成交的求购会被旧快照覆盖。
+     */
+    public void reload() {
+        Set<Long> templateIds;
+        try {
+            templateIds = new HashSet<>(buyOrderMapper.selectOpenTemplateIds());
+        } catch (Exception e) {
+            log.warn("加载求购簿失败，等待下次校准: {}", e.getMessage());
+            return;
+        }
+        templateIds.addAll(books.keySet());
+        for (Long templateId : templateIds) {
+            execute(templateId, () -> reloadTemplate(templateId));
+        }
+        log.info("求购簿开始加载: templates={}", templateIds.size());
+    }
+
+    /**
+     * 在模板所属分片线程上执行任务
+     */
+    public <T> CompletableFuture<T> submit(Long templateId, Supplier<T> task) {
+        return executor.submit(templateId, task);
+    }
+
+    /**
+     * 在模板所属分片线程上执行任务（无返回值）
+     */
+    public CompletableFuture<Void> execute(Long templateId, Runnable task) {
+        return executor.execute(templateId, task);
+    }
+
+    /**
+     * 模板下是否有求购（可在任意线程调用，仅作撮合前的快速预判）
+     */
+    public boolean hasBids(Long templateId) {
+        return bidCounts.containsKey(templateId);
+    }
+
+    /**
+     * 按优先级查找第一个可与该饰品成交的求购
+     *
+     * @param sellerId 卖家ID（不与自己的求购成交）
+     * @param wear     饰品磨损值
+     * @param minPrice 最低可接受价格（卖家要价），为空不限
+     */
+    public BuyOrder bestBid(Long templateId, Long sellerId, BigDecimal wear, BigDecimal minPrice) {
+        TreeSet<BuyOrder> book = books.get(templateId);
+        if (book == null) {
+            return null;
+        }
+        for (BuyOrder bid : book) {
+            if (minPrice != null && bid.getPrice().compareTo(minPrice) < 0) {
+                return null;
+            }
+            if (!bid.getBuyerId().equals(sellerId) && matchesWear(bid, wear)) {
+                return bid;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 求购深度（按价位合计剩余数量，价格降序）
+     */
+    public List<BidLevelVO> levels(Long templateId, int limit) {
+        TreeSet<BuyOrder> book = books.get(templateId);
+        List<BidLevelVO> levels = new ArrayList<>();
+        if (book == null) {
+            return levels;
+        }
+        BidLevelVO current = null;
+        for (BuyOrder bid : book) {
+            int remaining = bid.getQuantity() - bid.getFilledQuantity();
+            if (current != null && current.getPrice().compareTo(bid.getPrice()) == 0) {
+                current.setQuantity(current.getQuantity() + remaining);
+                continue;
+            }
+            if (levels.size() == limit) {
+                break;
+            }
+            current = new BidLevelVO(bid.getPrice(), remaining);
+            levels.add(current);
+        }
+        return levels;
+    }
+
+    /**
+     * 加入或替换一条求购
+     */
+    public void upsert(BuyOrder bid) {
+        TreeSet<BuyOrder> book = books.computeIfAbsent(bid.getTemplateId(), k -> new TreeSet<>(PRIORITY));
+        book.removeIf(b -> b.getId().equals(bid.getId()));
+        if (bid.getStatus() == BuyOrderStatus.OPEN && bid.getFilledQuantity() < bid.getQuantity()) {
+            book.add(bid);
+        }
+        updateCount(bid.getTemplateId(), book);
+    }
+
+    /**
+     * 移除一条求购
+     */
+    public void remove(Long templateId, Long bidId) {
+        TreeSet<BuyOrder> book = books.get(templateId);
+        if (book != null) {
+            book.removeIf(b -> b.getId().equals(bidId));
+            updateCount(templateId, book);
+        }
+    }
+
+    /**
+     * 成交一件后更新求购簿中的剩余数量
+     */
+    public void consumeOne(BuyOrder bid) {
+        bid.setFilledQuantity(bid.getFilledQuantity() + 1);
+        if (bid.getFilledQuantity() >= bid.getQuantity()) {
+            bid.setStatus(BuyOrderStatus.FILLED);
+            remove(bid.getTemplateId(), bid.getId());
+        }
+    }
+
+    /**
+     * 从数据库重新加载一条求购（条件更新失败说明内存状态已过期）
+     */
+    public void refresh(BuyOrder bid) {
+        BuyOrder latest = buyOrderMapper.selectById(bid.getId());
+        if (latest == null) {
+            remove(bid.getTemplateId(), bid.getId());
+        } else {
+            upsert(latest);
+        }
+    }
+
+    /**
+     * 通知其它节点重新加载该模板的求购
+     */
+    public void broadcast(Long templateId) {
+        try {
+            redisTemplate.convertAndSend(RedisKey.getBidChangeKey(templateId), ListingEventRelay.NODE_ID);
+        } catch (Exception e) {
+            log.warn("求购变更广播失败，其它节点将在下次全量同步时修正: templateId={}", templateId, e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            Object origin = redisTemplate.getValueSerializer().deserialize(message.getBody());
+            if (ListingEventRelay.NODE_ID.equals(origin)) {
+                return;
+            }
+            String channel = new String(message.getChannel(), StandardCharsets.UTF_8);
+            Long templateId = Long.valueOf(channel.substring(RedisKey.BID_CHANGE_PREFIX.length()));
+            execute(templateId, () -> reloadTemplate(templateId));
+        } catch (Exception e) {
+            log.warn("处理求购变更广播失败", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown(5_000);
+    }
+
+    /**
+     * 从数据库重新加载一个模板的求购（分片线程内执行）
+     */
+    private void reloadTemplate(Long templateId) {
+        try {
+            replace(templateId, buyOrderMapper.selectOpenByTemplate(templateId));
+        } catch (Exception e) {
+            log.warn("重新加载模板求购失败: templateId={}, error={}", templateId, e.getMessage());
+        }
+    }
+
+    private void replace(Long templateId, List<BuyOrder> bids) {
+        if (bids.isEmpty()) {
+            books.remove(templateId);
+            bidCounts.remove(templateId);
+            return;
+        }
+        TreeSet<BuyOrder> book = new TreeSet<>(PRIORITY);
+        book.addAll(bids);
+        books.put(templateId, book);
+        updateCount(templateId, book);
+    }
+
+    private void updateCount(Long templateId, TreeSet<BuyOrder> book) {
+        if (book.isEmpty()) {
+            bidCounts.remove(templateId);
+        } else {
+            bidCounts.put(templateId, book.size());
+        }
+    }
+
+    private static boolean matchesWear(BuyOrder bid, BigDecimal wear) {
+        if (wear == null) {
+            return bid.getMinWear() == null && bid.getMaxWear() == null;
+        }
+        if (bid.getMinWear() != null && wear.compareTo(bid.getMinWear()) < 0) {
+            return false;
+        }
+        return bid.getMaxWear() == null || wear.compareTo(bid.getMaxWear()) < 0;
+    }
+}
@@ -0,0 +1,36 @@
+package com.buff.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 逻辑过期缓存值
+ * <p>
+ * Redis 物理 TTL 长于逻辑过期时间，逻辑过期后读取方仍可拿到旧值，由后台刷新替换。
+ *
+ * @author Administrator
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheEnvelope implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 缓存数据
+     */
+    private Object data;
+
+    /**
+     * 逻辑过期时间（毫秒时间戳）
+     */
+    private Long expireAt;
+
+    public boolean isExpired() {
+        return expireAt == null || System.currentTimeMillis() >= expireAt;
+    }
+}
@@ -0,0 +1,204 @@
+package com.buff.cache;
+
+import com.buff.constant.ListingStatus;
+import com.buff.constant.RedisKey;
+import com.buff.event.ListingChange;
+import com.buff.event.ListingSyncEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 热门饰品排行（按交易热度）
+ * <p>
+ * 每个节点在内存中用 Space-Saving 算法维护当前分钟桶的 top-K 模板热度（浏览、下单、成交加权计数），
+ * 每分钟把桶内计数 ZINCRBY 到 Redis 分钟桶 ZSET（各节点共用同一个桶，天然合并），
+ * 再用 ZUNIONSTORE 合并最近 {@link #WINDOW_BUCKETS} 个桶得到滑动窗口排行，各节点读取排行后缓存在内存。
+ * <p>
+ * 下单、成交信号来自本节点发出的 {@link ListingSyncEvent}（remote 事件由发出节点计数，避免重复）。
+ *
+ * @author Administrator
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HotItemRanking {
+
+    /**
+     * 浏览挂单详情的权重
+     */
+    private static final long VIEW_WEIGHT = 1;
+
+    /**
+     * 下单的权重
+     */
+    private static final long ORDER_WEIGHT = 5;
+
+    /**
+     * 成交的权重
+     */
+    private static final long TRADE_WEIGHT = 10;
+
+    /**
+     * 单个分钟桶在内存中最多跟踪的模板数
+     */
+    private static final int SKETCH_CAPACITY = 256;
+
+    /**
+     * 滑动窗口长度（分钟桶个数）
+     */
+    private static final int WINDOW_BUCKETS = 60;
+
+    /**
+     * 排行保留的模板数
+     */
+    private static final int TOP_K = 50;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private SpaceSaving current = new SpaceSaving(SKETCH_CAPACITY);
+
+    private volatile List<Long> ranking = List.of();
+
+    /**
+     * 记录一次挂单详情浏览
+     */
+    public void recordView(Long templateId) {
+        record(templateId, VIEW_WEIGHT);
+    }
+
+    @EventListener
+    public void onListingSync(ListingSyncEvent event) {
+        if (event.isRemote() || event.getChanges() == null) {
+            return;
+        }
+        for (ListingChange change : event.getChanges()) {
+            if (change.getStatus() == null) {
+                continue;
+            }
+            if (change.getStatus() == ListingStatus.PURCHASED) {
+                record(change.getTemplateId(), ORDER_WEIGHT);
+            } else if (change.getStatus() == ListingStatus.SOLD) {
+                record(change.getTemplateId(), TRADE_WEIGHT);
+            }
+        }
+    }
+
+    /**
+     * 当前排行（模板ID，按热度降序）
+     */
+    public List<Long> ranking() {
+        return ranking;
+    }
+
+    /**
+     * 每分钟把本节点计数并入 Redis 分钟桶，并刷新滑动窗口排行
+     */
+    @Scheduled(initialDelay = 60_000, fixedDelay = 60_000)
+    public void flushAndRank() {
+        flush();
+        rank();
+    }
+
+    private synchronized void record(Long templateId, long weight) {
+        if (templateId != null) {
+            current.add(templateId, weight);
+        }
+    }
+
+    private void flush() {
+        Map<Long, Long> counts;
+        synchronized (this) {
+            counts = current.counts();
+            current = new SpaceSaving(SKETCH_CAPACITY);
+        }
+        if (counts.isEmpty()) {
+            return;
+        }
+        String bucketKey = RedisKey.getHotItemsBucketKey(currentMinute());
+        try {
+            ZSetOperations<String, Object> zSet = redisTemplate.opsForZSet();
+            for (Map.Entry<Long, Long> entry : counts.entrySet()) {
+                zSet.incrementScore(bucketKey, entry.getKey(), entry.getValue());
+            }
+            redisTemplate.expire(bucketKey, WINDOW_BUCKETS + 5L, TimeUnit.MINUTES);
+        } catch (Exception e) {
+            log.warn("热度计数写入 Redis 失败，丢弃本分钟计数: templates={}, error={}", counts.size(), e.getMessage());
+        }
+    }
+
+    private void rank() {
+        long minute = currentMinute();
+        List<String> otherKeys = new ArrayList<>(WINDOW_BUCKETS - 1);
+        for (int i = 1; i < WINDOW_BUCKETS; i++) {
+            otherKeys.add(RedisKey.getHotItemsBucketKey(minute - i));
+        }
+        try {
+            ZSetOperations<String, Object> zSet = redisTemplate.opsForZSet();
+            zSet.unionAndStore(RedisKey.getHotItemsBucketKey(minute), otherKeys, RedisKey.HOT_ITEMS_KEY);
+            Set<Object> top = zSet.reverseRange(RedisKey.HOT_ITEMS_KEY, 0, TOP_K - 1);
+            List<Long> next = new ArrayList<>();
+            if (top != null) {
+                for (Object member : top) {
+                    if (member instanceof Number number) {
+                        next.add(number.longValue());
+                    }
+                }
+            }
+            ranking = List.copyOf(next);
+        } catch (Exception e) {
+            log.warn("刷新热门饰品排行失败，沿用上一次排行: {}", e.getMessage());
+        }
+    }
+
+    private static long currentMinute() {
+        return System.currentTimeMillis() / 60_000;
+    }
+
+    /**
+     * Space-Saving top-K 计数：容量满时替换计数最小的项，新项继承其计数（计数为上界）
+     */
+    private static final class SpaceSaving {
+
+        private final int capacity;
+
+        private final Map<Long, Long> counters = new HashMap<>();
+
+        SpaceSaving(int capacity) {
+            this.capacity = capacity;
+        }
+
+        void add(Long key, long weight) {
+            Long count = counters.get(key);
+            if (count != null || counters.size() < capacity) {
+                counters.put(key, (count == null ? 0 : count) + weight);
+                return;
+            }
+            Long minKey = null;
+            long minCount = Long.MAX_VALUE;
+            for (Map.Entry<Long, Long> entry : counters.entrySet()) {
+                if (entry.getValue() < minCount) {
+                    minKey = entry.getKey();
+                    minCount = entry.getValue();
+                }
+            }
+            counters.remove(minKey);
+            counters.put(key, minCount + weight);
+        }
+
+        Map<Long, Long> counts() {
+            return counters;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.buff.cache;
+
+import com.buff.constant.RedisKey;
+import com.buff.event.ItemTemplateChangedEvent;
+import com.buff.event.ListingEventRelay;
+import com.buff.mapper.ItemTemplateMapper;
+import com.buff.model.entity.ItemTemplate;
+import com.buff.model.vo.InventoryVO;
+import com.buff.model.vo.MarketListingVO;
+import com.buff.model.vo.OrderVO;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.PatternTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 饰品模板字典（进程内、不可变、带版本号）
+ * <p>
+ * item_template 数据量小且极少变更，启动时全量加载为按ID升序的 long[] + ItemTemplate[] 快照，
+ * 以二分查找代替逐行 JOIN，Mapper 查询不再关联模板表，展示字段由 {@link #enrich} 从内存填充。
+ * <p>
+ * 本节点模板写入后（{@link ItemTemplateChangedEvent}）按ID重新加载并整体替换快照，同时向频道
+ * item:template:{id} 广播；其它节点通过模式订阅 item:template:* 收到后同样重新加载，并以 remote 事件转发给本地监听者。
+ * 快照中的 {@link ItemTemplate} 为共享对象，调用方不得修改。
+ *
+ * @author Administrator
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemTemplateDictionary implements MessageListener {
+
+    private static final Snapshot EMPTY = new Snapshot(0, new long[0], new ItemTemplate[0]);
+
+    private final ItemTemplateMapper itemTemplateMapper;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private volatile Snapshot snapshot = EMPTY;
+
+    private volatile boolean loaded;
+
+    @PostConstruct
+    public void init() {
+        redisMessageListenerContainer.addMessageListener(this, new PatternTopic(RedisKey.ITEM_TEMPLATE_PREFIX + "*"));
+        reload();
+    }
+
+    /**
+     * 字典是否已完成加载
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * 当前快照版本号，每次替换递增
+     */
+    public long version() {
+        return snapshot.version;
+    }
+
+    /**
+     * 启动加载失败时每 30 秒重试
+     */
+    @Scheduled(initialDelay = 30_000, fixedDelay = 30_000)
+    public void retryLoad() {
+        if (!loaded) {
+            reload();
+        }
+    }
+
+    /**
+     * 每 10 分钟全量校准一次
+     */
+    @Scheduled(initialDelay = 600_000, fixedDelay = 600_000)
+    public void resync() {
+        reload();
+    }
+
+    /**
+     * 从数据库全量重建字典
+     */
+    public synchronized void reload() {
+        try {
+            List<ItemTemplate> templates = itemTemplateMapper.selectAllIncludingDeleted();
+            ItemTemplate[] sorted = templates.toArray(new ItemTemplate[0]);
+            Arrays.sort(sorted, (a, b) -> Long.compare(a.getId(), b.getId()));
+            long[] ids = new long[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                ids[i] = sorted[i].getId();
+            }
+            snapshot = new Snapshot(snapshot.version + 1, ids, sorted);
+            loaded = true;
+            log.info("饰品模板字典加载完成: templates={}, version={}", ids.length, snapshot.version);
+        } catch (Exception e) {
+            log.error("饰品模板字典加载失败，稍后重试", e);
+        }
+    }
+
+    /**
+     * 按ID查询模板，不存在返回 null
+     */
+    public ItemTemplate get(Long templateId) {
+        if (templateId == null) {
+            return null;
+        }
+        Snapshot current = snapshot;
+        int pos = Arrays.binarySearch(current.ids, templateId);
+        return pos >= 0 ? current.templates[pos] : null;
+    }
+
+    /**
+     * 按ID查询未删除的模板，不存在或已删除返回 null
+     */
+    public ItemTemplate getActive(Long templateId) {
+        ItemTemplate template = get(templateId);
+        return template == null || Integer.valueOf(1).equals(template.getIsDeleted()) ? null : template;
+    }
+
+    public void enrich(MarketListingVO vo) {
+        ItemTemplate template = get(vo.getTemplateId());
+        if (template != null) {
+            vo.setItemName(template.getName());
+            vo.setItemType(template.getType());
+            vo.setIconUrl(template.getIconUrl());
+        }
+    }
+
+    public void enrich(InventoryVO vo) {
+        ItemTemplate template = get(vo.getTemplateId());
+        if (template != null) {
+            vo.setItemName(template.getName());
+            vo.setIconUrl(template.getIconUrl());
+        }
+    }
+
+    public void enrich(OrderVO vo) {
+        ItemTemplate template = get(vo.getTemplateId());
+        if (template != null) {
+            vo.setItemName(template.getName());
+            vo.setIconUrl(template.getIconUrl());
+        }
+    }
+
+    /**
+     * 本节点模板写入提交后：重新加载该模板并广播给其它节点（先于其它模板变更监听者执行，使其读到新值）
+     */
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTemplateChanged(ItemTemplateChangedEvent event) {
+        if (event.isRemote()) {
+            return;
+        }
+        refresh(event.getTemplateId());
+        try {
+            redisTemplate.convertAndSend(RedisKey.getItemTemplateKey(event.getTemplateId()), ListingEventRelay.NODE_ID);
+        } catch (Exception e) {
+            log.warn("模板变更广播失败，其它节点将在下次全量同步时修正: templateId={}", event.getTemplateId(), e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            Object origin = redisTemplate.getValueSerializer().deserialize(message.getBody());
+            if (ListingEventRelay.NODE_ID.equals(origin)) {
+                return;
+            }
+            String channel = new String(message.getChannel(), StandardCharsets.UTF_8);
+            Long templateId = Long.valueOf(channel.substring(RedisKey.ITEM_TEMPLATE_PREFIX.length()));
+            refresh(templateId);
+            eventPublisher.publishEvent(new ItemTemplateChangedEvent(templateId, true));
+        } catch (Exception e) {
+            log.warn("处理模板变更广播失败", e);
+        }
+    }
+
+    /**
+     * 重新加载单个模板并替换快照
+     */
+    private synchronized void refresh(Long templateId) {
+        if (templateId == null) {
+            return;
+        }
+        try {
+            ItemTemplate template = itemTemplateMapper.selectByIdIncludingDeleted(templateId);
+            Snapshot current = snapshot;
+            int pos = Arrays.binarySearch(current.ids, templateId);
+            long[] ids;
+            ItemTemplate[] templates;
+            if (template == null && pos < 0) {
+                return;
+            } else if (template == null) {
+                ids = new long[current.ids.length - 1];
+                templates = new ItemTemplate[ids.length];
+                System.arraycopy(current.ids, 0, ids, 0, pos);
+                System.arraycopy(current.ids, pos + 1, ids, pos, ids.length - pos);
+                System.arraycopy(current.templates, 0, templates, 0, pos);
+                System.arraycopy(current.templates, pos + 1, templates, pos, ids.length - pos);
+            } else if (pos >= 0) {
+                ids = current.ids;
+                templates = current.templates.clone();
+                templates[pos] = template;
+            } else {
+                int insertAt = -pos - 1;
+                ids = new long[current.ids.length + 1];
+                templates = new ItemTemplate[ids.length];
+                System.arraycopy(current.ids, 0, ids, 0, insertAt);
+                System.arraycopy(current.templates, 0, templates, 0, insertAt);
+                ids[insertAt] = templateId;
+                templates[insertAt] = template;
+                System.arraycopy(current.ids, insertAt, ids, insertAt + 1, current.ids.length - insertAt);
+                System.arraycopy(current.templates, insertAt, templates, insertAt + 1, current.ids.length - insertAt);
+            }
+            snapshot = new Snapshot(current.version + 1, ids, templates);
+        } catch (Exception e) {
+            log.error("饰品模板字典增量更新失败: templateId={}", templateId, e);
+        }
+    }
+
+    /**
+     * 不可变字典快照，ids 与 templates 下标一一对应
+     */
+    private record Snapshot(long version, long[] ids, ItemTemplate[] templates) {
+    }
+}
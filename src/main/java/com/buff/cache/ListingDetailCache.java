@@ -0,0 +1,161 @@
+package com.buff.cache;
+
+import com.buff.constant.RedisKey;
+import com.buff.event.ListingChange;
+import com.buff.event.ListingSyncEvent;
+import com.buff.model.vo.MarketListingVO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 挂单详情二级缓存
+ * <p>
+ * L1 为进程内 Caffeine（W-TinyLFU 淘汰，容量有限），L2 为 Redis（market:listing:{id}），未命中时回源数据库并逐级回填。
+ * 挂单状态或价格变化时由 {@link ListingSyncEvent} 精确失效：所有节点清理 L1，发起节点负责清理 L2
+ * （中继先在本节点发布事件再广播，L2 已删除后其它节点才会收到失效消息）。
+ * 事件携带上架快照时直接用快照回填，避免下一次读取回源。
+ * 失效后延迟再删一次（延迟双删）：失效前已回源、失效后才回填的并发读取会把旧值写回，第二次删除将其清掉。
+ *
+ * @author Administrator
+ */
+@Slf4j
+@Component
+public class ListingDetailCache {
+
+    private static final long LOCAL_MAX_SIZE = 10_000;
+
+    private static final Duration LOCAL_TTL = Duration.ofMinutes(10);
+
+    private static final long REDIS_TTL_SECONDS = 1800;
+
+    /**
+     * 延迟双删的间隔（毫秒），应大于一次回源加载的耗时
+     */
+    private static final long SECOND_DELETE_DELAY_MILLIS = 1000;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final Cache<Long, MarketListingVO> local;
+
+    private final ScheduledExecutorService secondDeleteExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "listing-cache-evict");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ListingDetailCache(RedisTemplate<String, Object> redisTemplate, MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.local = Caffeine.newBuilder()
+                .maximumSize(LOCAL_MAX_SIZE)
+                .expireAfterWrite(LOCAL_TTL)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, local, "listingDetail");
+    }
+
+    /**
+     * 读取挂单详情，L1 → L2 → loader
+     *
+     * @return 挂单详情，不存在时返回 null（不缓存）
+     */
+    public MarketListingVO get(Long listingId, Function<Long, MarketListingVO> loader) {
+        MarketListingVO cached = local.getIfPresent(listingId);
+        if (cached != null) {
+            return cached;
+        }
+
+        String key = RedisKey.getMarketListingKey(listingId);
+        try {
+            Object value = redisTemplate.opsForValue().get(key);
+            if (value instanceof MarketListingVO vo) {
+                local.put(listingId, vo);
+                return vo;
+            }
+        } catch (Exception e) {
+            log.warn("读取挂单详情缓存失败: listingId={}, error={}", listingId, e.getMessage());
+        }
+
+        MarketListingVO loaded = loader.apply(listingId);
+        if (loaded != null) {
+            put(loaded);
+        }
+        return loaded;
+    }
+
+    @Order(1)
+    @EventListener
+    public void onListingSync(ListingSyncEvent event) {
+        if (event.getChanges() == null) {
+            return;
+        }
+        List<Long> listingIds = new ArrayList<>();
+        List<String> redisKeys = new ArrayList<>();
+        for (ListingChange change : event.getChanges()) {
+            if (change.getListingId() == null) {
+                continue;
+            }
+            listingIds.add(change.getListingId());
+            if (!event.isRemote()) {
+                redisKeys.add(RedisKey.getMarketListingKey(change.getListingId()));
+            }
+        }
+        evict(listingIds, redisKeys);
+        secondDeleteExecutor.schedule(() -> evict(listingIds, redisKeys),
+                SECOND_DELETE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+
+        // 上架快照直接回填（发起节点写 L2，其它节点只填 L1）
+        for (ListingChange change : event.getChanges()) {
+            MarketListingVO snapshot = change.getListing();
+            if (snapshot != null && snapshot.getId() != null) {
+                if (event.isRemote()) {
+                    local.put(snapshot.getId(), snapshot);
+                } else {
+                    put(snapshot);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        secondDeleteExecutor.shutdownNow();
+    }
+
+    private void evict(List<Long> listingIds, List<String> redisKeys) {
+        local.invalidateAll(listingIds);
+        if (!redisKeys.isEmpty()) {
+            try {
+                redisTemplate.delete(redisKeys);
+            } catch (Exception e) {
+                log.warn("删除挂单详情缓存失败: keys={}, error={}", redisKeys.size(), e.getMessage());
+            }
+        }
+    }
+
+    private void put(MarketListingVO listing) {
+        local.put(listing.getId(), listing);
+        long ttl = REDIS_TTL_SECONDS + ThreadLocalRandom.current().nextLong(REDIS_TTL_SECONDS / 10);
+        try {
+            redisTemplate.opsForValue().set(RedisKey.getMarketListingKey(listing.getId()), listing, ttl, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            log.warn("写入挂单详情缓存失败: listingId={}, error={}", listing.getId(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,374 @@
+package com.buff.cache;
+
+import com.buff.common.PageCursor;
+import com.buff.constant.ListingStatus;
+import com.buff.event.ListingChange;
+import com.buff.event.ListingSyncEvent;
+import com.buff.mapper.MarketListingMapper;
+import com.buff.model.vo.MarketListingVO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 进程内订单簿（按模板分组的在售挂单）
+ * <p>
+ * 每个模板维护一个按 (价格, ID) 升序排列的不可变数组快照，写入时复制（copy-on-write），
+ * 读取方只读取 volatile 快照，浏览不会与写入竞争。
+ * 启动时从 market_listing(status=0) 全量加载，之后由 {@link ListingSyncEvent} 增量维护，
+ * 并定期全量校准以修正可能丢失的广播。
+ * <p>
+ * 注意：快照中的 {@link MarketListingVO} 为共享对象，调用方不得修改。
+ *
+ * @author Administrator
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ListingOrderBook {
+
+    private static final MarketListingVO[] EMPTY = new MarketListingVO[0];
+
+    /**
+     * 价格升序，价格相同按ID升序
+     */
+    private static final Comparator<MarketListingVO> PRICE_ORDER =
+            Comparator.comparing(MarketListingVO::getPrice).thenComparing(MarketListingVO::getId);
+
+    /**
+     * 上架时间升序，时间相同按ID升序
+     */
+    private static final Comparator<MarketListingVO> TIME_ORDER =
+            Comparator.comparing(MarketListingVO::getCreateTime, Comparator.nullsFirst(Comparator.naturalOrder()))
+                    .thenComparing(MarketListingVO::getId);
+
+    private final MarketListingMapper marketListingMapper;
+
+    private final Map<Long, TemplateBook> books = new ConcurrentHashMap<>();
+
+    private final Object reloadLock = new Object();
+
+    /**
+     * 全量加载期间收到的同步事件，加载完成后按顺序重放
+     */
+    private List<ListingSyncEvent> pendingEvents;
+
+    private volatile boolean ready;
+
+    /**
+     * 订单簿是否已完成首次加载
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        reload();
+    }
+
+    /**
+     * 每 10 分钟全量校准一次
+     */
+    @Scheduled(initialDelay = 600_000, fixedDelay = 600_000)
+    public void resync() {
+        reload();
+    }
+
+    /**
+     * 从数据库全量重建订单簿
+     */
+    public void reload() {
+        synchronized (reloadLock) {
+            pendingEvents = new ArrayList<>();
+        }
+        try {
+            List<MarketListingVO> listings = marketListingMapper.selectOnSaleListings();
+            Map<Long, List<MarketListingVO>> grouped = new HashMap<>();
+            for (MarketListingVO listing : listings) {
+                if (listing.getTemplateId() != null && listing.getPrice() != null) {
+                    grouped.computeIfAbsent(listing.getTemplateId(), k -> new ArrayList<>()).add(listing);
+                }
+            }
+
+            synchronized (reloadLock) {
+                for (Map.Entry<Long, TemplateBook> entry : books.entrySet()) {
+                    if (!grouped.containsKey(entry.getKey())) {
+                        entry.getValue().replace(EMPTY);
+                    }
+                }
+                for (Map.Entry<Long, List<MarketListingVO>> entry : grouped.entrySet()) {
+                    MarketListingVO[] sorted = entry.getValue().toArray(EMPTY);
+                    Arrays.sort(sorted, PRICE_ORDER);
+                    bookOf(entry.getKey()).replace(sorted);
+                }
+                for (ListingSyncEvent event : pendingEvents) {
+                    apply(event.getChanges());
+                }
+                pendingEvents = null;
+                ready = true;
+            }
+            log.info("订单簿加载完成: templates={}, listings={}", grouped.size(), listings.size());
+        } catch (Exception e) {
+            synchronized (reloadLock) {
+                pendingEvents = null;
+            }
+            log.error("订单簿加载失败，市场查询将回退到数据库", e);
+        }
+    }
+
+    @Order(0)
+    @EventListener
+    public void onListingSync(ListingSyncEvent event) {
+        synchronized (reloadLock) {
+            if (pendingEvents != null) {
+                pendingEvents.add(event);
+            }
+        }
+        apply(event.getChanges());
+    }
+
+    /**
+     * 查询某模板下满足条件的在售挂单（已排序）
+     *
+     * @param sortField 排序字段 (price/createTime)
+     * @param sortOrder 排序方式 (asc/desc)
+     */
+    public List<MarketListingVO> select(Long templateId,
+                                        BigDecimal minPrice, BigDecimal maxPrice,
+                                        BigDecimal minWear, BigDecimal maxWear,
+                                        String sortField, String sortOrder) {
+        TemplateBook book = books.get(templateId);
+        if (book == null) {
+            return List.of();
+        }
+        MarketListingVO[] snapshot = book.snapshot;
+
+        // 快照按价格有序，价格区间直接二分定位
+        int from = minPrice == null ? 0 : lowerBound(snapshot, minPrice);
+        int to = maxPrice == null ? snapshot.length : upperBound(snapshot, maxPrice);
+
+        List<MarketListingVO> result = new ArrayList<>(Math.max(to - from, 0));
+        for (int i = from; i < to; i++) {
+            MarketListingVO listing = snapshot[i];
+            if (matchesWear(listing.getWearValue(), minWear, maxWear)) {
+                result.add(listing);
+            }
+        }
+
+        if ("createTime".equals(sortField) || "desc".equals(sortOrder)) {
+            result.sort(ordering(sortField, sortOrder));
+        }
+        return result;
+    }
+
+    /**
+     * 在 {@link #select} 的结果中定位游标之后的第一条位置
+     */
+    public static int indexAfter(List<MarketListingVO> sorted, String sortField, String sortOrder, PageCursor cursor) {
+        MarketListingVO probe = new MarketListingVO();
+        probe.setId(cursor.getId());
+        if ("createTime".equals(sortField)) {
+            probe.setCreateTime(cursor.timeKey());
+        } else {
+            probe.setPrice(cursor.decimalKey());
+        }
+        int pos = Collections.binarySearch(sorted, probe, ordering(sortField, sortOrder));
+        return pos >= 0 ? pos + 1 : -pos - 1;
+    }
+
+    private static Comparator<MarketListingVO> ordering(String sortField, String sortOrder) {
+        Comparator<MarketListingVO> base = "createTime".equals(sortField) ? TIME_ORDER : PRICE_ORDER;
+        return "desc".equals(sortOrder) ? base.reversed() : base;
+    }
+
+    /**
+     * 模板当前最低在售价，无在售挂单返回 null
+     */
+    public BigDecimal floorPrice(Long templateId) {
+        TemplateBook book = books.get(templateId);
+        if (book == null) {
+            return null;
+        }
+        MarketListingVO[] snapshot = book.snapshot;
+        return snapshot.length == 0 ? null : snapshot[0].getPrice();
+    }
+
+    /**
+     * 模板当前最低价的在售挂单，无在售挂单返回 null
+     */
+    public MarketListingVO floorListing(Long templateId) {
+        TemplateBook book = books.get(templateId);
+        if (book == null) {
+            return null;
+        }
+        MarketListingVO[] snapshot = book.snapshot;
+        return snapshot.length == 0 ? null : snapshot[0];
+    }
+
+    /**
+     * 模板当前在售数量
+     */
+    public int onSaleCount(Long templateId) {
+        TemplateBook book = books.get(templateId);
+        return book == null ? 0 : book.snapshot.length;
+    }
+
+    /**
+     * 当前有在售挂单的模板ID
+     */
+    public List<Long> templateIdsOnSale() {
+        List<Long> templateIds = new ArrayList<>();
+        for (Map.Entry<Long, TemplateBook> entry : books.entrySet()) {
+            if (entry.getValue().snapshot.length > 0) {
+                templateIds.add(entry.getKey());
+            }
+        }
+        return templateIds;
+    }
+
+    /**
+     * 指定模板（null 表示全部模板）在价格区间内的在售数量（各模板快照二分计数，不扫描挂单）
+     */
+    public long onSaleCount(Collection<Long> templateIds, BigDecimal minPrice, BigDecimal maxPrice) {
+        Collection<TemplateBook> targets = books.values();
+        if (templateIds != null) {
+            targets = new ArrayList<>(templateIds.size());
+            for (Long templateId : templateIds) {
+                TemplateBook book = books.get(templateId);
+                if (book != null) {
+                    targets.add(book);
+                }
+            }
+        }
+        long count = 0;
+        for (TemplateBook book : targets) {
+            MarketListingVO[] snapshot = book.snapshot;
+            int from = minPrice == null ? 0 : lowerBound(snapshot, minPrice);
+            int to = maxPrice == null ? snapshot.length : upperBound(snapshot, maxPrice);
+            count += Math.max(to - from, 0);
+        }
+        return count;
+    }
+
+    private void apply(List<ListingChange> changes) {
+        if (changes == null) {
+            return;
+        }
+        for (ListingChange change : changes) {
+            if (change.getTemplateId() == null || change.getListingId() == null) {
+                continue;
+            }
+            MarketListingVO snapshot = change.getListing();
+            if (snapshot != null && snapshot.getStatus() != null && snapshot.getStatus() == ListingStatus.ON_SALE
+                    && snapshot.getPrice() != null) {
+                bookOf(change.getTemplateId()).upsert(snapshot);
+            } else {
+                // 非上架状态，或快照缺失（无法展示）时直接移出订单簿，等待下次校准
+                bookOf(change.getTemplateId()).remove(change.getListingId());
+            }
+        }
+    }
+
+    private TemplateBook bookOf(Long templateId) {
+        return books.computeIfAbsent(templateId, k -> new TemplateBook());
+    }
+
+    private static boolean matchesWear(BigDecimal wear, BigDecimal minWear, BigDecimal maxWear) {
+        if (minWear == null && maxWear == null) {
+            return true;
+        }
+        if (wear == null) {
+            return false;
+        }
+        return (minWear == null || wear.compareTo(minWear) >= 0)
+                && (maxWear == null || wear.compareTo(maxWear) <= 0);
+    }
+
+    /**
+     * 第一个价格 >= price 的位置
+     */
+    private static int lowerBound(MarketListingVO[] snapshot, BigDecimal price) {
+        int lo = 0;
+        int hi = snapshot.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (snapshot[mid].getPrice().compareTo(price) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * 第一个价格 > price 的位置
+     */
+    private static int upperBound(MarketListingVO[] snapshot, BigDecimal price) {
+        int lo = 0;
+        int hi = snapshot.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (snapshot[mid].getPrice().compareTo(price) <= 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * 单个模板的订单簿，写操作串行并整体替换快照
+     */
+    private static final class TemplateBook {
+
+        private volatile MarketListingVO[] snapshot = EMPTY;
+
+        synchronized void replace(MarketListingVO[] sorted) {
+            snapshot = sorted;
+        }
+
+        synchronized void upsert(MarketListingVO listing) {
+            MarketListingVO[] current = snapshot;
+            List<MarketListingVO> next = new ArrayList<>(current.length + 1);
+            for (MarketListingVO item : current) {
+                if (!item.getId().equals(listing.getId())) {
+                    next.add(item);
+                }
+            }
+            int pos = Collections.binarySearch(next, listing, PRICE_ORDER);
+            next.add(pos < 0 ? -pos - 1 : pos, listing);
+            snapshot = next.toArray(EMPTY);
+        }
+
+        synchronized void remove(Long listingId) {
+            MarketListingVO[] current = snapshot;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i].getId().equals(listingId)) {
+                    MarketListingVO[] next = new MarketListingVO[current.length - 1];
+                    System.arraycopy(current, 0, next, 0, i);
+                    System.arraycopy(current, i + 1, next, i, current.length - i - 1);
+                    snapshot = next;
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.buff.cache;
+
+import com.buff.constant.ListingStatus;
+import com.buff.constant.RedisKey;
+import com.buff.event.ListingChange;
+import com.buff.event.ListingSyncEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 挂单购买预占（Redis Lua 原子脚本）
+ * <p>
+ * 下单前先在 Redis 上为挂单写入预占标记 order:lock:{listingId}（值为买家ID，带过期时间），
+ * 同一时刻只放行一个买家进入数据库事务，其余请求在 Redis 端即被拒绝，不再占用数据库连接和乐观锁重试。
+ * 预占只是前置过滤，最终一致性仍由挂单 version 乐观锁保证：
+ * <ul>
+ *   <li>数据库步骤失败（事务回滚）时由调用方 {@link #release} 释放，其他买家可立即重试</li>
+ *   <li>进程在两步之间崩溃时预占在 {@link #RESERVE_TTL_MILLIS} 后自动过期</li>
+ *   <li>挂单重新变为在售（取消订单、改价等）时在 {@link ListingSyncEvent} 中清除残留预占</li>
+ *   <li>Redis 不可用时放行，退化为仅靠数据库乐观锁</li>
+ * </ul>
+ *
+ * @author Administrator
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ListingReservation {
+
+    /**
+     * 预占有效期（毫秒），覆盖一次下单事务的耗时即可
+     */
+    private static final long RESERVE_TTL_MILLIS = 10_000;
+
+    /**
+     * 无预占或预占者为同一买家时写入并返回 1，否则返回 0
+     */
+    private static final DefaultRedisScript<Long> RESERVE_SCRIPT = new DefaultRedisScript<>(
+            "local holder = redis.call('GET', KEYS[1]) "
+                    + "if holder == false or holder == ARGV[1] then "
+                    + "  redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2]) "
+                    + "  return 1 "
+                    + "end "
+                    + "return 0",
+            Long.class);
+
+    /**
+     * 仅当预占者为指定买家时删除
+     */
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then "
+                    + "  return redis.call('DEL', KEYS[1]) "
+                    + "end "
+                    + "return 0",
+            Long.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    /**
+     * 为买家预占挂单
+     *
+     * @return true 表示预占成功（或 Redis 不可用而放行），false 表示已被其他买家预占
+     */
+    public boolean tryReserve(Long listingId, Long buyerId) {
+        return tryReserve(listingId, buyerId, RESERVE_TTL_MILLIS);
+    }
+
+    /**
+     * 为买家预占挂单并指定有效期（异步下单需覆盖请求在队列中的等待时间）
+     *
+     * @return true 表示预占成功（或 Redis 不可用而放行），false 表示已被其他买家预占
+     */
+    public boolean tryReserve(Long listingId, Long buyerId, long ttlMillis) {
+        try {
+            Long result = redisTemplate.execute(RESERVE_SCRIPT,
+                    List.of(RedisKey.getOrderLockKey(listingId)), buyerId, ttlMillis);
+            return result == null || result == 1L;
+        } catch (Exception e) {
+            log.warn("挂单预占失败，退化为数据库乐观锁: listingId={}, error={}", listingId, e.getMessage());
+            return true;
+        }
+    }
+
+    /**
+     * 释放买家持有的预占（数据库步骤失败后调用）
+     */
+    public void release(Long listingId, Long buyerId) {
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(RedisKey.getOrderLockKey(listingId)), buyerId);
+        } catch (Exception e) {
+            log.warn("释放挂单预占失败，等待自动过期: listingId={}, error={}", listingId, e.getMessage());
+        }
+    }
+
+    /**
+     * 挂单重新在售时清除残留预占（Redis 为共享存储，只处理本节点事件）
+     */
+    @Order(5)
+    @EventListener
+    public void onListingSync(ListingSyncEvent event) {
+        if (event.isRemote() || event.getChanges() == null) {
+            return;
+        }
+        List<String> keys = new ArrayList<>();
+        for (ListingChange change : event.getChanges()) {
+            if (change.getListingId() != null && change.getStatus() != null
+                    && change.getStatus() == ListingStatus.ON_SALE) {
+                keys.add(RedisKey.getOrderLockKey(change.getListingId()));
+            }
+        }
+        if (keys.isEmpty()) {
+            return;
+        }
+        try {
+            redisTemplate.delete(keys);
+        } catch (Exception e) {
+            log.warn("清除挂单预占失败，等待自动过期: listings={}, error={}", keys.size(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.buff.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 防击穿的逻辑过期缓存（stale-while-revalidate）
+ * <p>
+ * <ul>
+ *     <li>值以 {@link CacheEnvelope} 存入 Redis，逻辑过期后继续返回旧值，并在后台刷新</li>
+ *     <li>单节点内同一个 Key 同时只有一个加载任务（single-flight），其余调用方共享结果</li>
+ *     <li>后台刷新前先抢 Redis 租约（SET NX，值为本次租约的令牌），多个节点中只有一个去回源；释放时校验令牌，不会误删其它节点的租约</li>
+ *     <li>逻辑 TTL 与物理 TTL 都加随机抖动，避免多节点、多 Key 同时过期</li>
+ * </ul>
+ * 指标：cache.gets（result=hit/stale/miss）、cache.refresh（回源耗时）、cache.refresh.failures。
+ *
+ * @author Administrator
+ */
+@Slf4j
+@Component
+public class LogicalExpiryCache {
+
+    /**
+     * 回源租约时长（秒），应大于一次加载的最长耗时
+     */
+    private static final long LEASE_SECONDS = 10;
+
+    private static final String LEASE_SUFFIX = ":lease";
+
+    /**
+     * 仅当租约令牌一致时删除
+     */
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then "
+                    + "  return redis.call('DEL', KEYS[1]) "
+                    + "end "
+                    + "return 0",
+            Long.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final ExecutorService refreshExecutor;
+
+    public LogicalExpiryCache(RedisTemplate<String, Object> redisTemplate, MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        AtomicInteger seq = new AtomicInteger();
+        this.refreshExecutor = Executors.newFixedThreadPool(2, r -> {
+            Thread thread = new Thread(r, "cache-refresh-" + seq.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * 读取缓存
+     *
+     * @param name       缓存名称（指标标签）
+     * @param key        Redis Key
+     * @param ttlSeconds 逻辑过期时间（秒）
+     * @param loader     回源加载
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String name, String key, long ttlSeconds, Supplier<T> loader) {
+        CacheEnvelope envelope = null;
+        try {
+            envelope = (CacheEnvelope) redisTemplate.opsForValue().get(key);
+        } catch (Exception e) {
+            log.warn("读取缓存失败，直接回源: key={}, error={}", key, e.getMessage());
+        }
+
+        if (envelope != null && !envelope.isExpired()) {
+            count(name, "hit");
+            return (T) envelope.getData();
+        }
+        if (envelope != null) {
+            count(name, "stale");
+            String leaseToken = tryLease(key);
+            if (leaseToken != null) {
+                singleFlight(name, key, ttlSeconds, loader, leaseToken);
+            }
+            return (T) envelope.getData();
+        }
+
+        count(name, "miss");
+        try {
+            return (T) singleFlight(name, key, ttlSeconds, loader, null).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 删除缓存，下次读取时回源
+     */
+    public void evict(String key) {
+        try {
+            redisTemplate.delete(key);
+        } catch (Exception e) {
+            log.warn("删除缓存失败: key={}, error={}", key, e.getMessage());
+        }
+    }
+
+    /**
+     * @param leaseToken 后台刷新持有的租约令牌，为空表示同步回源（未抢租约）
+     */
+    private CompletableFuture<Object> singleFlight(String name, String key, long ttlSeconds,
+                                                   Supplier<?> loader, String leaseToken) {
+        boolean leased = leaseToken != null;
+        CompletableFuture<Object> created = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            if (leased) {
+                releaseLease(key, leaseToken);
+            }
+            return existing;
+        }
+
+        Runnable task = () -> {
+            try {
+                created.complete(load(name, key, ttlSeconds, loader));
+            } catch (Throwable e) {
+                created.completeExceptionally(e);
+            } finally {
+                inFlight.remove(key, created);
+                if (leased) {
+                    releaseLease(key, leaseToken);
+                }
+            }
+        };
+        if (leased) {
+            refreshExecutor.execute(task);
+        } else {
+            task.run();
+        }
+        return created;
+    }
+
+    private Object load(String name, String key, long ttlSeconds, Supplier<?> loader) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Object data;
+        try {
+            data = loader.get();
+        } catch (RuntimeException e) {
+            meterRegistry.counter("cache.refresh.failures", "cache", name).increment();
+            throw e;
+        } finally {
+            sample.stop(meterRegistry.timer("cache.refresh", "cache", name));
+        }
+
+        long logicalMillis = TimeUnit.SECONDS.toMillis(ttlSeconds) + jitterMillis(ttlSeconds);
+        long physicalSeconds = ttlSeconds * 3 + ThreadLocalRandom.current().nextLong(ttlSeconds + 1);
+        try {
+            redisTemplate.opsForValue().set(key,
+                    new CacheEnvelope(data, System.currentTimeMillis() + logicalMillis),
+                    physicalSeconds, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            log.warn("写入缓存失败: key={}, error={}", key, e.getMessage());
+        }
+        return data;
+    }
+
+    /**
+     * 逻辑过期时间抖动：0 ~ 10%
+     */
+    private static long jitterMillis(long ttlSeconds) {
+        long bound = TimeUnit.SECONDS.toMillis(ttlSeconds) / 10;
+        return bound <= 0 ? 0 : ThreadLocalRandom.current().nextLong(bound);
+    }
+
+    /**
+     * 抢回源租约
+     *
+     * @return 租约令牌，未抢到返回 null
+     */
+    private String tryLease(String key) {
+        String token = UUID.randomUUID().toString();
+        try {
+            return Boolean.TRUE.equals(redisTemplate.opsForValue()
+                    .setIfAbsent(key + LEASE_SUFFIX, token, LEASE_SECONDS, TimeUnit.SECONDS)) ? token : null;
+        } catch (Exception e) {
+            // Redis 不可用时退化为仅本节点 single-flight
+            return token;
+        }
+    }
+
+    /**
+     * 释放租约（刷新耗时超过租约时长后，租约可能已被其它节点重新抢到，令牌不一致则不删除）
+     */
+    private void releaseLease(String key, String token) {
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(key + LEASE_SUFFIX), token);
+        } catch (Exception e) {
+            log.debug("释放缓存刷新租约失败: key={}", key);
+        }
+    }
+
+    private void count(String name, String result) {
+        meterRegistry.counter("cache.gets", "cache", name, "result", result).increment();
+    }
+}
@@ -0,0 +1,201 @@
+package com.buff.cache;
+
+import com.buff.common.PageResult;
+import com.buff.constant.RedisKey;
+import com.buff.event.ListingChange;
+import com.buff.event.ListingSyncEvent;
+import com.buff.model.dto.MarketQueryDTO;
+import com.buff.model.vo.MarketListingVO;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 市场搜索首页结果缓存（按模板打标签、按标签失效）
+ * <p>
+ * 以规范化后的 {@link MarketQueryDTO}（关键字去空白转小写、数值去尾零，含排序与页大小）的摘要为 key 缓存第一页结果。
+ * 每条结果按其覆盖的模板打标签：指定了模板或关键字已解析为少量模板时，标签为这些模板ID；
+ * 其余宽泛查询覆盖全部模板，标签为 all。
+ * <p>
+ * 本节点提交的挂单变更（{@link ListingSyncEvent}，remote 事件由发出节点负责）只失效受影响模板的标签和 all 标签下的结果，
+ * 其它模板的结果保留。命中率按查询形态（使用了哪些筛选条件及排序方式）记录到指标 market.query.cache。
+ *
+ * @author Administrator
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MarketQueryCache {
+
+    /**
+     * 结果缓存时长（秒），另加最多 10% 的随机抖动
+     */
+    private static final long TTL_SECONDS = 60;
+
+    /**
+     * 覆盖模板数超过该值时按宽泛查询处理（标签为 all）
+     */
+    private static final int MAX_TAGGED_TEMPLATES = 50;
+
+    private static final String TAG_ALL = "all";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 读取缓存的第一页结果，未命中返回 null
+     */
+    @SuppressWarnings("unchecked")
+    public PageResult<MarketListingVO> get(MarketQueryDTO queryDTO) {
+        String result = "miss";
+        try {
+            Object cached = redisTemplate.opsForValue().get(keyOf(queryDTO));
+            if (cached instanceof PageResult<?> page) {
+                result = "hit";
+                return (PageResult<MarketListingVO>) page;
+            }
+            return null;
+        } catch (Exception e) {
+            result = "error";
+            log.warn("读取市场搜索缓存失败: {}", e.getMessage());
+            return null;
+        } finally {
+            meterRegistry.counter("market.query.cache", "shape", shapeOf(queryDTO), "result", result).increment();
+        }
+    }
+
+    /**
+     * 写入第一页结果并登记标签
+     *
+     * @param templateIds 关键字解析出的模板ID（null 表示未解析）
+     */
+    public void put(MarketQueryDTO queryDTO, List<Long> templateIds, PageResult<MarketListingVO> page) {
+        String key = keyOf(queryDTO);
+        long ttl = TTL_SECONDS + ThreadLocalRandom.current().nextLong(TTL_SECONDS / 10 + 1);
+        try {
+            redisTemplate.opsForValue().set(key, page, ttl, TimeUnit.SECONDS);
+            for (String tag : tagsOf(queryDTO, templateIds)) {
+                String tagKey = RedisKey.getMarketQueryTagKey(tag);
+                redisTemplate.opsForSet().add(tagKey, key);
+                redisTemplate.expire(tagKey, ttl, TimeUnit.SECONDS);
+            }
+        } catch (Exception e) {
+            log.warn("写入市场搜索缓存失败: {}", e.getMessage());
+        }
+    }
+
+    @Order(4)
+    @EventListener
+    public void onListingSync(ListingSyncEvent event) {
+        if (event.isRemote() || event.getChanges() == null) {
+            return;
+        }
+        Set<String> tags = new HashSet<>();
+        tags.add(TAG_ALL);
+        for (ListingChange change : event.getChanges()) {
+            if (change.getTemplateId() != null) {
+                tags.add(change.getTemplateId().toString());
+            }
+        }
+        for (String tag : tags) {
+            invalidate(tag);
+        }
+    }
+
+    /**
+     * 失效某个标签下的全部结果；只移除读到的成员，期间新登记的结果保留在标签中
+     */
+    private void invalidate(String tag) {
+        String tagKey = RedisKey.getMarketQueryTagKey(tag);
+        try {
+            Set<Object> members = redisTemplate.opsForSet().members(tagKey);
+            if (members == null || members.isEmpty()) {
+                return;
+            }
+            List<String> keys = new ArrayList<>(members.size());
+            for (Object member : members) {
+                keys.add(member.toString());
+            }
+            redisTemplate.delete(keys);
+            redisTemplate.opsForSet().remove(tagKey, members.toArray());
+        } catch (Exception e) {
+            log.warn("失效市场搜索缓存失败: tag={}, error={}", tag, e.getMessage());
+        }
+    }
+
+    private static Set<String> tagsOf(MarketQueryDTO queryDTO, List<Long> templateIds) {
+        Set<String> tags = new HashSet<>();
+        if (queryDTO.getTemplateId() != null) {
+            tags.add(queryDTO.getTemplateId().toString());
+        } else if (templateIds != null && templateIds.size() <= MAX_TAGGED_TEMPLATES) {
+            for (Long templateId : templateIds) {
+                tags.add(templateId.toString());
+            }
+        } else {
+            tags.add(TAG_ALL);
+        }
+        return tags;
+    }
+
+    private static String keyOf(MarketQueryDTO queryDTO) {
+        String keyword = StringUtils.isBlank(queryDTO.getKeyword())
+                ? "" : queryDTO.getKeyword().trim().toLowerCase(Locale.ROOT);
+        String normalized = String.join("|",
+                keyword,
+                Objects.toString(queryDTO.getTemplateId(), ""),
+                plain(queryDTO.getMinPrice()),
+                plain(queryDTO.getMaxPrice()),
+                plain(queryDTO.getMinWear()),
+                plain(queryDTO.getMaxWear()),
+                Objects.toString(queryDTO.getSortField(), ""),
+                Objects.toString(queryDTO.getSortOrder(), ""),
+                Objects.toString(queryDTO.getPageSize(), ""));
+        return RedisKey.getMarketQueryKey(DigestUtils.md5DigestAsHex(normalized.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * 查询形态：使用了哪些筛选条件及排序方式，取值有限，可作为指标标签
+     */
+    private static String shapeOf(MarketQueryDTO queryDTO) {
+        StringBuilder shape = new StringBuilder();
+        if (StringUtils.isNotBlank(queryDTO.getKeyword())) {
+            shape.append("keyword+");
+        }
+        if (queryDTO.getTemplateId() != null) {
+            shape.append("template+");
+        }
+        if (queryDTO.getMinPrice() != null || queryDTO.getMaxPrice() != null) {
+            shape.append("price+");
+        }
+        if (queryDTO.getMinWear() != null || queryDTO.getMaxWear() != null) {
+            shape.append("wear+");
+        }
+        if (shape.isEmpty()) {
+            shape.append("all+");
+        }
+        shape.append("createTime".equals(queryDTO.getSortField()) ? "createTime" : "price")
+                .append("desc".equals(queryDTO.getSortOrder()) ? ":desc" : ":asc");
+        return shape.toString();
+    }
+
+    private static String plain(BigDecimal value) {
+        return value == null ? "" : value.stripTrailingZeros().toPlainString();
+    }
+}
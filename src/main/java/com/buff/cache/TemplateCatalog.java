@@ -0,0 +1,222 @@
+package com.buff.cache;
+
+import com.buff.constant.RedisKey;
+import com.buff.event.ItemTemplateChangedEvent;
+import com.buff.event.ListingChange;
+import com.buff.event.ListingSyncEvent;
+import com.buff.model.entity.ItemTemplate;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 模板目录聚合（最低在售价、在售数量、最低价/参考价）
+ * <p>
+ * 三个维度分别存放在 Redis ZSET 中（见 {@link RedisKey#CATALOG_FLOOR_KEY} 等），member 为模板ID，
+ * 目录接口按任一维度分页时直接 ZRANGE，不对 market_listing 做 GROUP BY。
+ * <p>
+ * 本节点提交的挂单变更（{@link ListingSyncEvent}，remote 事件由发出节点负责）在订单簿应用后，
+ * 只重算受影响模板的三个分值；参考价变更时重算比值。每 10 分钟以订单簿为准全量重建一次，修正并发写入的先后错位。
+ *
+ * @author Administrator
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TemplateCatalog {
+
+    private final ListingOrderBook listingOrderBook;
+    private final ItemTemplateDictionary itemTemplateDictionary;
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private volatile boolean built;
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        rebuild();
+    }
+
+    /**
+     * 订单簿尚未就绪或 Redis 不可用导致未能重建时每 30 秒重试
+     */
+    @Scheduled(initialDelay = 30_000, fixedDelay = 30_000)
+    public void retryBuild() {
+        if (!built) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(initialDelay = 600_000, fixedDelay = 600_000)
+    public void resync() {
+        rebuild();
+    }
+
+    @Order(3)
+    @EventListener
+    public void onListingSync(ListingSyncEvent event) {
+        if (event.isRemote() || event.getChanges() == null || !listingOrderBook.isReady()) {
+            return;
+        }
+        Set<Long> templateIds = new HashSet<>();
+        for (ListingChange change : event.getChanges()) {
+            if (change.getTemplateId() != null) {
+                templateIds.add(change.getTemplateId());
+            }
+        }
+        refresh(templateIds);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTemplateChanged(ItemTemplateChangedEvent event) {
+        if (event.isRemote() || event.getTemplateId() == null || !listingOrderBook.isReady()) {
+            return;
+        }
+        refresh(List.of(event.getTemplateId()));
+    }
+
+    /**
+     * 按指定维度分页读取模板ID
+     *
+     * @param sortField 排序维度 (floorPrice/supply/priceRatio)
+     */
+    public List<Long> page(String sortField, boolean desc, long offset, int count) {
+        ZSetOperations<String, Object> zSet = redisTemplate.opsForZSet();
+        String key = keyOf(sortField);
+        Set<Object> members = desc
+                ? zSet.reverseRange(key, offset, offset + count - 1)
+                : zSet.range(key, offset, offset + count - 1);
+        List<Long> templateIds = new ArrayList<>();
+        if (members != null) {
+            for (Object member : members) {
+                if (member instanceof Number number) {
+                    templateIds.add(number.longValue());
+                }
+            }
+        }
+        return templateIds;
+    }
+
+    /**
+     * 指定维度下的模板总数
+     */
+    public long size(String sortField) {
+        Long size = redisTemplate.opsForZSet().zCard(keyOf(sortField));
+        return size == null ? 0 : size;
+    }
+
+    private static String keyOf(String sortField) {
+        if ("supply".equals(sortField)) {
+            return RedisKey.CATALOG_SUPPLY_KEY;
+        }
+        if ("priceRatio".equals(sortField)) {
+            return RedisKey.CATALOG_RATIO_KEY;
+        }
+        return RedisKey.CATALOG_FLOOR_KEY;
+    }
+
+    /**
+     * 按订单簿当前状态重算指定模板的目录分值
+     */
+    public void refresh(Collection<Long> templateIds) {
+        if (templateIds.isEmpty()) {
+            return;
+        }
+        try {
+            ZSetOperations<String, Object> zSet = redisTemplate.opsForZSet();
+            for (Long templateId : templateIds) {
+                int supply = listingOrderBook.onSaleCount(templateId);
+                BigDecimal floor = listingOrderBook.floorPrice(templateId);
+                if (supply == 0 || floor == null) {
+                    zSet.remove(RedisKey.CATALOG_FLOOR_KEY, templateId);
+                    zSet.remove(RedisKey.CATALOG_SUPPLY_KEY, templateId);
+                    zSet.remove(RedisKey.CATALOG_RATIO_KEY, templateId);
+                    continue;
+                }
+                zSet.add(RedisKey.CATALOG_FLOOR_KEY, templateId, floor.doubleValue());
+                zSet.add(RedisKey.CATALOG_SUPPLY_KEY, templateId, supply);
+                Double ratio = ratio(templateId, floor);
+                if (ratio == null) {
+                    zSet.remove(RedisKey.CATALOG_RATIO_KEY, templateId);
+                } else {
+                    zSet.add(RedisKey.CATALOG_RATIO_KEY, templateId, ratio);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("更新模板目录失败，等待下次全量重建: templates={}, error={}", templateIds.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * 以订单簿为准全量重建：写入临时 key 后 RENAME 覆盖，读取方不会看到半成品
+     */
+    public void rebuild() {
+        if (!listingOrderBook.isReady()) {
+            return;
+        }
+        try {
+            Set<ZSetOperations.TypedTuple<Object>> floors = new HashSet<>();
+            Set<ZSetOperations.TypedTuple<Object>> supplies = new HashSet<>();
+            Set<ZSetOperations.TypedTuple<Object>> ratios = new HashSet<>();
+            for (Long templateId : listingOrderBook.templateIdsOnSale()) {
+                BigDecimal floor = listingOrderBook.floorPrice(templateId);
+                int supply = listingOrderBook.onSaleCount(templateId);
+                if (floor == null || supply == 0) {
+                    continue;
+                }
+                floors.add(new DefaultTypedTuple<>(templateId, floor.doubleValue()));
+                supplies.add(new DefaultTypedTuple<>(templateId, (double) supply));
+                Double ratio = ratio(templateId, floor);
+                if (ratio != null) {
+                    ratios.add(new DefaultTypedTuple<>(templateId, ratio));
+                }
+            }
+            replace(RedisKey.CATALOG_FLOOR_KEY, floors);
+            replace(RedisKey.CATALOG_SUPPLY_KEY, supplies);
+            replace(RedisKey.CATALOG_RATIO_KEY, ratios);
+            built = true;
+            log.info("模板目录重建完成: templates={}", floors.size());
+        } catch (Exception e) {
+            log.error("模板目录重建失败", e);
+        }
+    }
+
+    private void replace(String key, Set<ZSetOperations.TypedTuple<Object>> tuples) {
+        if (tuples.isEmpty()) {
+            redisTemplate.delete(key);
+            return;
+        }
+        String tmpKey = key + ":rebuild";
+        redisTemplate.delete(tmpKey);
+        redisTemplate.opsForZSet().add(tmpKey, tuples);
+        redisTemplate.rename(tmpKey, key);
+    }
+
+    /**
+     * 最低价 / 参考价，参考价缺失或不大于0时返回 null
+     */
+    private Double ratio(Long templateId, BigDecimal floor) {
+        ItemTemplate template = itemTemplateDictionary.getActive(templateId);
+        if (template == null || template.getRefPrice() == null || template.getRefPrice().signum() <= 0) {
+            return null;
+        }
+        return floor.divide(template.getRefPrice(), MathContext.DECIMAL64).doubleValue();
+    }
+}
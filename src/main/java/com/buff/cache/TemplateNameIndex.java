@@ -0,0 +1,281 @@
+package com.buff.cache;
+
+import com.buff.event.ItemTemplateChangedEvent;
+import com.buff.mapper.ItemTemplateMapper;
+import com.buff.model.entity.ItemTemplate;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 饰品名称 n-gram 倒排索引
+ * <p>
+ * 对 item_template 的 name 与 marketHashName 做 NFKC + 小写归一化后，按码点切分二元、三元组建立倒排表，
+ * 关键字先按 n-gram 求交集得到候选模板，再逐个校验子串包含，结果与 {@code LIKE '%keyword%'} 等价。
+ * 中文名称按码点切分，全角字母数字经 NFKC 折叠为半角。
+ * <p>
+ * 启动时全量加载，模板经 ItemTemplateMapper 写入后按 {@link ItemTemplateChangedEvent} 增量更新，并定期全量校准。
+ * 读取方只访问 volatile 快照，写入时复制受影响的倒排表。
+ *
+ * @author Administrator
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TemplateNameIndex {
+
+    /**
+     * 命中模板数超过该值时不再下推 IN 列表，由调用方回退到 LIKE
+     */
+    public static final int MAX_TEMPLATE_IDS = 1000;
+
+    private static final long[] NO_IDS = new long[0];
+
+    private final ItemTemplateMapper itemTemplateMapper;
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * 索引是否已完成首次加载
+     */
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        reload();
+    }
+
+    /**
+     * 每 10 分钟全量校准一次（兜底其它节点的模板写入）
+     */
+    @Scheduled(initialDelay = 600_000, fixedDelay = 600_000)
+    public void resync() {
+        reload();
+    }
+
+    /**
+     * 从数据库全量重建索引
+     */
+    public synchronized void reload() {
+        try {
+            List<ItemTemplate> templates = itemTemplateMapper.selectAll();
+            Map<Long, String[]> texts = new HashMap<>(templates.size() * 2);
+            Map<String, Set<Long>> grams = new HashMap<>();
+            for (ItemTemplate template : templates) {
+                String[] text = textsOf(template);
+                texts.put(template.getId(), text);
+                for (String gram : gramsOf(text)) {
+                    grams.computeIfAbsent(gram, k -> new HashSet<>()).add(template.getId());
+                }
+            }
+
+            Map<String, long[]> postings = new HashMap<>(grams.size() * 2);
+            for (Map.Entry<String, Set<Long>> entry : grams.entrySet()) {
+                long[] ids = entry.getValue().stream().mapToLong(Long::longValue).toArray();
+                Arrays.sort(ids);
+                postings.put(entry.getKey(), ids);
+            }
+            snapshot = new Snapshot(postings, texts);
+            log.info("饰品名称索引加载完成: templates={}, grams={}", texts.size(), postings.size());
+        } catch (Exception e) {
+            log.error("饰品名称索引加载失败，关键字搜索将回退到 LIKE", e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTemplateChanged(ItemTemplateChangedEvent event) {
+        refresh(event.getTemplateId());
+    }
+
+    /**
+     * 增量更新单个模板（已删除的模板从索引移除）
+     */
+    public synchronized void refresh(Long templateId) {
+        Snapshot current = snapshot;
+        if (current == null || templateId == null) {
+            return;
+        }
+        try {
+            ItemTemplate template = itemTemplateMapper.selectById(templateId);
+            String[] oldText = current.texts.get(templateId);
+            String[] newText = template == null ? null : textsOf(template);
+
+            Set<String> oldGrams = oldText == null ? Set.of() : gramsOf(oldText);
+            Set<String> newGrams = newText == null ? Set.of() : gramsOf(newText);
+
+            Map<String, long[]> postings = new HashMap<>(current.postings);
+            for (String gram : oldGrams) {
+                if (!newGrams.contains(gram)) {
+                    long[] ids = without(postings.getOrDefault(gram, NO_IDS), templateId);
+                    if (ids.length == 0) {
+                        postings.remove(gram);
+                    } else {
+                        postings.put(gram, ids);
+                    }
+                }
+            }
+            for (String gram : newGrams) {
+                if (!oldGrams.contains(gram)) {
+                    postings.put(gram, with(postings.getOrDefault(gram, NO_IDS), templateId));
+                }
+            }
+
+            Map<Long, String[]> texts = new HashMap<>(current.texts);
+            if (newText == null) {
+                texts.remove(templateId);
+            } else {
+                texts.put(templateId, newText);
+            }
+            snapshot = new Snapshot(postings, texts);
+        } catch (Exception e) {
+            log.error("饰品名称索引增量更新失败: templateId={}", templateId, e);
+        }
+    }
+
+    /**
+     * 解析关键字命中的模板ID（升序）
+     *
+     * @return 命中的模板ID，可能为空列表；索引未就绪或命中过多时返回 null，调用方应回退到 LIKE
+     */
+    public List<Long> resolve(String keyword) {
+        Snapshot current = snapshot;
+        if (current == null || StringUtils.isBlank(keyword)) {
+            return null;
+        }
+        String needle = normalize(keyword);
+        int[] codePoints = needle.codePoints().toArray();
+
+        List<Long> matched = new ArrayList<>();
+        if (codePoints.length < 2) {
+            // 单字无法用 n-gram 定位，直接扫描归一化文本
+            for (Map.Entry<Long, String[]> entry : current.texts.entrySet()) {
+                if (contains(entry.getValue(), needle)) {
+                    matched.add(entry.getKey());
+                }
+            }
+            matched.sort(null);
+        } else {
+            int n = codePoints.length >= 3 ? 3 : 2;
+            List<long[]> lists = new ArrayList<>();
+            for (int i = 0; i + n <= codePoints.length; i++) {
+                long[] ids = current.postings.get(new String(codePoints, i, n));
+                if (ids == null) {
+                    return List.of();
+                }
+                lists.add(ids);
+            }
+            lists.sort((a, b) -> Integer.compare(a.length, b.length));
+            for (long id : intersect(lists)) {
+                if (contains(current.texts.get(id), needle)) {
+                    matched.add(id);
+                }
+            }
+        }
+        return matched.size() > MAX_TEMPLATE_IDS ? null : matched;
+    }
+
+    private static String[] textsOf(ItemTemplate template) {
+        return new String[]{normalize(template.getName()), normalize(template.getMarketHashName())};
+    }
+
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT).trim();
+    }
+
+    private static boolean contains(String[] texts, String needle) {
+        if (texts == null) {
+            return false;
+        }
+        for (String text : texts) {
+            if (text.contains(needle)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 各字段分别切分二元、三元组（不跨字段）
+     */
+    private static Set<String> gramsOf(String[] texts) {
+        Set<String> grams = new HashSet<>();
+        for (String text : texts) {
+            int[] codePoints = text.codePoints().toArray();
+            for (int n = 2; n <= 3; n++) {
+                for (int i = 0; i + n <= codePoints.length; i++) {
+                    grams.add(new String(codePoints, i, n));
+                }
+            }
+        }
+        return grams;
+    }
+
+    /**
+     * 多个升序数组求交集（按长度升序传入）
+     */
+    private static long[] intersect(List<long[]> lists) {
+        long[] result = lists.get(0);
+        for (int k = 1; k < lists.size() && result.length > 0; k++) {
+            long[] other = lists.get(k);
+            long[] next = new long[result.length];
+            int size = 0;
+            for (long id : result) {
+                if (Arrays.binarySearch(other, id) >= 0) {
+                    next[size++] = id;
+                }
+            }
+            result = Arrays.copyOf(next, size);
+        }
+        return result;
+    }
+
+    private static long[] with(long[] ids, long id) {
+        int pos = Arrays.binarySearch(ids, id);
+        if (pos >= 0) {
+            return ids;
+        }
+        int insertAt = -pos - 1;
+        long[] next = new long[ids.length + 1];
+        System.arraycopy(ids, 0, next, 0, insertAt);
+        next[insertAt] = id;
+        System.arraycopy(ids, insertAt, next, insertAt + 1, ids.length - insertAt);
+        return next;
+    }
+
+    private static long[] without(long[] ids, long id) {
+        int pos = Arrays.binarySearch(ids, id);
+        if (pos < 0) {
+            return ids;
+        }
+        long[] next = new long[ids.length - 1];
+        System.arraycopy(ids, 0, next, 0, pos);
+        System.arraycopy(ids, pos + 1, next, pos, ids.length - pos - 1);
+        return next;
+    }
+
+    /**
+     * 不可变索引快照
+     */
+    private record Snapshot(Map<String, long[]> postings, Map<Long, String[]> texts) {
+    }
+}
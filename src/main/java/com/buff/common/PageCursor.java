@@ -0,0 +1,95 @@
+package com.buff.common;
+
+import com.buff.exception.BusinessException;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * 游标分页的游标
+ * <p>
+ * 记录上一页最后一行的排序键和ID，对外编码为不透明的 Base64 字符串。
+ * 查询时按 (排序键, ID) 做 seek，而不是 LIMIT offset，深分页耗时与页码无关。
+ *
+ * @author Administrator
+ */
+@Getter
+public class PageCursor {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * 排序键（价格或时间的字符串形式）
+     */
+    private final String sortKey;
+
+    /**
+     * 最后一行ID（排序键相同时的次序）
+     */
+    private final Long id;
+
+    private PageCursor(String sortKey, Long id) {
+        this.sortKey = sortKey;
+        this.id = id;
+    }
+
+    /**
+     * 按价格排序的游标
+     */
+    public static String encode(BigDecimal sortKey, Long id) {
+        return encode(sortKey == null ? "" : sortKey.toPlainString(), id);
+    }
+
+    /**
+     * 按时间排序的游标
+     */
+    public static String encode(LocalDateTime sortKey, Long id) {
+        return encode(sortKey == null ? "" : sortKey.toString(), id);
+    }
+
+    private static String encode(String sortKey, Long id) {
+        String raw = sortKey + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标，为空时返回 null（即偏移量分页模式）
+     */
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int idx = raw.lastIndexOf(SEPARATOR);
+            return new PageCursor(raw.substring(0, idx), Long.parseLong(raw.substring(idx + 1)));
+        } catch (Exception e) {
+            throw new BusinessException(ResultCode.PARAM_ERROR, "分页游标无效");
+        }
+    }
+
+    /**
+     * 排序键按价格解析
+     */
+    public BigDecimal decimalKey() {
+        try {
+            return new BigDecimal(sortKey);
+        } catch (Exception e) {
+            throw new BusinessException(ResultCode.PARAM_ERROR, "分页游标无效");
+        }
+    }
+
+    /**
+     * 排序键按时间解析
+     */
+    public LocalDateTime timeKey() {
+        try {
+            return LocalDateTime.parse(sortKey);
+        } catch (Exception e) {
+            throw new BusinessException(ResultCode.PARAM_ERROR, "分页游标无效");
+        }
+    }
+}
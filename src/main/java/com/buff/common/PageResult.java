@@ -6,9 +6,13 @@ import lombok.NoArgsConstructor;
 
 import java.io.Serializable;
 import java.util.List;
+import java.util.function.Function;
 
 /**
  * 分页结果封装类
+ * <p>
+ * 支持两种模式：偏移量分页（pageNum/pageSize，返回 total）与游标分页（cursor，返回 nextCursor）。
+ * 偏移量分页的结果同样带上 nextCursor，客户端可随时切换到游标模式继续翻页。
  *
  * @author Administrator
  * @param <T> 数据类型
@@ -21,7 +25,7 @@ public class PageResult<T> implements Serializable {
     private static final long serialVersionUID = 1L;
 
     /**
-     * 总记录数
+     * 总记录数（游标模式下不统计，为 null）
      */
     private Long total;
 
@@ -45,18 +49,65 @@ public class PageResult<T> implements Serializable {
      */
     private Integer totalPages;
 
+    /**
+     * total 是否为精确值（为 false 时 total 是估算/封顶值，如 "10000+"）
+     */
+    private Boolean totalExact;
+
+    /**
+     * 下一页游标（没有更多数据时为 null）
+     */
+    private String nextCursor;
+
+    /**
+     * 是否还有下一页
+     */
+    private Boolean hasMore;
+
     public PageResult(Long total, List<T> list, Integer pageNum, Integer pageSize) {
+        this(total, list, pageNum, pageSize, true);
+    }
+
+    /**
+     * @param totalExact total 是否精确；非精确时 total 为下限，hasMore 同时参考本页是否取满
+     */
+    public PageResult(Long total, List<T> list, Integer pageNum, Integer pageSize, boolean totalExact) {
         this.total = total;
         this.list = list;
         this.pageNum = pageNum;
         this.pageSize = pageSize;
         this.totalPages = (int) Math.ceil((double) total / pageSize);
+        this.totalExact = totalExact;
+        this.hasMore = (long) pageNum * pageSize < total || (!totalExact && list.size() >= pageSize);
     }
 
     /**
      * 创建空分页结果
      */
     public static <T> PageResult<T> empty(Integer pageNum, Integer pageSize) {
-        return new PageResult<>(0L, List.of(), pageNum, pageSize, 0);
+        return new PageResult<>(0L, List.of(), pageNum, pageSize, 0, true, null, false);
+    }
+
+    /**
+     * 创建游标分页结果
+     *
+     * @param rows     按 pageSize + 1 条查询出的数据，多出的一条仅用于判断是否还有下一页
+     * @param cursorOf 由行数据生成游标
+     */
+    public static <T> PageResult<T> ofCursor(List<T> rows, Integer pageSize, Function<T, String> cursorOf) {
+        boolean hasMore = rows.size() > pageSize;
+        List<T> list = hasMore ? List.copyOf(rows.subList(0, pageSize)) : rows;
+        String nextCursor = hasMore ? cursorOf.apply(list.get(list.size() - 1)) : null;
+        return new PageResult<>(null, list, null, pageSize, null, null, nextCursor, hasMore);
+    }
+
+    /**
+     * 偏移量分页结果附带下一页游标
+     */
+    public PageResult<T> withCursor(Function<T, String> cursorOf) {
+        if (Boolean.TRUE.equals(hasMore) && list != null && !list.isEmpty()) {
+            this.nextCursor = cursorOf.apply(list.get(list.size() - 1));
+        }
+        return this;
     }
 }
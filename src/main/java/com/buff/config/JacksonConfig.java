@@ -0,0 +1,25 @@
+package com.buff.config;
+
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Jackson 配置（Spring MVC 接口序列化）
+ * <p>
+ * 挂单、订单、求购等ID由 Snowflake 生成，远超 JavaScript 可精确表示的 2^53，
+ * 按数字输出会被前端截断成另一个ID，因此 Long 统一序列化为字符串；入参的字符串或数字均可反序列化为 Long。
+ *
+ * @author Administrator
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer longToStringCustomizer() {
+        return builder -> builder
+                .serializerByType(Long.class, ToStringSerializer.instance)
+                .serializerByType(Long.TYPE, ToStringSerializer.instance);
+    }
+}
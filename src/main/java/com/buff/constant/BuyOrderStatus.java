@@ -0,0 +1,24 @@
+package com.buff.constant;
+
+/**
+ * 求购单状态常量
+ *
+ * @author Administrator
+ */
+public interface BuyOrderStatus {
+
+    /**
+     * 求购中
+     */
+    int OPEN = 0;
+
+    /**
+     * 已完成（全部成交）
+     */
+    int FILLED = 1;
+
+    /**
+     * 已取消
+     */
+    int CANCELLED = 2;
+}
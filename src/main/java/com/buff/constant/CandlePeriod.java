@@ -0,0 +1,49 @@
+package com.buff.constant;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * K线粒度
+ *
+ * @author Administrator
+ */
+public enum CandlePeriod {
+
+    HOUR("1h", ChronoUnit.HOURS),
+    DAY("1d", ChronoUnit.DAYS);
+
+    private final String code;
+    private final ChronoUnit unit;
+
+    CandlePeriod(String code, ChronoUnit unit) {
+        this.code = code;
+        this.unit = unit;
+    }
+
+    /**
+     * 数据库与接口中使用的编码
+     */
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * 时间所在区间的起始时间
+     */
+    public LocalDateTime bucketStart(LocalDateTime time) {
+        return time.truncatedTo(unit);
+    }
+
+    /**
+     * 按编码查找，未知编码返回 null
+     */
+    public static CandlePeriod ofCode(String code) {
+        for (CandlePeriod period : values()) {
+            if (period.code.equals(code)) {
+                return period;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,33 @@
+package com.buff.constant;
+
+/**
+ * 库存状态迁移表
+ * <p>
+ * 每个迁移对应一条条件更新语句：SET status = to WHERE id = ? AND status = from AND is_deleted = 0。
+ *
+ * @author Administrator
+ */
+public enum InventoryTransition {
+
+    /** 上架：在库 → 出售中 */
+    LIST(InventoryStatus.IN_STOCK, InventoryStatus.ON_SALE),
+
+    /** 下架：出售中 → 在库 */
+    DELIST(InventoryStatus.ON_SALE, InventoryStatus.IN_STOCK);
+
+    private final int from;
+    private final int to;
+
+    InventoryTransition(int from, int to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    public int getFrom() {
+        return from;
+    }
+
+    public int getTo() {
+        return to;
+    }
+}
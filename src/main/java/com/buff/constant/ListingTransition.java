@@ -0,0 +1,37 @@
+package com.buff.constant;
+
+/**
+ * 挂单状态迁移表
+ * <p>
+ * 每个迁移对应一条条件更新语句：SET status = to, version = version + 1 WHERE id = ? AND status = from。
+ * 购买锁定（上架中 → 已被购买）仍按 version 乐观锁更新，保证成交价与买家看到的价格一致。
+ *
+ * @author Administrator
+ */
+public enum ListingTransition {
+
+    /** 卖家下架：上架中 → 已下架 */
+    TAKE_DOWN(ListingStatus.ON_SALE, ListingStatus.OFF_SALE),
+
+    /** 订单取消释放：已被购买 → 上架中 */
+    RELEASE(ListingStatus.PURCHASED, ListingStatus.ON_SALE),
+
+    /** 交易完成：已被购买 → 已售出 */
+    SELL(ListingStatus.PURCHASED, ListingStatus.SOLD);
+
+    private final int from;
+    private final int to;
+
+    ListingTransition(int from, int to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    public int getFrom() {
+        return from;
+    }
+
+    public int getTo() {
+        return to;
+    }
+}
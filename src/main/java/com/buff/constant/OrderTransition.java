@@ -0,0 +1,49 @@
+package com.buff.constant;
+
+/**
+ * 订单状态迁移表
+ * <p>
+ * 每个迁移对应一条条件更新语句：SET status = to[, 时间字段 = NOW()] WHERE id = ? AND status = from，
+ * 返回 0 表示订单已不处于 from 状态（被并发操作抢先），由调用方决定报错或忽略。
+ *
+ * @author Administrator
+ */
+public enum OrderTransition {
+
+    /** 支付：待支付 → 待发货 */
+    PAY(OrderStatus.PENDING_PAY, OrderStatus.PAID_WAIT_DELIVERY, "pay_time"),
+
+    /** 发货：待发货 → 已发货 */
+    DELIVER(OrderStatus.PAID_WAIT_DELIVERY, OrderStatus.DELIVERED, "deliver_time"),
+
+    /** 确认收货：已发货 → 交易成功 */
+    CONFIRM(OrderStatus.DELIVERED, OrderStatus.SUCCESS, "finish_time"),
+
+    /** 取消：待支付 → 已取消 */
+    CANCEL(OrderStatus.PENDING_PAY, OrderStatus.CANCELLED, null);
+
+    private final int from;
+    private final int to;
+    private final String timeColumn;
+
+    OrderTransition(int from, int to, String timeColumn) {
+        this.from = from;
+        this.to = to;
+        this.timeColumn = timeColumn;
+    }
+
+    public int getFrom() {
+        return from;
+    }
+
+    public int getTo() {
+        return to;
+    }
+
+    /**
+     * 迁移时一并写入当前时间的字段，无则为 null
+     */
+    public String getTimeColumn() {
+        return timeColumn;
+    }
+}
@@ -28,10 +28,20 @@ public interface RedisKey {
     String MARKET_LISTING_PREFIX = "market:listing:";
 
     /**
-     * 订单锁前缀
+     * 挂单购买预占前缀（值为预占买家ID，见 ListingReservation）
      */
     String ORDER_LOCK_PREFIX = "order:lock:";
 
+    /**
+     * 异步下单结果前缀（值为 OrderPlaceResultVO，key 为下单令牌）
+     */
+    String ORDER_PLACE_PREFIX = "order:place:";
+
+    /**
+     * ID生成器节点号租约前缀（值为租用节点标识，带过期时间）
+     */
+    String ID_WORKER_PREFIX = "id:worker:";
+
     /**
      * 库存锁前缀
      */
@@ -43,10 +53,65 @@ public interface RedisKey {
     String REFRESH_TOKEN_PREFIX = "auth:refresh:";
 
     /**
-     * 热门饰品列表Key
+     * 热门饰品排行Key（ZSET，滑动窗口内各分钟桶的合并结果）
      */
     String HOT_ITEMS_KEY = "market:hot:items";
 
+    /**
+     * 热门饰品展示列表Key（逻辑过期缓存）
+     */
+    String HOT_ITEMS_VIEW_KEY = "market:hot:view";
+
+    /**
+     * 热门饰品分钟桶前缀（ZSET，member 为模板ID，score 为该分钟的热度）
+     */
+    String HOT_ITEMS_BUCKET_PREFIX = "market:hot:bucket:";
+
+    /**
+     * 市场搜索首页结果缓存前缀（key 为规范化查询条件的摘要）
+     */
+    String MARKET_QUERY_PREFIX = "market:query:";
+
+    /**
+     * 市场搜索结果缓存标签前缀（SET，成员为覆盖该模板的结果缓存Key；标签 all 表示覆盖全部模板）
+     */
+    String MARKET_QUERY_TAG_PREFIX = "market:query:tag:";
+
+    /**
+     * 模板目录：最低在售价（ZSET，member 为模板ID，score 为最低价，仅含有在售挂单的模板）
+     */
+    String CATALOG_FLOOR_KEY = "market:catalog:floor";
+
+    /**
+     * 模板目录：在售数量（ZSET，member 为模板ID，score 为在售挂单数）
+     */
+    String CATALOG_SUPPLY_KEY = "market:catalog:supply";
+
+    /**
+     * 模板目录：最低价与参考价之比（ZSET，member 为模板ID，仅含参考价大于0的模板）
+     */
+    String CATALOG_RATIO_KEY = "market:catalog:ratio";
+
+    /**
+     * 挂单变更广播频道（各节点同步进程内订单簿）
+     */
+    String LISTING_CHANGE_CHANNEL = "market:listing:changed";
+
+    /**
+     * 求购变更广播频道前缀（market:bid:changed:{templateId}，各节点重新加载该模板的求购簿）
+     */
+    String BID_CHANGE_PREFIX = "market:bid:changed:";
+
+    /**
+     * 市场搜索总数缓存前缀（key 为归一化查询条件的摘要）
+     */
+    String MARKET_COUNT_PREFIX = "market:count:";
+
+    /**
+     * 市场搜索分面统计缓存前缀（key 为归一化查询条件的摘要）
+     */
+    String MARKET_FACET_PREFIX = "market:facet:";
+
     /**
      * 获取验证码Key
      */
@@ -75,6 +140,48 @@ public interface RedisKey {
         return MARKET_LISTING_PREFIX + listingId;
     }
 
+    /**
+     * 获取市场搜索总数缓存Key
+     */
+    static String getMarketCountKey(String queryDigest) {
+        return MARKET_COUNT_PREFIX + queryDigest;
+    }
+
+    /**
+     * 获取市场搜索分面统计缓存Key
+     */
+    static String getMarketFacetKey(String queryDigest) {
+        return MARKET_FACET_PREFIX + queryDigest;
+    }
+
+    /**
+     * 获取市场搜索结果缓存Key
+     */
+    static String getMarketQueryKey(String queryDigest) {
+        return MARKET_QUERY_PREFIX + queryDigest;
+    }
+
+    /**
+     * 获取市场搜索结果缓存标签Key
+     */
+    static String getMarketQueryTagKey(String tag) {
+        return MARKET_QUERY_TAG_PREFIX + tag;
+    }
+
+    /**
+     * 获取求购变更广播频道
+     */
+    static String getBidChangeKey(Long templateId) {
+        return BID_CHANGE_PREFIX + templateId;
+    }
+
+    /**
+     * 获取热门饰品分钟桶Key
+     */
+    static String getHotItemsBucketKey(long epochMinute) {
+        return HOT_ITEMS_BUCKET_PREFIX + epochMinute;
+    }
+
     /**
      * 获取订单锁Key
      */
@@ -82,6 +189,20 @@ public interface RedisKey {
         return ORDER_LOCK_PREFIX + listingId;
     }
 
+    /**
+     * 获取异步下单结果Key
+     */
+    static String getOrderPlaceKey(String token) {
+        return ORDER_PLACE_PREFIX + token;
+    }
+
+    /**
+     * 获取ID生成器节点号租约Key
+     */
+    static String getIdWorkerKey(long workerId) {
+        return ID_WORKER_PREFIX + workerId;
+    }
+
     /**
      * 获取库存锁Key
      */
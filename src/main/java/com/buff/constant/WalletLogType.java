@@ -26,4 +26,14 @@ public interface WalletLogType {
      * 出售收入
      */
     int SALE_INCOME = 4;
+
+    /**
+     * 求购冻结
+     */
+    int BUY_ORDER_FREEZE = 5;
+
+    /**
+     * 求购退回
+     */
+    int BUY_ORDER_REFUND = 6;
 }
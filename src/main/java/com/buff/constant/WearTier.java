@@ -0,0 +1,55 @@
+package com.buff.constant;
+
+import java.math.BigDecimal;
+
+/**
+ * 外观（磨损等级），磨损区间为左闭右开 [min, max)
+ *
+ * @author Administrator
+ */
+public enum WearTier {
+
+    FACTORY_NEW("崭新出厂", BigDecimal.ZERO, new BigDecimal("0.07")),
+    MINIMAL_WEAR("略有磨损", new BigDecimal("0.07"), new BigDecimal("0.15")),
+    FIELD_TESTED("久经沙场", new BigDecimal("0.15"), new BigDecimal("0.37")),
+    WELL_WORN("破损不堪", new BigDecimal("0.37"), new BigDecimal("0.44")),
+    BATTLE_SCARRED("战痕累累", new BigDecimal("0.44"), BigDecimal.ONE);
+
+    private final String label;
+    private final BigDecimal min;
+    private final BigDecimal max;
+
+    WearTier(String label, BigDecimal min, BigDecimal max) {
+        this.label = label;
+        this.min = min;
+        this.max = max;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public BigDecimal getMin() {
+        return min;
+    }
+
+    public BigDecimal getMax() {
+        return max;
+    }
+
+    /**
+     * 按中文名称查找，未知名称返回 null
+     */
+    public static WearTier ofLabel(String label) {
+        if (label == null) {
+            return null;
+        }
+        String trimmed = label.trim();
+        for (WearTier tier : values()) {
+            if (tier.label.equals(trimmed)) {
+                return tier;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,79 @@
+package com.buff.controller;
+
+import com.buff.common.PageResult;
+import com.buff.common.Result;
+import com.buff.model.dto.BuyOrderCreateDTO;
+import com.buff.model.vo.BidLevelVO;
+import com.buff.model.vo.BuyOrderVO;
+import com.buff.service.BuyOrderService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * 求购控制器
+ *
+ * @author Administrator
+ */
+@Tag(name = "求购管理", description = "求购发布、撮合与一键出售相关接口")
+@Validated
+@RestController
+@RequestMapping("/buy-order")
+@RequiredArgsConstructor
+public class BuyOrderController {
+
+    private final BuyOrderService buyOrderService;
+
+    @Operation(summary = "发布求购", description = "冻结求购资金并挂出求购，立即与现有在售挂单撮合")
+    @PostMapping("/create")
+    public Result<Long> createBuyOrder(@Valid @RequestBody BuyOrderCreateDTO dto) {
+        Long id = buyOrderService.createBuyOrder(dto);
+        return Result.success(id);
+    }
+
+    @Operation(summary = "取消求购", description = "取消求购中的求购单，退回未成交部分的冻结资金")
+    @PostMapping("/{id}/cancel")
+    public Result<Void> cancelBuyOrder(
+            @Parameter(description = "求购单ID", example = "1")
+            @PathVariable Long id) {
+        buyOrderService.cancelBuyOrder(id);
+        return Result.success();
+    }
+
+    @Operation(summary = "查看我的求购", description = "查看当前用户发布的求购单")
+    @GetMapping("/my")
+    public Result<PageResult<BuyOrderVO>> getMyBuyOrders(
+            @Parameter(description = "求购状态：0=求购中, 1=已完成, 2=已取消")
+            @RequestParam(required = false) Integer status,
+            @Parameter(description = "页码", example = "1")
+            @RequestParam(defaultValue = "1") Integer pageNum,
+            @Parameter(description = "每页大小", example = "20")
+            @RequestParam(defaultValue = "20") Integer pageSize) {
+        PageResult<BuyOrderVO> result = buyOrderService.getMyBuyOrders(status, pageNum, pageSize);
+        return Result.success(result);
+    }
+
+    @Operation(summary = "求购深度", description = "按价位汇总某饰品模板的求购数量，价格从高到低")
+    @GetMapping("/depth/{templateId}")
+    public Result<List<BidLevelVO>> getBidDepth(
+            @Parameter(description = "饰品模板ID", example = "1")
+            @PathVariable Long templateId) {
+        List<BidLevelVO> levels = buyOrderService.getBidDepth(templateId);
+        return Result.success(levels);
+    }
+
+    @Operation(summary = "一键出售", description = "将库存饰品按最高可成交求购价卖出，返回待发货订单编号")
+    @PostMapping("/instant-sell/{inventoryId}")
+    public Result<String> instantSell(
+            @Parameter(description = "库存ID", example = "1")
+            @PathVariable Long inventoryId) {
+        String orderNo = buyOrderService.instantSell(inventoryId);
+        return Result.success(orderNo);
+    }
+}
@@ -2,17 +2,37 @@ package com.buff.controller;
 
 import com.buff.common.PageResult;
 import com.buff.common.Result;
+import com.buff.common.ResultCode;
+import com.buff.event.PriceTicker;
+import com.buff.exception.BusinessException;
+import com.buff.model.dto.ListingBatchCreateDTO;
+import com.buff.model.dto.ListingBatchRepriceDTO;
 import com.buff.model.dto.ListingCreateDTO;
+import com.buff.model.dto.ListingRepriceDTO;
 import com.buff.model.dto.MarketQueryDTO;
+import com.buff.model.vo.CatalogItemVO;
+import com.buff.model.vo.ListingBatchResultVO;
+import com.buff.model.vo.MarketFacetVO;
 import com.buff.model.vo.MarketListingVO;
+import com.buff.model.vo.PriceCandleVO;
 import com.buff.service.MarketListingService;
+import com.buff.service.PriceCandleService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Semaphore;
 
 /**
  * 市场挂单控制器
@@ -26,7 +46,16 @@ import org.springframework.web.bind.annotation.*;
 @RequiredArgsConstructor
 public class MarketListingController {
 
+    /**
+     * 同时进行的导出数上限：流式导出在客户端读完前一直占用一个数据库连接和只读事务，慢客户端不能耗尽连接池
+     */
+    private static final int EXPORT_MAX_CONCURRENCY = 2;
+
+    private final Semaphore exportPermits = new Semaphore(EXPORT_MAX_CONCURRENCY);
+
     private final MarketListingService marketListingService;
+    private final PriceTicker priceTicker;
+    private final PriceCandleService priceCandleService;
 
     @Operation(summary = "上架商品", description = "将库存中的饰品上架到市场")
     @PostMapping("/list")
@@ -35,6 +64,13 @@ public class MarketListingController {
         return Result.success(listingId);
     }
 
+    @Operation(summary = "批量上架商品", description = "一次上架多件库存饰品，逐项返回成功或失败原因")
+    @PostMapping("/list/batch")
+    public Result<ListingBatchResultVO> createListings(@Valid @RequestBody ListingBatchCreateDTO dto) {
+        ListingBatchResultVO result = marketListingService.createListings(dto);
+        return Result.success(result);
+    }
+
     @Operation(summary = "下架商品", description = "将已上架的商品下架")
     @DeleteMapping("/list/{id}")
     public Result<Void> cancelListing(
@@ -53,6 +89,30 @@ public class MarketListingController {
         return Result.success();
     }
 
+    @Operation(summary = "批量下架", description = "按库存ID批量下架，逐项返回成功或失败原因")
+    @PostMapping("/list/by-inventory/batch-cancel")
+    public Result<ListingBatchResultVO> cancelListingsByInventoryIds(
+            @Parameter(description = "库存ID列表")
+            @RequestBody @NotEmpty(message = "库存ID列表不能为空")
+            @Size(max = 100, message = "单次最多下架100件") List<Long> inventoryIds) {
+        ListingBatchResultVO result = marketListingService.cancelListingsByInventoryIds(inventoryIds);
+        return Result.success(result);
+    }
+
+    @Operation(summary = "改价", description = "修改在售挂单价格，挂单ID保持不变")
+    @PutMapping("/list/price")
+    public Result<Void> repriceListing(@Valid @RequestBody ListingRepriceDTO dto) {
+        marketListingService.repriceListing(dto);
+        return Result.success();
+    }
+
+    @Operation(summary = "批量改价", description = "一次修改多个在售挂单价格，逐项返回成功或失败原因")
+    @PutMapping("/list/price/batch")
+    public Result<ListingBatchResultVO> repriceListings(@Valid @RequestBody ListingBatchRepriceDTO dto) {
+        ListingBatchResultVO result = marketListingService.repriceListings(dto);
+        return Result.success(result);
+    }
+
     @Operation(summary = "查询市场商品", description = "分页查询市场在售商品，支持多条件筛选和排序")
     @GetMapping("/listings")
     public Result<PageResult<MarketListingVO>> getMarketListings(@Valid MarketQueryDTO queryDTO) {
@@ -60,6 +120,48 @@ public class MarketListingController {
         return Result.success(result);
     }
 
+    @Operation(summary = "导出在售商品", description = "按筛选条件流式导出全部在售商品（NDJSON 或 CSV），单次扫描、内存占用恒定，忽略排序与分页参数")
+    @GetMapping("/listings/export")
+    public void exportMarketListings(
+            @Valid MarketQueryDTO queryDTO,
+            @Parameter(description = "导出格式 (ndjson/csv)", example = "ndjson")
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletResponse response) throws IOException {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"ndjson".equalsIgnoreCase(format)) {
+            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "导出格式仅支持 ndjson 或 csv");
+        }
+        if (!exportPermits.tryAcquire()) {
+            throw new BusinessException(ResultCode.ERROR.getCode(), "导出请求过多，请稍后重试");
+        }
+        try {
+            response.setContentType(csv ? "text/csv;charset=UTF-8" : "application/x-ndjson;charset=UTF-8");
+            response.setHeader("Content-Disposition", "attachment; filename=market-listings." + (csv ? "csv" : "ndjson"));
+            marketListingService.exportMarketListings(queryDTO, csv, response.getOutputStream());
+        } finally {
+            exportPermits.release();
+        }
+    }
+
+    @Operation(summary = "订阅模板行情", description = "SSE 推送所订阅模板的最低价与在售数量变化，每秒最多推送一次（事件名 tick）")
+    @GetMapping(value = "/ticker", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeTicker(
+            @Parameter(description = "模板ID列表，逗号分隔", example = "1,2,3")
+            @RequestParam List<Long> templateIds) {
+        if (templateIds.isEmpty() || templateIds.size() > PriceTicker.MAX_TEMPLATES) {
+            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(),
+                    "模板数量须在 1 到 " + PriceTicker.MAX_TEMPLATES + " 之间");
+        }
+        return priceTicker.subscribe(templateIds);
+    }
+
+    @Operation(summary = "市场搜索分面统计", description = "按当前筛选条件统计各外观、类型、稀有度的在售数量及价格分布")
+    @GetMapping("/facets")
+    public Result<MarketFacetVO> getMarketFacets(@Valid MarketQueryDTO queryDTO) {
+        MarketFacetVO facets = marketListingService.getMarketFacets(queryDTO);
+        return Result.success(facets);
+    }
+
     @Operation(summary = "查看挂单详情", description = "查看单个挂单的详细信息")
     @GetMapping("/listing/{id}")
     public Result<MarketListingVO> getListingDetail(
@@ -77,12 +179,14 @@ public class MarketListingController {
             @Parameter(description = "页码", example = "1")
             @RequestParam(defaultValue = "1") Integer pageNum,
             @Parameter(description = "每页大小", example = "20")
-            @RequestParam(defaultValue = "20") Integer pageSize) {
-        PageResult<MarketListingVO> result = marketListingService.getMyListings(status, pageNum, pageSize);
+            @RequestParam(defaultValue = "20") Integer pageSize,
+            @Parameter(description = "分页游标（取自上一页的 nextCursor）")
+            @RequestParam(required = false) String cursor) {
+        PageResult<MarketListingVO> result = marketListingService.getMyListings(status, pageNum, pageSize, cursor);
         return Result.success(result);
     }
 
-    @Operation(summary = "获取热门饰品", description = "获取热门饰品列表，数据来自Redis缓存")
+    @Operation(summary = "获取热门饰品", description = "获取热门饰品列表，按近一小时浏览、下单、成交热度排行")
     @GetMapping("/hot-items")
     public Result<PageResult<MarketListingVO>> getHotItems(
             @Parameter(description = "页码", example = "1")
@@ -93,7 +197,35 @@ public class MarketListingController {
         return Result.success(result);
     }
 
-    @Operation(summary = "刷新热门饰品缓存", description = "手动刷新热门饰品缓存")
+    @Operation(summary = "模板目录", description = "按最低在售价、在售数量或最低价/参考价比值浏览有在售挂单的模板")
+    @GetMapping("/catalog")
+    public Result<PageResult<CatalogItemVO>> getCatalog(
+            @Parameter(description = "排序维度 (floorPrice/supply/priceRatio)", example = "floorPrice")
+            @RequestParam(defaultValue = "floorPrice") String sortField,
+            @Parameter(description = "排序方式 (asc/desc)", example = "asc")
+            @RequestParam(defaultValue = "asc") String sortOrder,
+            @Parameter(description = "页码", example = "1")
+            @RequestParam(defaultValue = "1") Integer pageNum,
+            @Parameter(description = "每页大小", example = "20")
+            @RequestParam(defaultValue = "20") Integer pageSize) {
+        PageResult<CatalogItemVO> result = marketListingService.getCatalog(sortField, sortOrder, pageNum, pageSize);
+        return Result.success(result);
+    }
+
+    @Operation(summary = "成交价K线", description = "查询模板最近的成交价K线（OHLC 与成交量），按时间升序")
+    @GetMapping("/candles/{templateId}")
+    public Result<List<PriceCandleVO>> getCandles(
+            @Parameter(description = "模板ID", example = "1")
+            @PathVariable Long templateId,
+            @Parameter(description = "粒度 (1h/1d)", example = "1h")
+            @RequestParam(defaultValue = "1h") String period,
+            @Parameter(description = "条数，最多500", example = "168")
+            @RequestParam(required = false) Integer limit) {
+        List<PriceCandleVO> candles = priceCandleService.getCandles(templateId, period, limit);
+        return Result.success(candles);
+    }
+
+    @Operation(summary = "刷新热门饰品排行", description = "立即合并各节点热度计数并刷新排行")
     @PostMapping("/refresh-hot-items")
     public Result<Void> refreshHotItems() {
         marketListingService.refreshHotItems();
@@ -2,7 +2,10 @@ package com.buff.controller;
 
 import com.buff.common.PageResult;
 import com.buff.common.Result;
+import com.buff.model.dto.CartCheckoutDTO;
 import com.buff.model.dto.OrderCreateDTO;
+import com.buff.model.vo.CartCheckoutResultVO;
+import com.buff.model.vo.OrderPlaceResultVO;
 import com.buff.model.vo.OrderVO;
 import com.buff.service.TradeOrderService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -34,6 +37,36 @@ public class TradeOrderController {
         return Result.success(orderNo);
     }
 
+    @Operation(summary = "立即购买", description = "一次请求完成下单和余额支付，返回待发货订单编号")
+    @PostMapping("/buy-now")
+    public Result<String> buyNow(@Valid @RequestBody OrderCreateDTO dto) {
+        String orderNo = tradeOrderService.buyNow(dto);
+        return Result.success(orderNo);
+    }
+
+    @Operation(summary = "购物车结算", description = "一次结算多个挂单，合并扣款并返回逐项结果")
+    @PostMapping("/checkout")
+    public Result<CartCheckoutResultVO> checkoutCart(@Valid @RequestBody CartCheckoutDTO dto) {
+        CartCheckoutResultVO result = tradeOrderService.checkoutCart(dto);
+        return Result.success(result);
+    }
+
+    @Operation(summary = "异步下单", description = "请求校验通过后进入排队，立即返回下单令牌，凭令牌轮询下单结果")
+    @PostMapping("/place")
+    public Result<OrderPlaceResultVO> placeOrder(@Valid @RequestBody OrderCreateDTO dto) {
+        OrderPlaceResultVO result = tradeOrderService.placeOrderAsync(dto);
+        return Result.success(result);
+    }
+
+    @Operation(summary = "查询异步下单结果", description = "根据下单令牌查询排队中的下单请求结果")
+    @GetMapping("/place/{token}")
+    public Result<OrderPlaceResultVO> getPlaceResult(
+            @Parameter(description = "下单令牌")
+            @PathVariable String token) {
+        OrderPlaceResultVO result = tradeOrderService.getPlaceResult(token);
+        return Result.success(result);
+    }
+
     @Operation(summary = "支付订单", description = "买家支付订单，扣除余额")
     @PostMapping("/{id}/pay")
     public Result<Void> payOrder(
@@ -87,8 +120,10 @@ public class TradeOrderController {
             @Parameter(description = "页码", example = "1")
             @RequestParam(defaultValue = "1") Integer pageNum,
             @Parameter(description = "每页大小", example = "20")
-            @RequestParam(defaultValue = "20") Integer pageSize) {
-        PageResult<OrderVO> result = tradeOrderService.getMyBuyOrders(status, pageNum, pageSize);
+            @RequestParam(defaultValue = "20") Integer pageSize,
+            @Parameter(description = "分页游标（取自上一页的 nextCursor）")
+            @RequestParam(required = false) String cursor) {
+        PageResult<OrderVO> result = tradeOrderService.getMyBuyOrders(status, pageNum, pageSize, cursor);
         return Result.success(result);
     }
 
@@ -100,8 +135,10 @@ public class TradeOrderController {
             @Parameter(description = "页码", example = "1")
             @RequestParam(defaultValue = "1") Integer pageNum,
             @Parameter(description = "每页大小", example = "20")
-            @RequestParam(defaultValue = "20") Integer pageSize) {
-        PageResult<OrderVO> result = tradeOrderService.getMySellOrders(status, pageNum, pageSize);
+            @RequestParam(defaultValue = "20") Integer pageSize,
+            @Parameter(description = "分页游标（取自上一页的 nextCursor）")
+            @RequestParam(required = false) String cursor) {
+        PageResult<OrderVO> result = tradeOrderService.getMySellOrders(status, pageNum, pageSize, cursor);
         return Result.success(result);
     }
 }
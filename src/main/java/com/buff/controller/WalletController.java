@@ -59,8 +59,10 @@ public class WalletController {
             @Parameter(description = "页码", example = "1")
             @RequestParam(defaultValue = "1") Integer pageNum,
             @Parameter(description = "每页大小", example = "20")
-            @RequestParam(defaultValue = "20") Integer pageSize) {
-        PageResult<WalletLogVO> result = walletService.getWalletLogs(type, pageNum, pageSize);
+            @RequestParam(defaultValue = "20") Integer pageSize,
+            @Parameter(description = "分页游标（取自上一页的 nextCursor）")
+            @RequestParam(required = false) String cursor) {
+        PageResult<WalletLogVO> result = walletService.getWalletLogs(type, pageNum, pageSize, cursor);
         return Result.success(result);
     }
 }
@@ -0,0 +1,31 @@
+package com.buff.event;
+
+import lombok.Getter;
+
+/**
+ * 饰品模板变更事件（新增、修改、删除）
+ * <p>
+ * 由 {@link com.buff.interceptor.ItemTemplateWriteInterceptor} 在 ItemTemplateMapper 写操作成功后发布，
+ * 供依赖模板数据的进程内结构增量更新；模板字典收到其它节点的变更广播后以 remote 事件重新发布。
+ *
+ * @author Administrator
+ */
+@Getter
+public class ItemTemplateChangedEvent {
+
+    private final Long templateId;
+
+    /**
+     * 是否来自其它节点的广播
+     */
+    private final boolean remote;
+
+    public ItemTemplateChangedEvent(Long templateId) {
+        this(templateId, false);
+    }
+
+    public ItemTemplateChangedEvent(Long templateId, boolean remote) {
+        this.templateId = templateId;
+        this.remote = remote;
+    }
+}
@@ -0,0 +1,44 @@
+package com.buff.event;
+
+import com.buff.model.vo.MarketListingVO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * 单条挂单变更记录
+ * <p>
+ * 描述一次挂单状态/价格变化后的结果；状态变为上架中时，事务提交后由
+ * {@link ListingEventRelay} 补全 listing 快照，供各节点的内存结构直接使用。
+ *
+ * @author Administrator
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ListingChange implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** 挂单ID */
+    private Long listingId;
+
+    /** 模板ID */
+    private Long templateId;
+
+    /** 变更后的挂单状态 */
+    private Integer status;
+
+    /** 变更后的价格 */
+    private BigDecimal price;
+
+    /** 变更后的挂单快照（仅上架中的挂单携带） */
+    private MarketListingVO listing;
+
+    public ListingChange(Long listingId, Long templateId, Integer status, BigDecimal price) {
+        this(listingId, templateId, status, price, null);
+    }
+}
@@ -0,0 +1,28 @@
+package com.buff.event;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 挂单变更事件（事务内发布）
+ * <p>
+ * 由 MarketListingServiceImpl、TradeOrderServiceImpl 等在写库的同一事务中发布，
+ * 事务提交后由 {@link ListingEventRelay} 转换为 {@link ListingSyncEvent} 并广播到其它节点。
+ * 一次批量操作只发布一个事件。
+ *
+ * @author Administrator
+ */
+@Getter
+public class ListingChangedEvent {
+
+    private final List<ListingChange> changes;
+
+    public ListingChangedEvent(List<ListingChange> changes) {
+        this.changes = changes;
+    }
+
+    public static ListingChangedEvent of(ListingChange change) {
+        return new ListingChangedEvent(List.of(change));
+    }
+}
@@ -0,0 +1,116 @@
+package com.buff.event;
+
+import com.buff.constant.ListingStatus;
+import com.buff.constant.RedisKey;
+import com.buff.mapper.MarketListingMapper;
+import com.buff.model.vo.MarketListingVO;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 挂单变更中继
+ * <p>
+ * 事务提交后把 {@link ListingChangedEvent} 补全为 {@link ListingSyncEvent}：
+ * 先在本节点发布，再通过 Redis pub/sub 广播给其它节点；收到其它节点的消息时以 remote 事件重新发布。
+ * 各节点的进程内结构因此只需监听 {@link ListingSyncEvent} 即可保持一致。
+ *
+ * @author Administrator
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ListingEventRelay implements MessageListener {
+
+    /**
+     * 当前节点标识，用于忽略自己发出的广播（其它广播通道共用）
+     */
+    public static final String NODE_ID = UUID.randomUUID().toString().replace("-", "");
+
+    private final MarketListingMapper marketListingMapper;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostConstruct
+    public void subscribe() {
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(RedisKey.LISTING_CHANGE_CHANNEL));
+    }
+
+    /**
+     * 事务提交后补全快照并发布同步事件（非事务环境下直接执行）
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onListingChanged(ListingChangedEvent event) {
+        if (event.getChanges() == null || event.getChanges().isEmpty()) {
+            return;
+        }
+        ListingSyncEvent syncEvent = new ListingSyncEvent(NODE_ID, false, attachSnapshots(event.getChanges()));
+        eventPublisher.publishEvent(syncEvent);
+
+        try {
+            redisTemplate.convertAndSend(RedisKey.LISTING_CHANGE_CHANNEL, syncEvent);
+        } catch (Exception e) {
+            log.warn("挂单变更广播失败，其它节点将在下次全量同步时修正: changes={}", syncEvent.getChanges().size(), e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            Object body = redisTemplate.getValueSerializer().deserialize(message.getBody());
+            if (!(body instanceof ListingSyncEvent syncEvent) || NODE_ID.equals(syncEvent.getOrigin())) {
+                return;
+            }
+            syncEvent.setRemote(true);
+            eventPublisher.publishEvent(syncEvent);
+        } catch (Exception e) {
+            log.warn("处理挂单变更广播失败", e);
+        }
+    }
+
+    /**
+     * 为变更后仍在上架中的挂单补全展示快照（一次 IN 查询）
+     */
+    private List<ListingChange> attachSnapshots(List<ListingChange> changes) {
+        List<Long> onSaleIds = changes.stream()
+                .filter(c -> c.getStatus() != null && c.getStatus() == ListingStatus.ON_SALE)
+                .map(ListingChange::getListingId)
+                .toList();
+        if (onSaleIds.isEmpty()) {
+            return new ArrayList<>(changes);
+        }
+
+        Map<Long, MarketListingVO> snapshots;
+        try {
+            snapshots = marketListingMapper.selectListingDetailByIds(onSaleIds).stream()
+                    .collect(Collectors.toMap(MarketListingVO::getId, Function.identity(), (a, b) -> a));
+        } catch (Exception e) {
+            log.warn("查询挂单快照失败: listingIds={}", onSaleIds, e);
+            snapshots = Map.of();
+        }
+
+        List<ListingChange> result = new ArrayList<>(changes.size());
+        for (ListingChange change : changes) {
+            MarketListingVO snapshot = snapshots.get(change.getListingId());
+            result.add(new ListingChange(change.getListingId(), change.getTemplateId(),
+                    change.getStatus(), change.getPrice(), snapshot));
+        }
+        return result;
+    }
+}
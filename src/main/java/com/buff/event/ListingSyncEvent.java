@@ -0,0 +1,34 @@
+package com.buff.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 挂单同步事件（已提交）
+ * <p>
+ * 本节点事务提交后、或从 Redis 收到其它节点的变更后在本地发布。
+ * 进程内的结构（订单簿、本地缓存等）对本地与远端事件都需要处理；
+ * 写 Redis 等共享存储的监听者只处理 {@code remote == false} 的事件，避免多节点重复写。
+ *
+ * @author Administrator
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ListingSyncEvent implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** 发布节点标识 */
+    private String origin;
+
+    /** 是否来自其它节点 */
+    private boolean remote;
+
+    /** 变更列表 */
+    private List<ListingChange> changes;
+}
@@ -0,0 +1,77 @@
+package com.buff.event;
+
+import com.buff.constant.ListingStatus;
+import com.buff.mapper.MarketListingViewMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 市场挂单读模型维护
+ * <p>
+ * 在发布 {@link ListingChangedEvent} 的同一事务提交前同步更新 market_listing_view：
+ * 变为在售的挂单从基础表重建一行，离开在售状态的挂单删除对应行。更新失败时整个事务回滚，读模型与基础表始终一致。
+ * 用户名变更时同样在改名事务内同步该卖家所有行的 seller_name。
+ *
+ * @author Administrator
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ListingViewProjection {
+
+    private final MarketListingViewMapper marketListingViewMapper;
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onListingChanged(ListingChangedEvent event) {
+        if (event.getChanges() == null || event.getChanges().isEmpty()) {
+            return;
+        }
+        List<Long> onSaleIds = new ArrayList<>();
+        List<Long> removedIds = new ArrayList<>();
+        for (ListingChange change : event.getChanges()) {
+            if (change.getListingId() == null) {
+                continue;
+            }
+            if (change.getStatus() != null && change.getStatus() == ListingStatus.ON_SALE) {
+                onSaleIds.add(change.getListingId());
+            } else {
+                removedIds.add(change.getListingId());
+            }
+        }
+        if (!onSaleIds.isEmpty()) {
+            marketListingViewMapper.upsertByListingIds(onSaleIds);
+        }
+        if (!removedIds.isEmpty()) {
+            marketListingViewMapper.deleteByListingIds(removedIds);
+        }
+    }
+
+    /**
+     * 卖家改名后同步读模型中的卖家名称
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onUserRenamed(UserRenamedEvent event) {
+        marketListingViewMapper.refreshSeller(event.getUserId());
+    }
+
+    /**
+     * 模板名称等变更后同步读模型（仅发起节点执行）
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTemplateChanged(ItemTemplateChangedEvent event) {
+        if (event.isRemote() || event.getTemplateId() == null) {
+            return;
+        }
+        try {
+            marketListingViewMapper.refreshTemplate(event.getTemplateId());
+        } catch (Exception e) {
+            log.error("同步市场读模型模板信息失败: templateId={}", event.getTemplateId(), e);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.buff.event;
+
+import com.buff.cache.ListingOrderBook;
+import com.buff.model.vo.PriceTickVO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 模板行情推送（SSE）
+ * <p>
+ * 客户端订阅一组模板ID，最低价或在售数量变化时收到推送。{@link ListingSyncEvent} 同时覆盖本节点与其它节点
+ * （经 Redis 频道转发）的挂单变更，订单簿应用变更后这里只把受影响的模板记入脏集合；
+ * 每个 tick 统一读取订单簿的最新值，与上次推送比较，有变化的模板按订阅者合并为一条消息，
+ * 一个 tick 内的连续变更只推送一次。
+ * tick 与推送在独立线程上执行，慢连接阻塞写入时不会占用共享的定时任务线程。
+ *
+ * @author Administrator
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PriceTicker {
+
+    /**
+     * 连接超时时间（毫秒），超时后客户端自行重连
+     */
+    private static final long EMITTER_TIMEOUT_MS = 30 * 60 * 1000L;
+
+    /**
+     * 单个连接最多订阅的模板数
+     */
+    public static final int MAX_TEMPLATES = 100;
+
+    /**
+     * 合并推送间隔（毫秒）
+     */
+    private static final long TICK_INTERVAL_MS = 1000L;
+
+    private final ListingOrderBook listingOrderBook;
+
+    /**
+     * 模板ID -> 订阅该模板的连接
+     */
+    private final Map<Long, Set<Subscription>> subscribers = new ConcurrentHashMap<>();
+
+    /**
+     * 上次推送的行情，用于去重
+     */
+    private final Map<Long, PriceTickVO> lastSent = new ConcurrentHashMap<>();
+
+    /**
+     * 自上个 tick 以来发生变更的模板
+     */
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    private final ScheduledExecutorService tickExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "price-ticker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    public void start() {
+        tickExecutor.scheduleWithFixedDelay(this::tickSafely, TICK_INTERVAL_MS, TICK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        tickExecutor.shutdownNow();
+    }
+
+    /**
+     * 建立订阅，立即推送一次当前行情
+     */
+    public SseEmitter subscribe(Collection<Long> templateIds) {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+        Subscription subscription = new Subscription(emitter, Set.copyOf(templateIds));
+        emitter.onCompletion(() -> unsubscribe(subscription));
+        emitter.onTimeout(() -> unsubscribe(subscription));
+        emitter.onError(e -> unsubscribe(subscription));
+
+        List<PriceTickVO> snapshot = new ArrayList<>(subscription.templateIds.size());
+        for (Long templateId : subscription.templateIds) {
+            subscribers.computeIfAbsent(templateId, k -> ConcurrentHashMap.newKeySet()).add(subscription);
+            snapshot.add(currentTick(templateId));
+        }
+        send(subscription, snapshot);
+        return emitter;
+    }
+
+    @Order(2)
+    @EventListener
+    public void onListingSync(ListingSyncEvent event) {
+        if (event.getChanges() == null) {
+            return;
+        }
+        for (ListingChange change : event.getChanges()) {
+            Long templateId = change.getTemplateId();
+            if (templateId != null && subscribers.containsKey(templateId)) {
+                dirty.add(templateId);
+            }
+        }
+    }
+
+    /**
+     * 周期任务抛出异常后不会再被调度，这里兜底记录
+     */
+    private void tickSafely() {
+        try {
+            tick();
+        } catch (Exception e) {
+            log.warn("行情推送失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 每秒合并推送一次
+     */
+    void tick() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        Map<Subscription, List<PriceTickVO>> outgoing = new HashMap<>();
+        Iterator<Long> it = dirty.iterator();
+        while (it.hasNext()) {
+            Long templateId = it.next();
+            it.remove();
+            Set<Subscription> subs = subscribers.get(templateId);
+            if (subs == null || subs.isEmpty()) {
+                continue;
+            }
+            PriceTickVO tick = currentTick(templateId);
+            PriceTickVO previous = lastSent.put(templateId, tick);
+            if (previous != null && Objects.equals(previous.getOnSaleCount(), tick.getOnSaleCount())
+                    && samePrice(previous, tick)) {
+                continue;
+            }
+            for (Subscription subscription : subs) {
+                outgoing.computeIfAbsent(subscription, k -> new ArrayList<>()).add(tick);
+            }
+        }
+        outgoing.forEach(this::send);
+    }
+
+    private PriceTickVO currentTick(Long templateId) {
+        return new PriceTickVO(templateId,
+                listingOrderBook.floorPrice(templateId),
+                listingOrderBook.onSaleCount(templateId));
+    }
+
+    private static boolean samePrice(PriceTickVO a, PriceTickVO b) {
+        if (a.getFloorPrice() == null || b.getFloorPrice() == null) {
+            return a.getFloorPrice() == b.getFloorPrice();
+        }
+        return a.getFloorPrice().compareTo(b.getFloorPrice()) == 0;
+    }
+
+    private void send(Subscription subscription, List<PriceTickVO> ticks) {
+        try {
+            subscription.emitter.send(SseEmitter.event().name("tick").data(ticks));
+        } catch (IOException | IllegalStateException e) {
+            log.debug("行情推送失败，移除订阅: {}", e.getMessage());
+            unsubscribe(subscription);
+            subscription.emitter.completeWithError(e);
+        }
+    }
+
+    private void unsubscribe(Subscription subscription) {
+        for (Long templateId : subscription.templateIds) {
+            subscribers.computeIfPresent(templateId, (k, subs) -> {
+                subs.remove(subscription);
+                if (subs.isEmpty()) {
+                    lastSent.remove(templateId);
+                    return null;
+                }
+                return subs;
+            });
+        }
+    }
+
+    /**
+     * 一个 SSE 连接及其订阅的模板（按对象身份区分）
+     */
+    private static final class Subscription {
+
+        private final SseEmitter emitter;
+        private final Set<Long> templateIds;
+
+        Subscription(SseEmitter emitter, Set<Long> templateIds) {
+            this.emitter = emitter;
+            this.templateIds = templateIds;
+        }
+    }
+}
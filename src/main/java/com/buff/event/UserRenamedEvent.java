@@ -0,0 +1,21 @@
+package com.buff.event;
+
+import lombok.Getter;
+
+/**
+ * 用户名变更事件
+ * <p>
+ * 由 {@link com.buff.interceptor.UserWriteInterceptor} 在 UserMapper.updateById 修改了用户名后发布，
+ * 供冗余了用户名的读模型同步。
+ *
+ * @author Administrator
+ */
+@Getter
+public class UserRenamedEvent {
+
+    private final Long userId;
+
+    public UserRenamedEvent(Long userId) {
+        this.userId = userId;
+    }
+}
@@ -0,0 +1,72 @@
+package com.buff.interceptor;
+
+import com.buff.event.ItemTemplateChangedEvent;
+import com.buff.model.entity.ItemTemplate;
+import lombok.RequiredArgsConstructor;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 饰品模板写操作拦截器（MyBatis 插件）
+ * <p>
+ * ItemTemplateMapper 的 insert / update / updateRefPrice / deleteById 执行成功后发布 {@link ItemTemplateChangedEvent}，
+ * 使模板字典、名称索引等进程内结构无需改动调用方即可增量更新。
+ *
+ * @author Administrator
+ */
+@Component
+@RequiredArgsConstructor
+@Intercepts(@Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}))
+public class ItemTemplateWriteInterceptor implements Interceptor {
+
+    private static final String NAMESPACE = "com.buff.mapper.ItemTemplateMapper.";
+
+    private static final Set<String> WRITE_STATEMENTS = Set.of(
+            NAMESPACE + "insert",
+            NAMESPACE + "update",
+            NAMESPACE + "updateRefPrice",
+            NAMESPACE + "deleteById"
+    );
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+
+        MappedStatement statement = (MappedStatement) invocation.getArgs()[0];
+        if (WRITE_STATEMENTS.contains(statement.getId())
+                && result instanceof Integer rows && rows > 0) {
+            Long templateId = templateIdOf(invocation.getArgs()[1]);
+            if (templateId != null) {
+                eventPublisher.publishEvent(new ItemTemplateChangedEvent(templateId));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 从 Mapper 参数中取模板ID（insert/update 为实体，updateRefPrice/deleteById 为 @Param 参数表）
+     */
+    private static Long templateIdOf(Object parameter) {
+        if (parameter instanceof ItemTemplate template) {
+            return template.getId();
+        }
+        if (parameter instanceof Map<?, ?> params && params.containsKey("id") && params.get("id") instanceof Long id) {
+            return id;
+        }
+        if (parameter instanceof Long id) {
+            return id;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,58 @@
+package com.buff.interceptor;
+
+import com.buff.cache.ItemTemplateDictionary;
+import com.buff.model.vo.InventoryVO;
+import com.buff.model.vo.MarketListingVO;
+import com.buff.model.vo.OrderVO;
+import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * 模板字段填充拦截器（MyBatis 插件）
+ * <p>
+ * 挂单、库存、订单 VO 的查询不再关联 item_template，结果集映射完成后统一由 {@link ItemTemplateDictionary}
+ * 按 templateId 填充名称、类型、图片等展示字段。
+ *
+ * @author Administrator
+ */
+@Component
+@Intercepts(@Signature(type = ResultSetHandler.class, method = "handleResultSets", args = {Statement.class}))
+public class TemplateEnrichInterceptor implements Interceptor {
+
+    private final ItemTemplateDictionary itemTemplateDictionary;
+
+    /**
+     * 字典依赖 Mapper，Mapper 依赖插件，延迟注入以打破循环
+     */
+    public TemplateEnrichInterceptor(@Lazy ItemTemplateDictionary itemTemplateDictionary) {
+        this.itemTemplateDictionary = itemTemplateDictionary;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+        if (result instanceof List<?> rows) {
+            for (Object row : rows) {
+                if (row instanceof MarketListingVO vo) {
+                    itemTemplateDictionary.enrich(vo);
+                } else if (row instanceof InventoryVO vo) {
+                    itemTemplateDictionary.enrich(vo);
+                } else if (row instanceof OrderVO vo) {
+                    itemTemplateDictionary.enrich(vo);
+                } else {
+                    // 同一结果集中的行类型相同，首行不是 VO 即可结束
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+}
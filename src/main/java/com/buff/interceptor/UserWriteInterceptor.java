@@ -0,0 +1,45 @@
+package com.buff.interceptor;
+
+import com.buff.event.UserRenamedEvent;
+import com.buff.model.entity.User;
+import lombok.RequiredArgsConstructor;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * 用户写操作拦截器（MyBatis 插件）
+ * <p>
+ * UserMapper.updateById 带用户名且执行成功后发布 {@link UserRenamedEvent}，
+ * 市场读模型中冗余的卖家名称无需改动调用方即可随之更新。
+ *
+ * @author Administrator
+ */
+@Component
+@RequiredArgsConstructor
+@Intercepts(@Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}))
+public class UserWriteInterceptor implements Interceptor {
+
+    private static final String UPDATE_STATEMENT = "com.buff.mapper.UserMapper.updateById";
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+
+        MappedStatement statement = (MappedStatement) invocation.getArgs()[0];
+        if (UPDATE_STATEMENT.equals(statement.getId())
+                && result instanceof Integer rows && rows > 0
+                && invocation.getArgs()[1] instanceof User user
+                && user.getId() != null && user.getUsername() != null && !user.getUsername().isEmpty()) {
+            eventPublisher.publishEvent(new UserRenamedEvent(user.getId()));
+        }
+        return result;
+    }
+}
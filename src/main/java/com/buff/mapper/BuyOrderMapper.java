@@ -0,0 +1,65 @@
+package com.buff.mapper;
+
+import com.buff.model.entity.BuyOrder;
+import com.buff.model.vo.BuyOrderVO;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 求购单Mapper接口
+ *
+ * @author Administrator
+ */
+@Mapper
+public interface BuyOrderMapper {
+
+    /**
+     * 插入求购单（ID由调用方通过 IdGenerator 生成）
+     */
+    int insert(BuyOrder buyOrder);
+
+    /**
+     * 根据ID查询求购单
+     */
+    BuyOrder selectById(@Param("id") Long id);
+
+    /**
+     * 查询存在求购中求购单的模板ID（加载求购簿）
+     */
+    List<Long> selectOpenTemplateIds();
+
+    /**
+     * 查询某模板下求购中的求购单
+     */
+    List<BuyOrder> selectOpenByTemplate(@Param("templateId") Long templateId);
+
+    /**
+     * 成交一件：已成交数量加一，达到求购数量时置为已完成
+     *
+     * @return 0 表示求购单已不在求购中（已取消或已完成）
+     */
+    int fillOne(@Param("id") Long id);
+
+    /**
+     * 取消求购中的求购单
+     *
+     * @return 0 表示求购单不属于该买家或已不在求购中
+     */
+    int cancel(@Param("id") Long id, @Param("buyerId") Long buyerId);
+
+    /**
+     * 查询买家的求购单
+     */
+    List<BuyOrderVO> selectByBuyer(@Param("buyerId") Long buyerId,
+                                   @Param("status") Integer status,
+                                   @Param("offset") Integer offset,
+                                   @Param("limit") Integer limit);
+
+    /**
+     * 统计买家的求购单数量
+     */
+    Long countByBuyer(@Param("buyerId") Long buyerId,
+                      @Param("status") Integer status);
+}
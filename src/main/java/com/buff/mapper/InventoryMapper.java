@@ -1,5 +1,6 @@
 package com.buff.mapper;
 
+import com.buff.constant.InventoryTransition;
 import com.buff.model.entity.UserInventory;
 import com.buff.model.vo.InventoryVO;
 import org.apache.ibatis.annotations.Mapper;
@@ -35,9 +36,23 @@ public interface InventoryMapper {
                                           @Param("typeConditions") List<Map<String, String>> typeConditions,
                                           @Param("wearRanges") List<Map<String, BigDecimal>> wearRanges,
                                           @Param("keyword") String keyword,
+                                          @Param("templateIds") List<Long> templateIds,
                                           @Param("offset") Integer offset,
                                           @Param("pageSize") Integer pageSize);
 
+    /**
+     * 游标分页查询用户库存列表（按 get_time + ID seek）
+     */
+    List<InventoryVO> selectInventoryListAfter(@Param("userId") Long userId,
+                                               @Param("status") Integer status,
+                                               @Param("typeConditions") List<Map<String, String>> typeConditions,
+                                               @Param("wearRanges") List<Map<String, BigDecimal>> wearRanges,
+                                               @Param("keyword") String keyword,
+                                               @Param("templateIds") List<Long> templateIds,
+                                               @Param("cursorTime") java.time.LocalDateTime cursorTime,
+                                               @Param("cursorId") Long cursorId,
+                                               @Param("pageSize") Integer pageSize);
+
     /**
      * 统计用户库存总数
      */
@@ -45,7 +60,8 @@ public interface InventoryMapper {
                         @Param("status") Integer status,
                         @Param("typeConditions") List<Map<String, String>> typeConditions,
                         @Param("wearRanges") List<Map<String, BigDecimal>> wearRanges,
-                        @Param("keyword") String keyword);
+                        @Param("keyword") String keyword,
+                        @Param("templateIds") List<Long> templateIds);
 
     /**
      * 统计用户各状态库存数量
@@ -67,15 +83,29 @@ public interface InventoryMapper {
      */
     List<InventoryVO> selectByIds(@Param("ids") List<Long> ids);
 
+    /**
+     * 批量查询库存并加行锁（用于批量上架校验）
+     */
+    List<UserInventory> selectByIdsForUpdate(@Param("ids") List<Long> ids);
+
+    /**
+     * 条件批量更新库存状态：仅更新当前状态为 expectStatus 的行，返回实际更新行数
+     */
+    int updateStatusBatch(@Param("ids") List<Long> ids,
+                          @Param("expectStatus") Integer expectStatus,
+                          @Param("status") Integer status);
+
     /**
      * 插入库存
      */
     int insert(UserInventory inventory);
 
     /**
-     * 更新库存状态
+     * 按迁移表条件更新库存状态
+     *
+     * @return 0 表示库存已不处于迁移的起始状态
      */
-    int updateStatus(@Param("id") Long id, @Param("status") Integer status);
+    int transition(@Param("id") Long id, @Param("t") InventoryTransition transition);
 
     /**
      * 设置交易锁定状态，同时记录解锁时间
@@ -25,6 +25,16 @@ public interface ItemTemplateMapper {
      */
     List<ItemTemplate> selectAll();
 
+    /**
+     * 查询所有饰品模板（含已软删除，用于加载模板字典）
+     */
+    List<ItemTemplate> selectAllIncludingDeleted();
+
+    /**
+     * 根据ID查询（含已软删除）
+     */
+    ItemTemplate selectByIdIncludingDeleted(@Param("id") Long id);
+
     /**
      * 根据名称查询
      */
@@ -1,12 +1,17 @@
 package com.buff.mapper;
 
+import com.buff.constant.ListingTransition;
+import com.buff.constant.WearTier;
 import com.buff.model.entity.MarketListing;
 import com.buff.model.vo.MarketListingVO;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 市场挂单Mapper接口
@@ -26,10 +31,21 @@ public interface MarketListingMapper {
      */
     MarketListingVO selectListingDetailById(@Param("id") Long id);
 
+    /**
+     * 批量查询挂单详情
+     */
+    List<MarketListingVO> selectListingDetailByIds(@Param("ids") List<Long> ids);
+
+    /**
+     * 查询全部在售挂单（用于加载进程内订单簿）
+     */
+    List<MarketListingVO> selectOnSaleListings();
+
     /**
      * 分页查询市场商品列表
      */
     List<MarketListingVO> selectMarketListings(@Param("keyword") String keyword,
+                                               @Param("templateIds") List<Long> templateIds,
                                                @Param("templateId") Long templateId,
                                                @Param("minPrice") BigDecimal minPrice,
                                                @Param("maxPrice") BigDecimal maxPrice,
@@ -40,16 +56,73 @@ public interface MarketListingMapper {
                                                @Param("offset") Integer offset,
                                                @Param("pageSize") Integer pageSize);
 
+    /**
+     * 游标分页查询市场商品列表（按排序键 + ID seek）
+     */
+    List<MarketListingVO> selectMarketListingsAfter(@Param("keyword") String keyword,
+                                                    @Param("templateIds") List<Long> templateIds,
+                                                    @Param("templateId") Long templateId,
+                                                    @Param("minPrice") BigDecimal minPrice,
+                                                    @Param("maxPrice") BigDecimal maxPrice,
+                                                    @Param("minWear") BigDecimal minWear,
+                                                    @Param("maxWear") BigDecimal maxWear,
+                                                    @Param("sortField") String sortField,
+                                                    @Param("sortOrder") String sortOrder,
+                                                    @Param("cursorPrice") BigDecimal cursorPrice,
+                                                    @Param("cursorTime") LocalDateTime cursorTime,
+                                                    @Param("cursorId") Long cursorId,
+                                                    @Param("pageSize") Integer pageSize);
+
+    /**
+     * 按ID顺序流式读取满足条件的在售挂单（逐行拉取，不在内存中物化结果集），须在事务内遍历
+     */
+    Cursor<MarketListingVO> streamMarketListings(@Param("keyword") String keyword,
+                                                 @Param("templateIds") List<Long> templateIds,
+                                                 @Param("templateId") Long templateId,
+                                                 @Param("minPrice") BigDecimal minPrice,
+                                                 @Param("maxPrice") BigDecimal maxPrice,
+                                                 @Param("minWear") BigDecimal minWear,
+                                                 @Param("maxWear") BigDecimal maxWear);
+
     /**
      * 统计市场商品总数
      */
     Long countMarketListings(@Param("keyword") String keyword,
+                             @Param("templateIds") List<Long> templateIds,
                              @Param("templateId") Long templateId,
                              @Param("minPrice") BigDecimal minPrice,
                              @Param("maxPrice") BigDecimal maxPrice,
                              @Param("minWear") BigDecimal minWear,
                              @Param("maxWear") BigDecimal maxWear);
 
+    /**
+     * 封顶统计市场商品总数（最多数到 limit 条即停止，用于估算总数）
+     */
+    Long countMarketListingsCapped(@Param("keyword") String keyword,
+                                   @Param("templateIds") List<Long> templateIds,
+                                   @Param("templateId") Long templateId,
+                                   @Param("minPrice") BigDecimal minPrice,
+                                   @Param("maxPrice") BigDecimal maxPrice,
+                                   @Param("minWear") BigDecimal minWear,
+                                   @Param("maxWear") BigDecimal maxWear,
+                                   @Param("limit") Integer limit);
+
+    /**
+     * 市场搜索分面统计：一次扫描按 (模板, 外观, 价格区间) 分组计数
+     *
+     * @param wearTiers   外观分档（按磨损升序）
+     * @param priceBounds 价格区间边界（升序），区间序号 i 表示 [priceBounds[i-1], priceBounds[i])
+     */
+    List<Map<String, Object>> selectMarketFacets(@Param("keyword") String keyword,
+                                                 @Param("templateIds") List<Long> templateIds,
+                                                 @Param("templateId") Long templateId,
+                                                 @Param("minPrice") BigDecimal minPrice,
+                                                 @Param("maxPrice") BigDecimal maxPrice,
+                                                 @Param("minWear") BigDecimal minWear,
+                                                 @Param("maxWear") BigDecimal maxWear,
+                                                 @Param("wearTiers") List<WearTier> wearTiers,
+                                                 @Param("priceBounds") List<BigDecimal> priceBounds);
+
     /**
      * 查询用户的挂单列表
      */
@@ -58,6 +131,15 @@ public interface MarketListingMapper {
                                            @Param("offset") Integer offset,
                                            @Param("pageSize") Integer pageSize);
 
+    /**
+     * 游标分页查询用户的挂单列表
+     */
+    List<MarketListingVO> selectMyListingsAfter(@Param("sellerId") Long sellerId,
+                                                @Param("status") Integer status,
+                                                @Param("cursorTime") LocalDateTime cursorTime,
+                                                @Param("cursorId") Long cursorId,
+                                                @Param("pageSize") Integer pageSize);
+
     /**
      * 统计用户挂单总数
      */
@@ -65,10 +147,50 @@ public interface MarketListingMapper {
                          @Param("status") Integer status);
 
     /**
-     * 插入挂单
+     * 插入挂单（ID由调用方通过 IdGenerator 生成）
      */
     int insert(MarketListing listing);
 
+    /**
+     * 批量插入挂单（多行 INSERT，ID由调用方预先生成）
+     */
+    int insertBatch(@Param("listings") List<MarketListing> listings);
+
+    /**
+     * 查询指定库存中已有在售挂单的库存ID
+     */
+    List<Long> selectOnSaleInventoryIds(@Param("inventoryIds") List<Long> inventoryIds);
+
+    /**
+     * 批量查询挂单
+     */
+    List<MarketListing> selectByIds(@Param("ids") List<Long> ids);
+
+    /**
+     * 锁定一批在售挂单（FOR UPDATE SKIP LOCKED，已被其它事务锁定的行直接跳过，不等待）
+     */
+    List<MarketListing> selectOnSaleByIdsSkipLocked(@Param("ids") List<Long> ids);
+
+    /**
+     * 查询指定库存当前的在售挂单
+     */
+    List<MarketListing> selectOnSaleByInventoryIds(@Param("inventoryIds") List<Long> inventoryIds);
+
+    /**
+     * 批量改价（单条语句，逐行校验乐观锁版本且仍在售），返回实际更新行数
+     *
+     * @param listings 需携带 id、version 与新 price
+     */
+    int updatePriceBatch(@Param("listings") List<MarketListing> listings);
+
+    /**
+     * 批量更新在售挂单状态（单条语句，逐行校验乐观锁版本），返回实际更新行数
+     *
+     * @param listings 需携带 id 与 version
+     */
+    int updateStatusBatch(@Param("listings") List<MarketListing> listings,
+                          @Param("status") Integer status);
+
     /**
      * 更新挂单状态（带乐观锁版本校验）
      */
@@ -77,10 +199,12 @@ public interface MarketListingMapper {
                      @Param("version") Integer version);
 
     /**
-     * 强制更新挂单状态（不校验版本，用于流程内部状态推进，如 PURCHASED → SOLD）
+     * 按迁移表条件更新挂单状态（校验起始状态，version 加一使持有旧版本的改价/购买失效）
+     *
+     * @return 0 表示挂单已不处于迁移的起始状态
      */
-    int updateStatusById(@Param("id") Long id,
-                         @Param("status") Integer status);
+    int transition(@Param("id") Long id,
+                   @Param("t") ListingTransition transition);
 
     /**
      * 删除挂单
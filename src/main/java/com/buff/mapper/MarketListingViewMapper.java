@@ -0,0 +1,35 @@
+package com.buff.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 市场挂单读模型Mapper接口（market_listing_view）
+ *
+ * @author Administrator
+ */
+@Mapper
+public interface MarketListingViewMapper {
+
+    /**
+     * 按挂单ID从基础表重建读模型行（仅在售挂单，已存在则覆盖）
+     */
+    int upsertByListingIds(@Param("ids") List<Long> ids);
+
+    /**
+     * 删除读模型行
+     */
+    int deleteByListingIds(@Param("ids") List<Long> ids);
+
+    /**
+     * 同步模板的名称、类型、图片
+     */
+    int refreshTemplate(@Param("templateId") Long templateId);
+
+    /**
+     * 同步卖家名称
+     */
+    int refreshSeller(@Param("sellerId") Long sellerId);
+}
@@ -0,0 +1,42 @@
+package com.buff.mapper;
+
+import com.buff.model.vo.PriceCandleVO;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 成交价K线Mapper接口
+ *
+ * @author Administrator
+ */
+@Mapper
+public interface PriceCandleMapper {
+
+    /**
+     * 将一笔成交合并进各粒度的K线（不存在则创建）
+     *
+     * @param buckets 粒度编码 -> 区间起始时间
+     */
+    int upsertTrade(@Param("templateId") Long templateId,
+                    @Param("buckets") Map<String, LocalDateTime> buckets,
+                    @Param("price") BigDecimal price,
+                    @Param("tradeTime") LocalDateTime tradeTime);
+
+    /**
+     * 查询最近的K线（按时间倒序）
+     */
+    List<PriceCandleVO> selectRecent(@Param("templateId") Long templateId,
+                                     @Param("period") String period,
+                                     @Param("limit") Integer limit);
+
+    /**
+     * 删除指定粒度早于 before 的K线
+     */
+    int deleteBefore(@Param("period") String period,
+                     @Param("before") LocalDateTime before);
+}
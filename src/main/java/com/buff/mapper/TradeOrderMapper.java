@@ -1,10 +1,12 @@
 package com.buff.mapper;
 
+import com.buff.constant.OrderTransition;
 import com.buff.model.entity.TradeOrder;
 import com.buff.model.vo.OrderVO;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -38,6 +40,15 @@ public interface TradeOrderMapper {
                                     @Param("offset") Integer offset,
                                     @Param("pageSize") Integer pageSize);
 
+    /**
+     * 游标分页查询我的订单列表（买家）
+     */
+    List<OrderVO> selectMyBuyOrdersAfter(@Param("buyerId") Long buyerId,
+                                         @Param("status") Integer status,
+                                         @Param("cursorTime") LocalDateTime cursorTime,
+                                         @Param("cursorId") Long cursorId,
+                                         @Param("pageSize") Integer pageSize);
+
     /**
      * 统计我的购买订单总数
      */
@@ -52,6 +63,15 @@ public interface TradeOrderMapper {
                                      @Param("offset") Integer offset,
                                      @Param("pageSize") Integer pageSize);
 
+    /**
+     * 游标分页查询我的订单列表（卖家）
+     */
+    List<OrderVO> selectMySellOrdersAfter(@Param("sellerId") Long sellerId,
+                                          @Param("status") Integer status,
+                                          @Param("cursorTime") LocalDateTime cursorTime,
+                                          @Param("cursorId") Long cursorId,
+                                          @Param("pageSize") Integer pageSize);
+
     /**
      * 统计我的出售订单总数
      */
@@ -59,28 +79,20 @@ public interface TradeOrderMapper {
                            @Param("status") Integer status);
 
     /**
-     * 插入订单
+     * 插入订单（ID由调用方通过 IdGenerator 生成）
      */
     int insert(TradeOrder order);
 
     /**
-     * 更新订单状态
-     */
-    int updateStatus(@Param("id") Long id,
-                     @Param("status") Integer status);
-
-    /**
-     * 更新支付时间
-     */
-    int updatePayTime(@Param("id") Long id);
-
-    /**
-     * 更新发货时间
+     * 批量插入订单（多行 INSERT，ID由调用方预先生成）
      */
-    int updateDeliverTime(@Param("id") Long id);
+    int insertBatch(@Param("orders") List<TradeOrder> orders);
 
     /**
-     * 更新完成时间
+     * 按迁移表条件更新订单状态（一条语句完成状态校验、状态更新和时间字段写入）
+     *
+     * @return 0 表示订单已不处于迁移的起始状态
      */
-    int updateFinishTime(@Param("id") Long id);
+    int transition(@Param("id") Long id,
+                   @Param("t") OrderTransition transition);
 }
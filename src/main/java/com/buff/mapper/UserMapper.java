@@ -44,6 +44,18 @@ public interface UserMapper {
                       @Param("balance") java.math.BigDecimal balance,
                       @Param("version") Integer version);
 
+    /**
+     * 原子扣减余额（余额不足时不更新，返回0）
+     */
+    int deductBalance(@Param("id") Long id,
+                      @Param("amount") java.math.BigDecimal amount);
+
+    /**
+     * 原子增加余额
+     */
+    int addBalance(@Param("id") Long id,
+                   @Param("amount") java.math.BigDecimal amount);
+
     /**
      * 删除用户
      */
@@ -1,10 +1,12 @@
 package com.buff.mapper;
 
+import com.buff.model.dto.WalletLogDraft;
 import com.buff.model.entity.WalletLog;
 import com.buff.model.vo.WalletLogVO;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -28,6 +30,15 @@ public interface WalletLogMapper {
                                      @Param("offset") Integer offset,
                                      @Param("pageSize") Integer pageSize);
 
+    /**
+     * 游标分页查询用户资金流水列表
+     */
+    List<WalletLogVO> selectUserLogsAfter(@Param("userId") Long userId,
+                                          @Param("type") Integer type,
+                                          @Param("cursorTime") LocalDateTime cursorTime,
+                                          @Param("cursorId") Long cursorId,
+                                          @Param("pageSize") Integer pageSize);
+
     /**
      * 统计用户资金流水总数
      */
@@ -38,4 +49,10 @@ public interface WalletLogMapper {
      * 插入流水记录
      */
     int insert(WalletLog walletLog);
+
+    /**
+     * 批量插入流水记录，变动后余额 = 用户当前余额 + balanceOffset；
+     * 须在已更新该用户余额的同一事务中调用，余额行已被本事务锁定，无需另行回读余额
+     */
+    int insertBatchFromBalance(@Param("drafts") List<WalletLogDraft> drafts);
 }
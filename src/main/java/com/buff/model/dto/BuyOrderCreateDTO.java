@@ -0,0 +1,50 @@
+package com.buff.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * 发布求购请求DTO
+ *
+ * @author Administrator
+ */
+@Data
+@Schema(description = "发布求购请求")
+public class BuyOrderCreateDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "饰品模板ID", example = "1")
+    @NotNull(message = "模板ID不能为空")
+    private Long templateId;
+
+    @Schema(description = "求购单价", example = "100.00")
+    @NotNull(message = "求购价格不能为空")
+    @DecimalMin(value = "0.01", message = "求购价格必须大于0")
+    @DecimalMax(value = "999999.99", message = "求购价格超出上限")
+    private BigDecimal price;
+
+    @Schema(description = "求购数量", example = "1")
+    @NotNull(message = "求购数量不能为空")
+    @Min(value = 1, message = "求购数量至少为1")
+    @Max(value = 100, message = "单次最多求购100件")
+    private Integer quantity;
+
+    @Schema(description = "最低磨损（含），不填不限", example = "0.00")
+    @DecimalMin(value = "0", message = "磨损值不能小于0")
+    @DecimalMax(value = "1", message = "磨损值不能大于1")
+    private BigDecimal minWear;
+
+    @Schema(description = "最高磨损（不含），不填不限", example = "0.07")
+    @DecimalMin(value = "0", message = "磨损值不能小于0")
+    @DecimalMax(value = "1", message = "磨损值不能大于1")
+    private BigDecimal maxWear;
+}
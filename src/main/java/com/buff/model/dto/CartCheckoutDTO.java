@@ -0,0 +1,26 @@
+package com.buff.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 购物车结算请求DTO
+ * @author Administrator
+ */
+@Data
+@Schema(description = "购物车结算请求")
+public class CartCheckoutDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "挂单ID列表")
+    @NotEmpty(message = "结算列表不能为空")
+    @Size(max = 50, message = "单次最多结算50件")
+    private List<@NotNull Long> listingIds;
+}
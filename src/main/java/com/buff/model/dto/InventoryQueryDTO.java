@@ -22,6 +22,9 @@ public class InventoryQueryDTO implements Serializable {
     @Schema(description = "每页大小", example = "10")
     private Integer pageSize = 10;
 
+    @Schema(description = "分页游标（取自上一页的 nextCursor，传入后按游标翻页并忽略 pageNum）")
+    private String cursor;
+
     @Schema(description = "库存状态: 0=在库, 1=出售中, 2=交易锁定")
     private Integer status;
 
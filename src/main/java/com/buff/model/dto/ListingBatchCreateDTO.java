@@ -0,0 +1,26 @@
+package com.buff.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 批量上架请求DTO
+ * @author Administrator
+ */
+@Data
+@Schema(description = "批量上架请求")
+public class ListingBatchCreateDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "上架条目（库存ID + 价格）")
+    @NotEmpty(message = "上架列表不能为空")
+    @Size(max = 100, message = "单次最多上架100件")
+    private List<@Valid ListingCreateDTO> items;
+}
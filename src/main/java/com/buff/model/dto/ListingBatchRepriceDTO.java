@@ -0,0 +1,26 @@
+package com.buff.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 批量改价请求DTO
+ * @author Administrator
+ */
+@Data
+@Schema(description = "批量改价请求")
+public class ListingBatchRepriceDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "改价条目（挂单ID + 新价格）")
+    @NotEmpty(message = "改价列表不能为空")
+    @Size(max = 100, message = "单次最多改价100件")
+    private List<@Valid ListingRepriceDTO> items;
+}
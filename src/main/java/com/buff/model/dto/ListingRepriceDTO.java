@@ -0,0 +1,29 @@
+package com.buff.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * 改价请求DTO
+ * @author Administrator
+ */
+@Data
+@Schema(description = "改价请求")
+public class ListingRepriceDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "挂单ID", example = "1")
+    @NotNull(message = "挂单ID不能为空")
+    private Long listingId;
+
+    @Schema(description = "新价格", example = "148.00")
+    @NotNull(message = "价格不能为空")
+    @DecimalMin(value = "0.01", message = "价格必须大于0")
+    private BigDecimal price;
+}
@@ -46,4 +46,7 @@ public class MarketQueryDTO implements Serializable {
 
     @Schema(description = "每页大小", example = "20")
     private Integer pageSize = 20;
+
+    @Schema(description = "分页游标（取自上一页的 nextCursor，传入后按游标翻页并忽略 pageNum）")
+    private String cursor;
 }
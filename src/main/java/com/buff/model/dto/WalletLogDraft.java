@@ -0,0 +1,36 @@
+package com.buff.model.dto;
+
+import com.buff.model.entity.WalletLog;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * 待插入的资金流水（内部使用）
+ * <p>
+ * 变动后余额在插入时由数据库计算：用户当前余额 + balanceOffset。
+ * 同一事务内连续多笔变动一次性扣减余额时，当前余额是最后一笔之后的余额，
+ * 每笔的 balanceOffset 即该笔之后剩余未扣的金额，最后一笔为 0。
+ *
+ * @author Administrator
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletLogDraft implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 流水内容，balanceAfter 不需要填写
+     */
+    private WalletLog walletLog;
+
+    /**
+     * 变动后余额相对用户当前余额的差额
+     */
+    private BigDecimal balanceOffset;
+}
@@ -0,0 +1,78 @@
+package com.buff.model.entity;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 求购单实体类
+ *
+ * @author Administrator
+ */
+@Data
+public class BuyOrder implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 主键ID
+     */
+    private Long id;
+
+    /**
+     * 买家ID
+     */
+    private Long buyerId;
+
+    /**
+     * 饰品模板ID
+     */
+    private Long templateId;
+
+    /**
+     * 求购单价
+     */
+    private BigDecimal price;
+
+    /**
+     * 最低磨损（含），为空不限
+     */
+    private BigDecimal minWear;
+
+    /**
+     * 最高磨损（不含），为空不限
+     */
+    private BigDecimal maxWear;
+
+    /**
+     * 求购数量
+     */
+    private Integer quantity;
+
+    /**
+     * 已成交数量
+     */
+    private Integer filledQuantity;
+
+    /**
+     * 状态：0=求购中, 1=已完成, 2=已取消
+     */
+    private Integer status;
+
+    /**
+     * 版本号
+     */
+    private Integer version;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createTime;
+
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updateTime;
+}
@@ -0,0 +1,29 @@
+package com.buff.model.vo;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * 求购深度档位VO
+ *
+ * @author Administrator
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "求购深度档位（同价位求购数量合计）")
+public class BidLevelVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "求购价")
+    private BigDecimal price;
+
+    @Schema(description = "该价位剩余求购数量")
+    private Integer quantity;
+}
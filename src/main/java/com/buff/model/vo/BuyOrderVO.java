@@ -0,0 +1,53 @@
+package com.buff.model.vo;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 求购单VO
+ *
+ * @author Administrator
+ */
+@Data
+@Schema(description = "求购单信息")
+public class BuyOrderVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "求购单ID")
+    private Long id;
+
+    @Schema(description = "饰品模板ID")
+    private Long templateId;
+
+    @Schema(description = "饰品名称")
+    private String itemName;
+
+    @Schema(description = "饰品图标")
+    private String iconUrl;
+
+    @Schema(description = "求购单价")
+    private BigDecimal price;
+
+    @Schema(description = "最低磨损（含）")
+    private BigDecimal minWear;
+
+    @Schema(description = "最高磨损（不含）")
+    private BigDecimal maxWear;
+
+    @Schema(description = "求购数量")
+    private Integer quantity;
+
+    @Schema(description = "已成交数量")
+    private Integer filledQuantity;
+
+    @Schema(description = "状态：0=求购中, 1=已完成, 2=已取消")
+    private Integer status;
+
+    @Schema(description = "创建时间")
+    private LocalDateTime createTime;
+}
@@ -0,0 +1,55 @@
+package com.buff.model.vo;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 购物车结算结果VO
+ *
+ * @author Administrator
+ */
+@Data
+@Schema(description = "购物车结算结果")
+public class CartCheckoutResultVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "成功购买数量")
+    private Integer successCount;
+
+    @Schema(description = "失败数量")
+    private Integer failureCount;
+
+    @Schema(description = "本次扣款总额")
+    private BigDecimal totalAmount;
+
+    @Schema(description = "逐项结果，顺序与请求一致")
+    private List<Item> items;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "单项结算结果")
+    public static class Item implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        @Schema(description = "挂单ID")
+        private Long listingId;
+
+        @Schema(description = "是否成功")
+        private Boolean success;
+
+        @Schema(description = "订单编号（成功时）")
+        private String orderNo;
+
+        @Schema(description = "失败原因（失败时）")
+        private String message;
+    }
+}
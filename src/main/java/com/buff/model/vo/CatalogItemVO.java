@@ -0,0 +1,46 @@
+package com.buff.model.vo;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * 模板目录条目VO
+ *
+ * @author Administrator
+ */
+@Data
+@Schema(description = "模板目录条目（参考价、当前最低价与在售数量）")
+public class CatalogItemVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "模板ID")
+    private Long templateId;
+
+    @Schema(description = "饰品名称")
+    private String name;
+
+    @Schema(description = "饰品分类")
+    private String type;
+
+    @Schema(description = "稀有度")
+    private String rarity;
+
+    @Schema(description = "图片URL")
+    private String iconUrl;
+
+    @Schema(description = "参考价")
+    private BigDecimal refPrice;
+
+    @Schema(description = "当前最低在售价")
+    private BigDecimal floorPrice;
+
+    @Schema(description = "在售数量")
+    private Integer onSaleCount;
+
+    @Schema(description = "最低价 / 参考价，参考价缺失时为空")
+    private BigDecimal priceRatio;
+}
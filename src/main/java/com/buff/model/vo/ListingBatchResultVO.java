@@ -0,0 +1,51 @@
+package com.buff.model.vo;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 批量挂单操作结果VO（上架、改价、下架）
+ *
+ * @author Administrator
+ */
+@Data
+@Schema(description = "批量挂单操作结果")
+public class ListingBatchResultVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "成功数量")
+    private Integer successCount;
+
+    @Schema(description = "失败数量")
+    private Integer failureCount;
+
+    @Schema(description = "逐项结果，顺序与请求一致")
+    private List<Item> items;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "单项操作结果")
+    public static class Item implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        @Schema(description = "库存ID")
+        private Long inventoryId;
+
+        @Schema(description = "是否成功")
+        private Boolean success;
+
+        @Schema(description = "挂单ID")
+        private Long listingId;
+
+        @Schema(description = "失败原因（失败时）")
+        private String message;
+    }
+}
@@ -0,0 +1,59 @@
+package com.buff.model.vo;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 市场搜索分面统计VO
+ *
+ * @author Administrator
+ */
+@Data
+@Schema(description = "市场搜索分面统计")
+public class MarketFacetVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "满足当前筛选条件的在售总数")
+    private Long total;
+
+    @Schema(description = "按外观分组统计 (外观 -> 数量)，顺序为崭新出厂到战痕累累")
+    private Map<String, Long> wearCounts;
+
+    @Schema(description = "按类型分组统计 (类型 -> 数量)")
+    private Map<String, Long> typeCounts;
+
+    @Schema(description = "按稀有度分组统计 (稀有度 -> 数量)")
+    private Map<String, Long> rarityCounts;
+
+    @Schema(description = "价格直方图，按价格区间升序")
+    private List<PriceBucket> priceHistogram;
+
+    /**
+     * 价格区间 [minPrice, maxPrice)，maxPrice 为空表示无上限
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "价格区间统计")
+    public static class PriceBucket implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        @Schema(description = "区间下限（含）")
+        private BigDecimal minPrice;
+
+        @Schema(description = "区间上限（不含），为空表示无上限")
+        private BigDecimal maxPrice;
+
+        @Schema(description = "数量")
+        private Long count;
+    }
+}
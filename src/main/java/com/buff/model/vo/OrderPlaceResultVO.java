@@ -0,0 +1,52 @@
+package com.buff.model.vo;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 异步下单结果VO
+ *
+ * @author Administrator
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "异步下单结果")
+public class OrderPlaceResultVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String PENDING = "PENDING";
+
+    public static final String SUCCESS = "SUCCESS";
+
+    public static final String FAILED = "FAILED";
+
+    @Schema(description = "下单令牌")
+    private String token;
+
+    @Schema(description = "处理状态：PENDING=排队中, SUCCESS=下单成功, FAILED=下单失败")
+    private String status;
+
+    @Schema(description = "订单编号（下单成功时返回）")
+    private String orderNo;
+
+    @Schema(description = "失败原因")
+    private String message;
+
+    @Schema(hidden = true)
+    private Long buyerId;
+
+    /**
+     * 是否已处理完成（成功或失败）
+     */
+    @JsonIgnore
+    public boolean isFinished() {
+        return SUCCESS.equals(status) || FAILED.equals(status);
+    }
+}
@@ -30,6 +30,9 @@ public class OrderVO implements Serializable {
     @Schema(description = "卖家ID")
     private Long sellerId;
 
+    @Schema(description = "模板ID")
+    private Long templateId;
+
     @Schema(description = "饰品名称")
     private String itemName;
 
@@ -0,0 +1,41 @@
+package com.buff.model.vo;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 成交价K线VO
+ *
+ * @author Administrator
+ */
+@Data
+@Schema(description = "成交价K线")
+public class PriceCandleVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "区间起始时间")
+    private LocalDateTime time;
+
+    @Schema(description = "开盘价")
+    private BigDecimal open;
+
+    @Schema(description = "最高价")
+    private BigDecimal high;
+
+    @Schema(description = "最低价")
+    private BigDecimal low;
+
+    @Schema(description = "收盘价")
+    private BigDecimal close;
+
+    @Schema(description = "成交笔数")
+    private Integer volume;
+
+    @Schema(description = "成交额")
+    private BigDecimal turnover;
+}
@@ -0,0 +1,32 @@
+package com.buff.model.vo;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * 模板行情推送VO
+ *
+ * @author Administrator
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "模板行情（最低价与在售数量）")
+public class PriceTickVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "模板ID")
+    private Long templateId;
+
+    @Schema(description = "当前最低在售价，无在售为空")
+    private BigDecimal floorPrice;
+
+    @Schema(description = "当前在售数量")
+    private Integer onSaleCount;
+}
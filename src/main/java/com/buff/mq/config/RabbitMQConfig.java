@@ -1,6 +1,7 @@
 package com.buff.mq.config;
 
 import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.config.DirectRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
@@ -34,6 +35,87 @@ public class RabbitMQConfig {
     /** 死信队列 */
     public static final String ORDER_CONFIRMED_DLQ = "buff.order.confirmed.dlq";
 
+    /** 异步下单 - 分区队列前缀（buff.order.place.{分区号}） */
+    public static final String ORDER_PLACE_QUEUE_PREFIX = "buff.order.place.";
+
+    /** 异步下单 - 路由键前缀（order.place.{分区号}） */
+    public static final String ORDER_PLACE_ROUTING_KEY_PREFIX = "order.place.";
+
+    /** 异步下单 - 分区数，同一挂单始终路由到同一分区 */
+    public static final int ORDER_PLACE_PARTITIONS = 8;
+
+    /** 异步下单死信队列 */
+    public static final String ORDER_PLACE_DLQ = "buff.order.place.dlq";
+
+    /** 支付超时 - 延迟队列（无消费者，消息过期后经死信转入支付超时队列） */
+    public static final String ORDER_PAY_TIMEOUT_DELAY_QUEUE = "buff.order.pay-timeout.delay";
+
+    /** 支付超时 - 延迟队列路由键 */
+    public static final String ORDER_PAY_TIMEOUT_DELAY_ROUTING_KEY = "order.pay-timeout.delay";
+
+    /** 支付超时 - 队列 */
+    public static final String ORDER_PAY_TIMEOUT_QUEUE = "buff.order.pay-timeout";
+
+    /** 支付超时 - 路由键 */
+    public static final String ORDER_PAY_TIMEOUT_ROUTING_KEY = "order.pay-timeout";
+
+    /** 待支付订单超时时间（毫秒），超时未支付自动取消 */
+    public static final long ORDER_PAY_TIMEOUT_MILLIS = 15 * 60 * 1000L;
+
+    /** 自动确认收货 - 延迟队列 */
+    public static final String ORDER_AUTO_CONFIRM_DELAY_QUEUE = "buff.order.auto-confirm.delay";
+
+    /** 自动确认收货 - 延迟队列路由键 */
+    public static final String ORDER_AUTO_CONFIRM_DELAY_ROUTING_KEY = "order.auto-confirm.delay";
+
+    /** 自动确认收货 - 队列 */
+    public static final String ORDER_AUTO_CONFIRM_QUEUE = "buff.order.auto-confirm";
+
+    /** 自动确认收货 - 路由键 */
+    public static final String ORDER_AUTO_CONFIRM_ROUTING_KEY = "order.auto-confirm";
+
+    /** 发货后自动确认收货的等待时间（毫秒） */
+    public static final long ORDER_AUTO_CONFIRM_MILLIS = 7 * 24 * 60 * 60 * 1000L;
+
+    /** 支付超时 - 重试队列（处理失败的消息在此等待后经死信转回支付超时队列） */
+    public static final String ORDER_PAY_TIMEOUT_RETRY_QUEUE = "buff.order.pay-timeout.retry";
+
+    /** 支付超时 - 重试队列路由键 */
+    public static final String ORDER_PAY_TIMEOUT_RETRY_ROUTING_KEY = "order.pay-timeout.retry";
+
+    /** 自动确认收货 - 重试队列 */
+    public static final String ORDER_AUTO_CONFIRM_RETRY_QUEUE = "buff.order.auto-confirm.retry";
+
+    /** 自动确认收货 - 重试队列路由键 */
+    public static final String ORDER_AUTO_CONFIRM_RETRY_ROUTING_KEY = "order.auto-confirm.retry";
+
+    /** 订单超时处理失败后的重试间隔（毫秒） */
+    public static final long ORDER_TIMEOUT_RETRY_DELAY_MILLIS = 30 * 1000L;
+
+    /** 订单超时处理最大重试次数，耗尽后转入死信队列 */
+    public static final int ORDER_TIMEOUT_MAX_RETRIES = 3;
+
+    /** 订单超时处理死信队列 */
+    public static final String ORDER_TIMEOUT_DLQ = "buff.order.timeout.dlq";
+
+    /**
+     * 挂单所在的下单分区
+     */
+    public static int orderPlacePartition(Long listingId) {
+        return (int) Math.floorMod(listingId, (long) ORDER_PLACE_PARTITIONS);
+    }
+
+    /**
+     * 全部下单分区队列名（供 @RabbitListener 通过 SpEL 引用）
+     */
+    public static String[] orderPlaceQueues() {
+        String[] queues = new String[ORDER_PLACE_PARTITIONS];
+        for (int i = 0; i < ORDER_PLACE_PARTITIONS; i++) {
+            queues[i] = ORDER_PLACE_QUEUE_PREFIX + i;
+        }
+        return queues;
+    }
+
     // =================== 交换机 ===================
 
     @Bean
@@ -66,6 +148,83 @@ public class RabbitMQConfig {
         return QueueBuilder.durable(ORDER_CONFIRMED_DLQ).build();
     }
 
+    @Bean
+    public Queue orderPlaceDlq() {
+        return QueueBuilder.durable(ORDER_PLACE_DLQ).build();
+    }
+
+    /**
+     * 异步下单分区队列及其绑定。
+     * 每个分区队列开启 single-active-consumer：集群内同一时刻只有一个消费者在处理该分区，
+     * 同一挂单的下单请求严格串行，数据库写入速率上限为分区数。
+     */
+    @Bean
+    public Declarables orderPlaceQueues(DirectExchange orderExchange) {
+        Declarables declarables = new Declarables();
+        for (int i = 0; i < ORDER_PLACE_PARTITIONS; i++) {
+            Queue queue = QueueBuilder.durable(ORDER_PLACE_QUEUE_PREFIX + i)
+                    .singleActiveConsumer()
+                    .withArgument("x-dead-letter-exchange", ORDER_DEAD_LETTER_EXCHANGE)
+                    .withArgument("x-dead-letter-routing-key", ORDER_PLACE_ROUTING_KEY_PREFIX + "dlq")
+                    .build();
+            declarables.getDeclarables().add(queue);
+            declarables.getDeclarables().add(BindingBuilder.bind(queue).to(orderExchange)
+                    .with(ORDER_PLACE_ROUTING_KEY_PREFIX + i));
+        }
+        return declarables;
+    }
+
+    /**
+     * 订单超时延迟队列。
+     * 同一队列内所有消息的 TTL 相同（队列级 x-message-ttl），过期顺序与入队顺序一致，
+     * 队头消息到期即转出，不存在逐条 TTL 的队头阻塞；海量未完结订单只是队列中的持久化消息，无需扫表。
+     * 注意：修改 TTL 需先删除已声明的延迟队列，否则参数不一致会导致声明失败。
+     * 处理失败的消息投递到对应重试队列，短暂等待后转回处理队列，重试耗尽才进入死信队列。
+     */
+    @Bean
+    public Declarables orderTimeoutQueues(DirectExchange orderExchange, DirectExchange orderDeadLetterExchange) {
+        Queue payTimeoutDelay = QueueBuilder.durable(ORDER_PAY_TIMEOUT_DELAY_QUEUE)
+                .ttl((int) ORDER_PAY_TIMEOUT_MILLIS)
+                .withArgument("x-dead-letter-exchange", ORDER_EXCHANGE)
+                .withArgument("x-dead-letter-routing-key", ORDER_PAY_TIMEOUT_ROUTING_KEY)
+                .build();
+        Queue payTimeout = QueueBuilder.durable(ORDER_PAY_TIMEOUT_QUEUE)
+                .withArgument("x-dead-letter-exchange", ORDER_DEAD_LETTER_EXCHANGE)
+                .withArgument("x-dead-letter-routing-key", "order.timeout.dlq")
+                .build();
+        Queue autoConfirmDelay = QueueBuilder.durable(ORDER_AUTO_CONFIRM_DELAY_QUEUE)
+                .ttl((int) ORDER_AUTO_CONFIRM_MILLIS)
+                .withArgument("x-dead-letter-exchange", ORDER_EXCHANGE)
+                .withArgument("x-dead-letter-routing-key", ORDER_AUTO_CONFIRM_ROUTING_KEY)
+                .build();
+        Queue autoConfirm = QueueBuilder.durable(ORDER_AUTO_CONFIRM_QUEUE)
+                .withArgument("x-dead-letter-exchange", ORDER_DEAD_LETTER_EXCHANGE)
+                .withArgument("x-dead-letter-routing-key", "order.timeout.dlq")
+                .build();
+        Queue payTimeoutRetry = QueueBuilder.durable(ORDER_PAY_TIMEOUT_RETRY_QUEUE)
+                .ttl((int) ORDER_TIMEOUT_RETRY_DELAY_MILLIS)
+                .withArgument("x-dead-letter-exchange", ORDER_EXCHANGE)
+                .withArgument("x-dead-letter-routing-key", ORDER_PAY_TIMEOUT_ROUTING_KEY)
+                .build();
+        Queue autoConfirmRetry = QueueBuilder.durable(ORDER_AUTO_CONFIRM_RETRY_QUEUE)
+                .ttl((int) ORDER_TIMEOUT_RETRY_DELAY_MILLIS)
+                .withArgument("x-dead-letter-exchange", ORDER_EXCHANGE)
+                .withArgument("x-dead-letter-routing-key", ORDER_AUTO_CONFIRM_ROUTING_KEY)
+                .build();
+        Queue timeoutDlq = QueueBuilder.durable(ORDER_TIMEOUT_DLQ).build();
+        return new Declarables(
+                payTimeoutDelay, payTimeout, autoConfirmDelay, autoConfirm,
+                payTimeoutRetry, autoConfirmRetry, timeoutDlq,
+                BindingBuilder.bind(payTimeoutDelay).to(orderExchange).with(ORDER_PAY_TIMEOUT_DELAY_ROUTING_KEY),
+                BindingBuilder.bind(payTimeout).to(orderExchange).with(ORDER_PAY_TIMEOUT_ROUTING_KEY),
+                BindingBuilder.bind(autoConfirmDelay).to(orderExchange).with(ORDER_AUTO_CONFIRM_DELAY_ROUTING_KEY),
+                BindingBuilder.bind(autoConfirm).to(orderExchange).with(ORDER_AUTO_CONFIRM_ROUTING_KEY),
+                BindingBuilder.bind(payTimeoutRetry).to(orderExchange).with(ORDER_PAY_TIMEOUT_RETRY_ROUTING_KEY),
+                BindingBuilder.bind(autoConfirmRetry).to(orderExchange).with(ORDER_AUTO_CONFIRM_RETRY_ROUTING_KEY),
+                BindingBuilder.bind(timeoutDlq).to(orderDeadLetterExchange).with("order.timeout.dlq")
+        );
+    }
+
     // =================== 绑定 ===================
 
     @Bean
@@ -83,6 +242,34 @@ public class RabbitMQConfig {
                 .with(ORDER_CONFIRMED_ROUTING_KEY + ".dlq");
     }
 
+    @Bean
+    public Binding orderPlaceDlqBinding(Queue orderPlaceDlq, DirectExchange orderDeadLetterExchange) {
+        return BindingBuilder.bind(orderPlaceDlq)
+                .to(orderDeadLetterExchange)
+                .with(ORDER_PLACE_ROUTING_KEY_PREFIX + "dlq");
+    }
+
+    // =================== 监听容器 ===================
+
+    /**
+     * 异步下单监听容器工厂。
+     * 默认的 SimpleMessageListenerContainer 中每个消费者线程同时订阅全部分区队列，
+     * single-active-consumer 会把所有分区都交给最先注册的那个消费者，实际只有一个分区在处理；
+     * 这里改用 DirectMessageListenerContainer，每个分区队列各自一个消费者（独立 channel），
+     * 分区之间并行，某个分区的重试等待也只阻塞该分区。
+     */
+    @Bean
+    public DirectRabbitListenerContainerFactory orderPlaceContainerFactory(ConnectionFactory connectionFactory,
+                                                                          Jackson2JsonMessageConverter messageConverter) {
+        DirectRabbitListenerContainerFactory factory = new DirectRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(messageConverter);
+        factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        factory.setConsumersPerQueue(1);
+        factory.setPrefetchCount(1);
+        return factory;
+    }
+
     // =================== 序列化 ===================
 
     /**
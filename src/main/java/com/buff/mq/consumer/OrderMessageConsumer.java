@@ -2,7 +2,10 @@ package com.buff.mq.consumer;
 
 import com.buff.constant.InventoryStatus;
 import com.buff.constant.ListingStatus;
+import com.buff.constant.ListingTransition;
 import com.buff.constant.WalletLogType;
+import com.buff.event.ListingChange;
+import com.buff.event.ListingChangedEvent;
 import com.buff.exception.BusinessException;
 import com.buff.mapper.InventoryMapper;
 import com.buff.mapper.MarketListingMapper;
@@ -11,12 +14,14 @@ import com.buff.model.entity.User;
 import com.buff.model.entity.UserInventory;
 import com.buff.mq.config.RabbitMQConfig;
 import com.buff.mq.message.OrderConfirmedMessage;
+import com.buff.service.PriceCandleService;
 import com.buff.service.WalletService;
 import com.rabbitmq.client.Channel;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
@@ -33,6 +38,7 @@ import java.time.LocalDateTime;
  *   2. 记录卖家资金流水
  *   3. 库存所有权转移给买家
  *   4. 挂单状态更新为已售出
+ *   5. 成交价计入K线
  * @author Administrator
  */
 @Slf4j
@@ -44,6 +50,8 @@ public class OrderMessageConsumer {
     private final InventoryMapper inventoryMapper;
     private final MarketListingMapper marketListingMapper;
     private final WalletService walletService;
+    private final PriceCandleService priceCandleService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @RabbitListener(queues = RabbitMQConfig.ORDER_CONFIRMED_QUEUE)
     @Transactional(rollbackFor = Exception.class)
@@ -69,17 +77,25 @@ public class OrderMessageConsumer {
                 return;
             }
 
-            // 1. 卖家余额打款（乐观锁重试最多 3 次）
+            // 1-2. 卖家余额打款（乐观锁重试最多 3 次）并记录资金流水
             creditSellerBalance(message.getSellerId(), message.getAmount(), message.getOrderNo());
 
-            // 2. 库存所有权转移给买家，并设置 7 天交易锁定
+            // 3. 库存所有权转移给买家，并设置 7 天交易锁定
             inventory.setUserId(message.getBuyerId());
             inventory.setStatus(InventoryStatus.LOCKED);
             inventory.setLockExpireTime(LocalDateTime.now().plusDays(7));
             inventoryMapper.updateById(inventory);
 
-            // 3. 挂单标记为已售出
-            marketListingMapper.updateStatusById(message.getListingId(), ListingStatus.SOLD);
+            // 4. 挂单标记为已售出
+            if (marketListingMapper.transition(message.getListingId(), ListingTransition.SELL) == 0) {
+                log.warn("挂单已不处于已被购买状态，跳过标记已售出: listingId={}", message.getListingId());
+            }
+            eventPublisher.publishEvent(ListingChangedEvent.of(new ListingChange(
+                    message.getListingId(), inventory.getTemplateId(), ListingStatus.SOLD, message.getAmount())));
+
+            // 5. 成交价按成交时间计入K线（延迟或重复投递不影响归档的小时；兼容不带成交时间的旧消息）
+            LocalDateTime tradeTime = message.getFinishTime() != null ? message.getFinishTime() : LocalDateTime.now();
+            priceCandleService.recordTrade(inventory.getTemplateId(), message.getAmount(), tradeTime);
 
             log.info("订单后处理完成: orderId={}", message.getOrderId());
 
@@ -0,0 +1,52 @@
+package com.buff.mq.consumer;
+
+import com.buff.mq.config.RabbitMQConfig;
+import com.buff.mq.message.OrderPlaceMessage;
+import com.buff.service.TradeOrderService;
+import com.rabbitmq.client.Channel;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * 异步下单消费者
+ * <p>
+ * 监听全部下单分区队列，每个分区队列一个消费者（见 {@link RabbitMQConfig#orderPlaceContainerFactory}）。
+ * 分区队列开启了 single-active-consumer，同一分区（即同一挂单）的请求由单个消费者按入队顺序逐条处理，
+ * 分区之间并行，数据库写入并发度上限为分区数，突发流量在队列中削峰。
+ * @author Administrator
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderPlaceConsumer {
+
+    private final TradeOrderService tradeOrderService;
+
+    @RabbitListener(queues = "#{T(com.buff.mq.config.RabbitMQConfig).orderPlaceQueues()}",
+            containerFactory = "orderPlaceContainerFactory")
+    public void handleOrderPlace(OrderPlaceMessage message,
+                                 Channel channel,
+                                 @Header(AmqpHeaders.DELIVERY_TAG) long deliveryTag) throws IOException {
+        log.info("收到下单消息: token={}, buyerId={}, listingId={}",
+                message.getToken(), message.getBuyerId(), message.getListingId());
+        try {
+            tradeOrderService.processPlaceOrder(message);
+            channel.basicAck(deliveryTag, false);
+        } catch (Exception e) {
+            log.error("下单消息处理失败: token={}, listingId={}", message.getToken(), message.getListingId(), e);
+            // 重试等待被停机中断时结果仍为排队中，重新入队由接手的消费者继续处理；
+            // 其余情况为临时故障重试耗尽，结果已标记失败，消息入死信队列留档
+            boolean interrupted = Thread.interrupted();
+            channel.basicNack(deliveryTag, false, interrupted);
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.buff.mq.consumer;
+
+import com.buff.mq.config.RabbitMQConfig;
+import com.buff.mq.message.OrderTimeoutMessage;
+import com.buff.service.TradeOrderService;
+import com.rabbitmq.client.Channel;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * 订单超时消费者
+ * <p>
+ * 消费延迟队列到期转出的消息：
+ *   1. 支付超时：订单仍为待支付则自动取消并释放挂单
+ *   2. 自动确认收货：订单仍为已发货则自动完成交易
+ * 订单状态已变化的消息（已支付、已手动确认等）直接确认丢弃，天然幂等。
+ * 处理失败（数据库抖动、并发冲突等）时投递到重试队列，等待 {@link RabbitMQConfig#ORDER_TIMEOUT_RETRY_DELAY_MILLIS}
+ * 后重新处理，重试 {@link RabbitMQConfig#ORDER_TIMEOUT_MAX_RETRIES} 次仍失败才转入死信队列。
+ * @author Administrator
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderTimeoutConsumer {
+
+    private final TradeOrderService tradeOrderService;
+
+    private final RabbitTemplate rabbitTemplate;
+
+    @RabbitListener(queues = RabbitMQConfig.ORDER_PAY_TIMEOUT_QUEUE)
+    public void handlePayTimeout(OrderTimeoutMessage message,
+                                 Channel channel,
+                                 @Header(AmqpHeaders.DELIVERY_TAG) long deliveryTag) throws IOException {
+        try {
+            tradeOrderService.cancelUnpaidOrder(message.getOrderId());
+            channel.basicAck(deliveryTag, false);
+        } catch (Exception e) {
+            log.error("支付超时处理失败: orderId={}, orderNo={}, retryCount={}",
+                    message.getOrderId(), message.getOrderNo(), message.getRetryCount(), e);
+            retryOrDeadLetter(message, RabbitMQConfig.ORDER_PAY_TIMEOUT_RETRY_ROUTING_KEY, channel, deliveryTag);
+        }
+    }
+
+    @RabbitListener(queues = RabbitMQConfig.ORDER_AUTO_CONFIRM_QUEUE)
+    public void handleAutoConfirm(OrderTimeoutMessage message,
+                                  Channel channel,
+                                  @Header(AmqpHeaders.DELIVERY_TAG) long deliveryTag) throws IOException {
+        try {
+            tradeOrderService.autoConfirmOrder(message.getOrderId());
+            channel.basicAck(deliveryTag, false);
+        } catch (Exception e) {
+            log.error("自动确认收货处理失败: orderId={}, orderNo={}, retryCount={}",
+                    message.getOrderId(), message.getOrderNo(), message.getRetryCount(), e);
+            retryOrDeadLetter(message, RabbitMQConfig.ORDER_AUTO_CONFIRM_RETRY_ROUTING_KEY, channel, deliveryTag);
+        }
+    }
+
+    /**
+     * 未耗尽重试次数时投递到重试队列并确认原消息，否则拒绝原消息使其进入死信队列
+     */
+    private void retryOrDeadLetter(OrderTimeoutMessage message, String retryRoutingKey,
+                                   Channel channel, long deliveryTag) throws IOException {
+        int retryCount = message.getRetryCount() == null ? 0 : message.getRetryCount();
+        if (retryCount >= RabbitMQConfig.ORDER_TIMEOUT_MAX_RETRIES) {
+            log.error("订单超时处理重试耗尽，转入死信队列: orderId={}, orderNo={}", message.getOrderId(), message.getOrderNo());
+            channel.basicNack(deliveryTag, false, false);
+            return;
+        }
+        try {
+            message.setRetryCount(retryCount + 1);
+            rabbitTemplate.convertAndSend(RabbitMQConfig.ORDER_EXCHANGE, retryRoutingKey, message);
+            channel.basicAck(deliveryTag, false);
+        } catch (Exception e) {
+            // 重试消息未能投递，原消息重新入队，不丢失也不提前进入死信队列
+            log.warn("订单超时重试消息投递失败，原消息重新入队: orderId={}, error={}", message.getOrderId(), e.getMessage());
+            channel.basicNack(deliveryTag, false, true);
+        }
+    }
+}
@@ -6,6 +6,7 @@ import lombok.NoArgsConstructor;
 
 import java.io.Serializable;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 /**
  * 订单确认收货消息
@@ -41,4 +42,7 @@ public class OrderConfirmedMessage implements Serializable {
 
     /** 关联挂单ID */
     private Long listingId;
+
+    /** 成交时间（订单 finish_time，K线按此归档） */
+    private LocalDateTime finishTime;
 }
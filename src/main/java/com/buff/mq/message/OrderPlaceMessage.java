@@ -0,0 +1,35 @@
+package com.buff.mq.message;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 异步下单消息
+ * <p>
+ * 下单请求通过校验并完成挂单预占后发送此消息，按挂单ID路由到固定分区队列；
+ * 消费者在事务中完成挂单锁定和订单创建，并把结果写回下单令牌。
+ * @author Administrator
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderPlaceMessage implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** 下单令牌（客户端据此查询结果） */
+    private String token;
+
+    /** 买家ID */
+    private Long buyerId;
+
+    /** 挂单ID */
+    private Long listingId;
+
+    /** 请求受理时间 */
+    private LocalDateTime requestTime;
+}
@@ -0,0 +1,34 @@
+package com.buff.mq.message;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 订单超时消息
+ * <p>
+ * 订单进入待支付 / 已发货状态时投递到对应延迟队列，到期后由消费者检查订单是否仍停留在该状态，
+ * 是则自动取消（支付超时）或自动确认收货，否则说明订单已被处理，直接丢弃。
+ * @author Administrator
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderTimeoutMessage implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** 订单ID */
+    private Long orderId;
+
+    /** 订单编号 */
+    private String orderNo;
+
+    /** 投递时订单所处状态（见 OrderStatus） */
+    private Integer expectStatus;
+
+    /** 已重试次数 */
+    private Integer retryCount;
+}
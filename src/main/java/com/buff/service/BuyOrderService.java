@@ -0,0 +1,41 @@
+package com.buff.service;
+
+import com.buff.common.PageResult;
+import com.buff.model.dto.BuyOrderCreateDTO;
+import com.buff.model.vo.BidLevelVO;
+import com.buff.model.vo.BuyOrderVO;
+
+import java.util.List;
+
+/**
+ * 求购服务接口
+ *
+ * @author Administrator
+ */
+public interface BuyOrderService {
+
+    /**
+     * 发布求购（冻结 price * quantity 资金），返回求购单ID
+     */
+    Long createBuyOrder(BuyOrderCreateDTO dto);
+
+    /**
+     * 取消求购，退回未成交部分的冻结资金
+     */
+    void cancelBuyOrder(Long id);
+
+    /**
+     * 查看我的求购
+     */
+    PageResult<BuyOrderVO> getMyBuyOrders(Integer status, Integer pageNum, Integer pageSize);
+
+    /**
+     * 查看模板的求购深度
+     */
+    List<BidLevelVO> getBidDepth(Long templateId);
+
+    /**
+     * 一键出售：把库存饰品按最高可成交求购价直接卖出，返回订单编号
+     */
+    String instantSell(Long inventoryId);
+}
@@ -1,10 +1,20 @@
 package com.buff.service;
 
 import com.buff.common.PageResult;
+import com.buff.model.dto.ListingBatchCreateDTO;
+import com.buff.model.dto.ListingBatchRepriceDTO;
 import com.buff.model.dto.ListingCreateDTO;
+import com.buff.model.dto.ListingRepriceDTO;
 import com.buff.model.dto.MarketQueryDTO;
+import com.buff.model.vo.CatalogItemVO;
+import com.buff.model.vo.ListingBatchResultVO;
+import com.buff.model.vo.MarketFacetVO;
 import com.buff.model.vo.MarketListingVO;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
 /**
  * 市场挂单服务接口
  *
@@ -17,6 +27,11 @@ public interface MarketListingService {
      */
     Long createListing(ListingCreateDTO dto);
 
+    /**
+     * 批量上架商品（逐项返回成功或失败原因，合格条目在同一事务中上架）
+     */
+    ListingBatchResultVO createListings(ListingBatchCreateDTO dto);
+
     /**
      * 下架商品
      */
@@ -27,28 +42,63 @@ public interface MarketListingService {
      */
     void cancelListingByInventoryId(Long inventoryId);
 
+    /**
+     * 批量下架（按库存ID，逐项返回成功或失败原因）
+     */
+    ListingBatchResultVO cancelListingsByInventoryIds(List<Long> inventoryIds);
+
+    /**
+     * 改价（挂单ID不变）
+     */
+    void repriceListing(ListingRepriceDTO dto);
+
+    /**
+     * 批量改价（逐项返回成功或失败原因，合格条目以一条语句更新）
+     */
+    ListingBatchResultVO repriceListings(ListingBatchRepriceDTO dto);
+
     /**
      * 查询市场商品列表
      */
     PageResult<MarketListingVO> getMarketListings(MarketQueryDTO queryDTO);
 
+    /**
+     * 按当前筛选条件统计分面（外观、类型、稀有度、价格区间）
+     */
+    MarketFacetVO getMarketFacets(MarketQueryDTO queryDTO);
+
+    /**
+     * 流式导出满足筛选条件的全部在售挂单（忽略排序与分页），返回导出行数
+     *
+     * @param csv true 输出 CSV，false 输出 NDJSON
+     */
+    long exportMarketListings(MarketQueryDTO queryDTO, boolean csv, OutputStream out) throws IOException;
+
     /**
      * 查看挂单详情
      */
     MarketListingVO getListingDetail(Long id);
 
     /**
-     * 查看我的挂单
+     * 查看我的挂单（cursor 不为空时按游标翻页）
      */
-    PageResult<MarketListingVO> getMyListings(Integer status, Integer pageNum, Integer pageSize);
+    PageResult<MarketListingVO> getMyListings(Integer status, Integer pageNum, Integer pageSize, String cursor);
 
     /**
-     * 获取热门饰品列表
+     * 获取热门饰品列表（按浏览、下单、成交热度排行，每个模板展示最低价在售挂单）
      */
     PageResult<MarketListingVO> getHotItems(Integer pageNum, Integer pageSize);
 
     /**
-     * 刷新热门饰品缓存
+     * 模板目录：各模板参考价、当前最低价与在售数量
+     *
+     * @param sortField 排序维度 (floorPrice/supply/priceRatio)
+     * @param sortOrder 排序方式 (asc/desc)
+     */
+    PageResult<CatalogItemVO> getCatalog(String sortField, String sortOrder, Integer pageNum, Integer pageSize);
+
+    /**
+     * 立即刷新热门饰品排行
      */
     void refreshHotItems();
 }
@@ -0,0 +1,33 @@
+package com.buff.service;
+
+import com.buff.model.vo.PriceCandleVO;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 成交价K线服务接口
+ *
+ * @author Administrator
+ */
+public interface PriceCandleService {
+
+    /**
+     * 记录一笔成交（在交易成功的事务中调用，同时更新各粒度K线）
+     */
+    void recordTrade(Long templateId, BigDecimal price, LocalDateTime tradeTime);
+
+    /**
+     * 查询模板最近的K线（按时间升序）
+     *
+     * @param period 粒度 (1h/1d)
+     * @param limit  条数
+     */
+    List<PriceCandleVO> getCandles(Long templateId, String period, Integer limit);
+
+    /**
+     * 清理超过保留期的小时K线，返回删除行数
+     */
+    int purgeExpiredHourly();
+}
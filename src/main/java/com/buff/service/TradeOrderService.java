@@ -1,8 +1,12 @@
 package com.buff.service;
 
 import com.buff.common.PageResult;
+import com.buff.model.dto.CartCheckoutDTO;
 import com.buff.model.dto.OrderCreateDTO;
+import com.buff.model.vo.CartCheckoutResultVO;
+import com.buff.model.vo.OrderPlaceResultVO;
 import com.buff.model.vo.OrderVO;
+import com.buff.mq.message.OrderPlaceMessage;
 
 /**
  * 交易订单服务接口
@@ -16,6 +20,32 @@ public interface TradeOrderService {
      */
     String createOrder(OrderCreateDTO dto);
 
+    /**
+     * 立即购买：一个事务内完成锁定挂单、扣款和创建已支付订单
+     */
+    String buyNow(OrderCreateDTO dto);
+
+    /**
+     * 购物车结算：一个事务内批量锁定挂单、一次扣款、批量创建已支付订单，已被抢走的挂单逐项返回失败原因
+     */
+    CartCheckoutResultVO checkoutCart(CartCheckoutDTO dto);
+
+    /**
+     * 异步下单：校验并预占挂单后进入分区队列排队，立即返回下单令牌
+     */
+    OrderPlaceResultVO placeOrderAsync(OrderCreateDTO dto);
+
+    /**
+     * 查询异步下单结果
+     */
+    OrderPlaceResultVO getPlaceResult(String token);
+
+    /**
+     * 处理排队中的下单请求（由分区队列消费者调用），结果写回下单令牌；
+     * 临时故障在有限次数内退避重试，重试耗尽后标记失败并抛出异常
+     */
+    void processPlaceOrder(OrderPlaceMessage message);
+
     /**
      * 支付订单
      */
@@ -36,18 +66,28 @@ public interface TradeOrderService {
      */
     void cancelOrder(Long id);
 
+    /**
+     * 支付超时自动取消（由延迟队列消费者调用，订单已不是待支付时忽略）
+     */
+    void cancelUnpaidOrder(Long id);
+
+    /**
+     * 发货超时自动确认收货（由延迟队列消费者调用，订单已不是已发货时忽略）
+     */
+    void autoConfirmOrder(Long id);
+
     /**
      * 查看订单详情
      */
     OrderVO getOrderDetail(Long id);
 
     /**
-     * 查看我的购买订单
+     * 查看我的购买订单（cursor 不为空时按游标翻页）
      */
-    PageResult<OrderVO> getMyBuyOrders(Integer status, Integer pageNum, Integer pageSize);
+    PageResult<OrderVO> getMyBuyOrders(Integer status, Integer pageNum, Integer pageSize, String cursor);
 
     /**
-     * 查看我的出售订单
+     * 查看我的出售订单（cursor 不为空时按游标翻页）
      */
-    PageResult<OrderVO> getMySellOrders(Integer status, Integer pageNum, Integer pageSize);
+    PageResult<OrderVO> getMySellOrders(Integer status, Integer pageNum, Integer pageSize, String cursor);
 }
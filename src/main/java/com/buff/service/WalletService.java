@@ -2,10 +2,12 @@ package com.buff.service;
 
 import com.buff.common.PageResult;
 import com.buff.model.dto.RechargeDTO;
+import com.buff.model.dto.WalletLogDraft;
 import com.buff.model.dto.WithdrawDTO;
 import com.buff.model.vo.WalletLogVO;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 /**
  * 钱包服务接口
@@ -30,12 +32,33 @@ public interface WalletService {
     void withdraw(WithdrawDTO dto);
 
     /**
-     * 查询资金流水
+     * 查询资金流水（cursor 不为空时按游标翻页）
      */
-    PageResult<WalletLogVO> getWalletLogs(Integer type, Integer pageNum, Integer pageSize);
+    PageResult<WalletLogVO> getWalletLogs(Integer type, Integer pageNum, Integer pageSize, String cursor);
 
     /**
      * 记录资金流水（内部方法）
      */
     void recordWalletLog(Long userId, Integer type, BigDecimal amount, BigDecimal balanceAfter, String orderNo, String remark);
+
+    /**
+     * 记录资金流水，变动后余额取自用户当前余额（内部方法，须在已更新余额的同一事务中调用，省去回读余额）
+     */
+    void recordWalletLogFromBalance(Long userId, Integer type, BigDecimal amount, String orderNo, String remark);
+
+    /**
+     * 冻结资金：从余额中原子扣除并记录流水，余额不足时抛出异常（内部方法，需在调用方事务中执行）
+     */
+    void freezeBalance(Long userId, BigDecimal amount, String orderNo, String remark);
+
+    /**
+     * 退回冻结资金：原子加回余额并记录流水（内部方法，需在调用方事务中执行）
+     */
+    void unfreezeBalance(Long userId, BigDecimal amount, String orderNo, String remark);
+
+    /**
+     * 批量记录资金流水（内部方法，一条多行 INSERT，须在已更新余额的同一事务中调用）；
+     * 变动后余额按用户当前余额加上每条的 balanceOffset 计算（见 {@link WalletLogDraft}）
+     */
+    void recordWalletLogs(List<WalletLogDraft> drafts);
 }
@@ -0,0 +1,430 @@
+package com.buff.service.impl;
+
+import com.buff.cache.BidBook;
+import com.buff.cache.ItemTemplateDictionary;
+import com.buff.cache.ListingOrderBook;
+import com.buff.common.PageResult;
+import com.buff.common.ResultCode;
+import com.buff.constant.BuyOrderStatus;
+import com.buff.constant.InventoryStatus;
+import com.buff.constant.InventoryTransition;
+import com.buff.constant.ListingStatus;
+import com.buff.constant.OrderStatus;
+import com.buff.event.ListingChange;
+import com.buff.event.ListingChangedEvent;
+import com.buff.event.ListingSyncEvent;
+import com.buff.exception.BusinessException;
+import com.buff.mapper.BuyOrderMapper;
+import com.buff.mapper.InventoryMapper;
+import com.buff.mapper.MarketListingMapper;
+import com.buff.mapper.TradeOrderMapper;
+import com.buff.model.dto.BuyOrderCreateDTO;
+import com.buff.model.entity.BuyOrder;
+import com.buff.model.entity.ItemTemplate;
+import com.buff.model.entity.MarketListing;
+import com.buff.model.entity.TradeOrder;
+import com.buff.model.entity.UserInventory;
+import com.buff.model.vo.BidLevelVO;
+import com.buff.model.vo.BuyOrderVO;
+import com.buff.model.vo.MarketListingVO;
+import com.buff.service.BuyOrderService;
+import com.buff.service.WalletService;
+import com.buff.util.IdGenerator;
+import com.buff.util.UserContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 求购服务实现类
+ * <p>
+ * 撮合全部在 {@link BidBook} 的模板分片线程上执行，同一模板同一时刻只有一个撮合在进行：
+ * <ul>
+ *   <li>新挂单上架（含改价、订单取消后重新在售）提交后，与该模板最高的可成交求购撮合</li>
+ *   <li>新求购发布后，按价格从低到高扫描该模板可成交的在售挂单</li>
+ *   <li>一键出售直接按最高可成交求购价卖出库存饰品</li>
+ * </ul>
+ * 成交价取先挂出一方的价格：新挂单与已有求购成交、一键出售按求购价；新求购与已在售挂单成交按挂单价，
+ * 求购价与挂单价的差额在同一事务中退回买家。买家资金在发布求购时已冻结，成交即生成待发货订单。
+ *
+ * @author Administrator
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BuyOrderServiceImpl implements BuyOrderService {
+
+    /**
+     * 求购深度返回的价位数
+     */
+    private static final int DEPTH_LEVELS = 20;
+
+    /**
+     * 新求购最多扫描的在售挂单数
+     */
+    private static final int MAX_MATCH_SCAN = 50;
+
+    /**
+     * 等待分片线程处理的超时时间（秒）
+     */
+    private static final long SHARD_TIMEOUT_SECONDS = 10;
+
+    private final BuyOrderMapper buyOrderMapper;
+    private final MarketListingMapper marketListingMapper;
+    private final InventoryMapper inventoryMapper;
+    private final TradeOrderMapper tradeOrderMapper;
+    private final WalletService walletService;
+    private final BidBook bidBook;
+    private final ListingOrderBook listingOrderBook;
+    private final ItemTemplateDictionary itemTemplateDictionary;
+    private final IdGenerator idGenerator;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * 单次成交尝试的结果
+     */
+    private enum FillResult {
+        FILLED, BID_STALE, LISTING_GONE
+    }
+
+    @Override
+    public Long createBuyOrder(BuyOrderCreateDTO dto) {
+        Long buyerId = UserContext.getUserId();
+        if (buyerId == null) {
+            throw new BusinessException(ResultCode.UNAUTHORIZED);
+        }
+        if (itemTemplateDictionary.getActive(dto.getTemplateId()) == null) {
+            throw new BusinessException(ResultCode.ITEM_NOT_FOUND);
+        }
+        if (dto.getMinWear() != null && dto.getMaxWear() != null
+                && dto.getMinWear().compareTo(dto.getMaxWear()) >= 0) {
+            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "磨损区间无效");
+        }
+
+        BuyOrder bid = new BuyOrder();
+        bid.setId(idGenerator.nextId());
+        bid.setBuyerId(buyerId);
+        bid.setTemplateId(dto.getTemplateId());
+        bid.setPrice(dto.getPrice());
+        bid.setMinWear(dto.getMinWear());
+        bid.setMaxWear(dto.getMaxWear());
+        bid.setQuantity(dto.getQuantity());
+        bid.setFilledQuantity(0);
+        bid.setStatus(BuyOrderStatus.OPEN);
+        bid.setVersion(0);
+        bid.setCreateTime(LocalDateTime.now());
+
+        // 冻结资金与写入求购单在同一事务
+        BigDecimal frozen = dto.getPrice().multiply(BigDecimal.valueOf(dto.getQuantity()));
+        transactionTemplate.executeWithoutResult(status -> {
+            walletService.freezeBalance(buyerId, frozen, String.valueOf(bid.getId()), "发布求购");
+            buyOrderMapper.insert(bid);
+        });
+
+        // 进入求购簿并尝试与现有在售挂单成交
+        Long templateId = bid.getTemplateId();
+        bidBook.execute(templateId, () -> {
+            bidBook.upsert(bid);
+            try {
+                matchBid(bid);
+            } catch (Exception e) {
+                log.warn("新求购撮合失败: buyOrderId={}, error={}", bid.getId(), e.getMessage());
+            }
+            bidBook.broadcast(templateId);
+        });
+
+        log.info("发布求购成功: buyOrderId={}, buyerId={}, templateId={}, price={}, quantity={}",
+                bid.getId(), buyerId, templateId, dto.getPrice(), dto.getQuantity());
+        return bid.getId();
+    }
+
+    @Override
+    public void cancelBuyOrder(Long id) {
+        Long buyerId = UserContext.getUserId();
+        if (buyerId == null) {
+            throw new BusinessException(ResultCode.UNAUTHORIZED);
+        }
+        BuyOrder bid = buyOrderMapper.selectById(id);
+        if (bid == null || !bid.getBuyerId().equals(buyerId)) {
+            throw new BusinessException(ResultCode.ERROR.getCode(), "求购单不存在");
+        }
+
+        // 条件取消后按最新的已成交数量退回剩余冻结资金
+        BigDecimal refund = transactionTemplate.execute(status -> {
+            if (buyOrderMapper.cancel(id, buyerId) == 0) {
+                throw new BusinessException(ResultCode.ERROR.getCode(), "求购已完成或已取消");
+            }
+            BuyOrder latest = buyOrderMapper.selectById(id);
+            BigDecimal amount = latest.getPrice()
+                    .multiply(BigDecimal.valueOf(latest.getQuantity() - latest.getFilledQuantity()));
+            walletService.unfreezeBalance(buyerId, amount, String.valueOf(id), "取消求购退回");
+            return amount;
+        });
+
+        Long templateId = bid.getTemplateId();
+        bidBook.execute(templateId, () -> {
+            bidBook.remove(templateId, id);
+            bidBook.broadcast(templateId);
+        });
+
+        log.info("取消求购成功: buyOrderId={}, buyerId={}, refund={}", id, buyerId, refund);
+    }
+
+    @Override
+    public PageResult<BuyOrderVO> getMyBuyOrders(Integer status, Integer pageNum, Integer pageSize) {
+        Long buyerId = UserContext.getUserId();
+        if (buyerId == null) {
+            throw new BusinessException(ResultCode.UNAUTHORIZED);
+        }
+
+        if (pageNum == null || pageNum < 1) {
+            pageNum = 1;
+        }
+        if (pageSize == null || pageSize < 1) {
+            pageSize = 20;
+        }
+
+        Long total = buyOrderMapper.countByBuyer(buyerId, status);
+        if (total == 0) {
+            return PageResult.empty(pageNum, pageSize);
+        }
+
+        List<BuyOrderVO> list = buyOrderMapper.selectByBuyer(buyerId, status, (pageNum - 1) * pageSize, pageSize);
+        for (BuyOrderVO vo : list) {
+            ItemTemplate template = itemTemplateDictionary.get(vo.getTemplateId());
+            if (template != null) {
+                vo.setItemName(template.getName());
+                vo.setIconUrl(template.getIconUrl());
+            }
+        }
+        return new PageResult<>(total, list, pageNum, pageSize);
+    }
+
+    @Override
+    public List<BidLevelVO> getBidDepth(Long templateId) {
+        return await(bidBook.submit(templateId, () -> bidBook.levels(templateId, DEPTH_LEVELS)));
+    }
+
+    @Override
+    public String instantSell(Long inventoryId) {
+        Long sellerId = UserContext.getUserId();
+        if (sellerId == null) {
+            throw new BusinessException(ResultCode.UNAUTHORIZED);
+        }
+        UserInventory inventory = inventoryMapper.selectById(inventoryId);
+        if (inventory == null) {
+            throw new BusinessException(ResultCode.ERROR.getCode(), "库存不存在");
+        }
+        if (!inventory.getUserId().equals(sellerId)) {
+            throw new BusinessException(ResultCode.ERROR.getCode(), "无权操作该库存");
+        }
+        if (inventory.getStatus() != InventoryStatus.IN_STOCK) {
+            throw new BusinessException(ResultCode.ERROR.getCode(), "该饰品不在库中，无法出售");
+        }
+
+        return await(bidBook.submit(inventory.getTemplateId(), () -> sellToBestBid(inventory, sellerId)));
+    }
+
+    /**
+     * 挂单提交后变为在售时尝试与求购撮合（只处理本节点事件，其它节点的挂单由其所在节点撮合）
+     */
+    @Order(6)
+    @EventListener
+    public void onListingSync(ListingSyncEvent event) {
+        if (event.isRemote() || event.getChanges() == null) {
+            return;
+        }
+        for (ListingChange change : event.getChanges()) {
+            Long templateId = change.getTemplateId();
+            if (change.getStatus() == null || change.getStatus() != ListingStatus.ON_SALE
+                    || templateId == null || !bidBook.hasBids(templateId)) {
+                continue;
+            }
+            Long listingId = change.getListingId();
+            bidBook.execute(templateId, () -> {
+                try {
+                    matchListing(listingId, false);
+                } catch (Exception e) {
+                    log.warn("挂单撮合失败: listingId={}, error={}", listingId, e.getMessage());
+                }
+            });
+        }
+    }
+
+    /**
+     * 在售挂单与该模板最高的可成交求购撮合（分片线程内执行）
+     *
+     * @param listingResting 挂单是否先于求购挂出（是则按挂单价成交，否则按求购价成交）
+     * @return 是否成交
+     */
+    private boolean matchListing(Long listingId, boolean listingResting) {
+        MarketListing listing = marketListingMapper.selectById(listingId);
+        if (listing == null || listing.getStatus() != ListingStatus.ON_SALE) {
+            return false;
+        }
+        Long templateId = listing.getTemplateId();
+        UserInventory inventory = inventoryMapper.selectById(listing.getInventoryId());
+        BigDecimal wear = inventory == null ? null : inventory.getWearValue();
+
+        while (true) {
+            BuyOrder bid = bidBook.bestBid(templateId, listing.getSellerId(), wear, listing.getPrice());
+            if (bid == null) {
+                return false;
+            }
+            BigDecimal price = listingResting ? listing.getPrice() : bid.getPrice();
+            FillResult result = transactionTemplate.execute(status -> fillListing(bid, listing, price, status));
+            if (result == FillResult.FILLED) {
+                bidBook.consumeOne(bid);
+                bidBook.broadcast(templateId);
+                return true;
+            }
+            if (result == FillResult.LISTING_GONE) {
+                return false;
+            }
+            // 求购已在别处成交或取消，以数据库为准刷新后继续找下一个
+            bidBook.refresh(bid);
+        }
+    }
+
+    /**
+     * 新求购按价格从低到高与可成交的在售挂单撮合（分片线程内执行，挂单先挂出，按挂单价成交）
+     */
+    private void matchBid(BuyOrder bid) {
+        List<MarketListingVO> candidates = listingOrderBook.select(bid.getTemplateId(),
+                null, bid.getPrice(), bid.getMinWear(), bid.getMaxWear(), "price", "asc");
+        int scanned = 0;
+        for (MarketListingVO candidate : candidates) {
+            if (bid.getStatus() != BuyOrderStatus.OPEN || scanned++ >= MAX_MATCH_SCAN) {
+                return;
+            }
+            if (!candidate.getSellerId().equals(bid.getBuyerId())) {
+                matchListing(candidate.getId(), true);
+            }
+        }
+    }
+
+    /**
+     * 一键出售：库存直接生成已被购买的挂单并与最高可成交求购成交（分片线程内执行）
+     */
+    private String sellToBestBid(UserInventory inventory, Long sellerId) {
+        Long templateId = inventory.getTemplateId();
+        while (true) {
+            BuyOrder bid = bidBook.bestBid(templateId, sellerId, inventory.getWearValue(), null);
+            if (bid == null) {
+                throw new BusinessException(ResultCode.ERROR.getCode(), "暂无可成交的求购");
+            }
+            String orderNo = transactionTemplate.execute(status -> {
+                if (inventoryMapper.transition(inventory.getId(), InventoryTransition.LIST) == 0) {
+                    throw new BusinessException(ResultCode.ERROR.getCode(), "该饰品不在库中，无法出售");
+                }
+                if (buyOrderMapper.fillOne(bid.getId()) == 0) {
+                    status.setRollbackOnly();
+                    return null;
+                }
+
+                MarketListing listing = new MarketListing();
+                listing.setId(idGenerator.nextId());
+                listing.setSellerId(sellerId);
+                listing.setInventoryId(inventory.getId());
+                listing.setTemplateId(templateId);
+                listing.setPrice(bid.getPrice());
+                listing.setStatus(ListingStatus.PURCHASED);
+                listing.setVersion(0);
+                listing.setCreateTime(LocalDateTime.now());
+                marketListingMapper.insert(listing);
+
+                TradeOrder order = newPaidOrder(bid, bid.getPrice(), sellerId, listing.getId(), inventory.getId());
+                tradeOrderMapper.insert(order);
+                eventPublisher.publishEvent(ListingChangedEvent.of(new ListingChange(
+                        listing.getId(), templateId, ListingStatus.PURCHASED, bid.getPrice())));
+                return order.getOrderNo();
+            });
+            if (orderNo != null) {
+                bidBook.consumeOne(bid);
+                bidBook.broadcast(templateId);
+                log.info("一键出售成功: orderNo={}, sellerId={}, buyOrderId={}, price={}",
+                        orderNo, sellerId, bid.getId(), bid.getPrice());
+                return orderNo;
+            }
+            bidBook.refresh(bid);
+        }
+    }
+
+    /**
+     * 在售挂单与求购按指定价格成交的数据库步骤（在事务中执行），成交价低于求购价时退回差额
+     */
+    private FillResult fillListing(BuyOrder bid, MarketListing listing, BigDecimal price, TransactionStatus status) {
+        if (buyOrderMapper.fillOne(bid.getId()) == 0) {
+            status.setRollbackOnly();
+            return FillResult.BID_STALE;
+        }
+        if (marketListingMapper.updateStatus(listing.getId(), ListingStatus.PURCHASED, listing.getVersion()) == 0) {
+            status.setRollbackOnly();
+            return FillResult.LISTING_GONE;
+        }
+
+        TradeOrder order = newPaidOrder(bid, price, listing.getSellerId(), listing.getId(), listing.getInventoryId());
+        tradeOrderMapper.insert(order);
+        walletService.unfreezeBalance(bid.getBuyerId(), bid.getPrice().subtract(price),
+                order.getOrderNo(), "求购成交差价退回");
+        eventPublisher.publishEvent(ListingChangedEvent.of(new ListingChange(
+                listing.getId(), listing.getTemplateId(), ListingStatus.PURCHASED, price)));
+
+        log.info("求购撮合成交: orderNo={}, buyOrderId={}, listingId={}, price={}",
+                order.getOrderNo(), bid.getId(), listing.getId(), price);
+        return FillResult.FILLED;
+    }
+
+    /**
+     * 按成交价生成待发货订单（资金已在发布求购时冻结）
+     */
+    private TradeOrder newPaidOrder(BuyOrder bid, BigDecimal price, Long sellerId, Long listingId, Long inventoryId) {
+        long orderId = idGenerator.nextId();
+        LocalDateTime now = LocalDateTime.now();
+        TradeOrder order = new TradeOrder();
+        order.setId(orderId);
+        order.setOrderNo(Long.toString(orderId));
+        order.setBuyerId(bid.getBuyerId());
+        order.setSellerId(sellerId);
+        order.setListingId(listingId);
+        order.setInventoryId(inventoryId);
+        order.setTotalAmount(price);
+        order.setStatus(OrderStatus.PAID_WAIT_DELIVERY);
+        order.setCreateTime(now);
+        order.setPayTime(now);
+        return order;
+    }
+
+    /**
+     * 等待分片线程的处理结果，业务异常原样抛出
+     */
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get(SHARD_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new BusinessException(ResultCode.ERROR.getCode(), "撮合失败，请稍后重试");
+        } catch (TimeoutException e) {
+            throw new BusinessException(ResultCode.ERROR.getCode(), "撮合繁忙，请稍后在订单列表查看结果");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(ResultCode.ERROR.getCode(), "撮合被中断，请稍后重试");
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package com.buff.service.impl;
 
+import com.buff.cache.TemplateNameIndex;
+import com.buff.common.PageCursor;
 import com.buff.common.PageResult;
 import com.buff.common.ResultCode;
 import com.buff.constant.InventoryStatus;
+import com.buff.constant.WearTier;
 import com.buff.exception.BusinessException;
 import com.buff.mapper.InventoryMapper;
 import com.buff.model.dto.InventoryQueryDTO;
@@ -31,6 +34,7 @@ import java.util.Map;
 public class InventoryServiceImpl implements InventoryService {
 
     private final InventoryMapper inventoryMapper;
+    private final TemplateNameIndex templateNameIndex;
 
     @Override
     public PageResult<InventoryVO> getMyInventory(InventoryQueryDTO queryDTO) {
@@ -56,13 +60,37 @@ public class InventoryServiceImpl implements InventoryService {
         // 解析 typeSelects 为类型条件列表
         List<Map<String, String>> typeConditions = parseTypeConditions(queryDTO.getTypeSelects());
 
+        // 关键字经名称索引解析为模板ID，无命中直接返回
+        List<Long> keywordTemplateIds = templateNameIndex.resolve(queryDTO.getKeyword());
+        if (keywordTemplateIds != null && keywordTemplateIds.isEmpty()) {
+            return PageResult.empty(queryDTO.getPageNum(), queryDTO.getPageSize());
+        }
+
+        // 游标模式：seek 查询，不统计总数
+        PageCursor cursor = PageCursor.decode(queryDTO.getCursor());
+        if (cursor != null) {
+            List<InventoryVO> rows = inventoryMapper.selectInventoryListAfter(
+                    userId,
+                    queryDTO.getStatus(),
+                    typeConditions,
+                    wearRanges,
+                    queryDTO.getKeyword(),
+                    keywordTemplateIds,
+                    cursor.timeKey(),
+                    cursor.getId(),
+                    queryDTO.getPageSize() + 1
+            );
+            return PageResult.ofCursor(rows, queryDTO.getPageSize(), vo -> PageCursor.encode(vo.getGetTime(), vo.getId()));
+        }
+
         // 查询总数
         Long total = inventoryMapper.countInventory(
                 userId,
                 queryDTO.getStatus(),
                 typeConditions,
                 wearRanges,
-                queryDTO.getKeyword()
+                queryDTO.getKeyword(),
+                keywordTemplateIds
         );
 
         if (total == 0) {
@@ -76,11 +104,13 @@ public class InventoryServiceImpl implements InventoryService {
                 typeConditions,
                 wearRanges,
                 queryDTO.getKeyword(),
+                keywordTemplateIds,
                 offset,
                 queryDTO.getPageSize()
         );
 
-        return new PageResult<>(total, list, queryDTO.getPageNum(), queryDTO.getPageSize());
+        return new PageResult<>(total, list, queryDTO.getPageNum(), queryDTO.getPageSize())
+                .withCursor(vo -> PageCursor.encode(vo.getGetTime(), vo.getId()));
     }
 
     @Override
@@ -245,18 +275,11 @@ public class InventoryServiceImpl implements InventoryService {
         List<Map<String, BigDecimal>> ranges = new ArrayList<>();
         if (wears == null || wears.isBlank()) return ranges;
         for (String wear : wears.split(",")) {
-            BigDecimal[] bounds = switch (wear.trim()) {
-                case "崭新出厂" -> new BigDecimal[]{BigDecimal.ZERO, new BigDecimal("0.07")};
-                case "略有磨损" -> new BigDecimal[]{new BigDecimal("0.07"), new BigDecimal("0.15")};
-                case "久经沙场" -> new BigDecimal[]{new BigDecimal("0.15"), new BigDecimal("0.37")};
-                case "破损不堪" -> new BigDecimal[]{new BigDecimal("0.37"), new BigDecimal("0.44")};
-                case "战痕累累" -> new BigDecimal[]{new BigDecimal("0.44"), BigDecimal.ONE};
-                default -> null;
-            };
-            if (bounds != null) {
+            WearTier tier = WearTier.ofLabel(wear);
+            if (tier != null) {
                 Map<String, BigDecimal> range = new java.util.HashMap<>();
-                range.put("min", bounds[0]);
-                range.put("max", bounds[1]);
+                range.put("min", tier.getMin());
+                range.put("max", tier.getMax());
                 ranges.add(range);
             }
         }
@@ -1,28 +1,73 @@
 package com.buff.service.impl;
 
+import com.buff.cache.HotItemRanking;
+import com.buff.cache.ItemTemplateDictionary;
+import com.buff.cache.ListingDetailCache;
+import com.buff.cache.ListingOrderBook;
+import com.buff.cache.LogicalExpiryCache;
+import com.buff.cache.MarketQueryCache;
+import com.buff.cache.TemplateCatalog;
+import com.buff.cache.TemplateNameIndex;
+import com.buff.common.PageCursor;
 import com.buff.common.PageResult;
 import com.buff.common.ResultCode;
 import com.buff.constant.InventoryStatus;
+import com.buff.constant.InventoryTransition;
 import com.buff.constant.ListingStatus;
+import com.buff.constant.ListingTransition;
 import com.buff.constant.RedisKey;
+import com.buff.constant.WearTier;
+import com.buff.event.ListingChange;
+import com.buff.event.ListingChangedEvent;
 import com.buff.exception.BusinessException;
 import com.buff.mapper.InventoryMapper;
 import com.buff.mapper.MarketListingMapper;
+import com.buff.model.dto.ListingBatchCreateDTO;
+import com.buff.model.dto.ListingBatchRepriceDTO;
 import com.buff.model.dto.ListingCreateDTO;
+import com.buff.model.dto.ListingRepriceDTO;
 import com.buff.model.dto.MarketQueryDTO;
+import com.buff.model.entity.ItemTemplate;
 import com.buff.model.entity.MarketListing;
 import com.buff.model.entity.UserInventory;
+import com.buff.model.vo.CatalogItemVO;
+import com.buff.model.vo.ListingBatchResultVO;
+import com.buff.model.vo.MarketFacetVO;
 import com.buff.model.vo.MarketListingVO;
 import com.buff.service.MarketListingService;
+import com.buff.util.IdGenerator;
 import com.buff.util.RedisUtils;
 import com.buff.util.UserContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 
 /**
  * 市场挂单服务实现类
@@ -37,6 +82,52 @@ public class MarketListingServiceImpl implements MarketListingService {
     private final MarketListingMapper marketListingMapper;
     private final InventoryMapper inventoryMapper;
     private final RedisUtils redisUtils;
+    private final ListingOrderBook listingOrderBook;
+    private final TemplateNameIndex templateNameIndex;
+    private final HotItemRanking hotItemRanking;
+    private final LogicalExpiryCache logicalExpiryCache;
+    private final ListingDetailCache listingDetailCache;
+    private final ItemTemplateDictionary itemTemplateDictionary;
+    private final TemplateCatalog templateCatalog;
+    private final MarketQueryCache marketQueryCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final IdGenerator idGenerator;
+
+    /**
+     * 昂贵条件下计数的上限，超过后总数显示为 "10000+"
+     */
+    private static final int COUNT_CAP = 10000;
+
+    /**
+     * 计数缓存时长（秒）
+     */
+    private static final long COUNT_CACHE_SECONDS = 30;
+
+    /**
+     * 分面统计缓存时长（秒）
+     */
+    private static final long FACET_CACHE_SECONDS = 30;
+
+    /**
+     * 价格直方图区间边界
+     */
+    private static final List<BigDecimal> PRICE_BOUNDS = List.of(
+            new BigDecimal("10"), new BigDecimal("50"), new BigDecimal("100"),
+            new BigDecimal("500"), new BigDecimal("1000"), new BigDecimal("5000"));
+
+    /**
+     * 导出时每写出多少行刷新一次输出流
+     */
+    private static final int EXPORT_FLUSH_ROWS = 1000;
+
+    private static final String EXPORT_CSV_HEADER =
+            "id,templateId,itemName,itemType,wearValue,price,sellerId,sellerName,createTime\n";
+
+    /**
+     * 热门饰品列表逻辑过期时间（秒），与排行刷新周期一致
+     */
+    private static final long HOT_ITEMS_TTL_SECONDS = 60;
 
     @Override
     @Transactional(rollbackFor = Exception.class)
@@ -78,14 +169,15 @@ public class MarketListingServiceImpl implements MarketListingService {
             throw new BusinessException(ResultCode.ERROR.getCode(), "该饰品已上架，请勿重复操作");
         }
 
-        // 5. 更新库存状态为出售中
-        int updateCount = inventoryMapper.updateStatus(dto.getInventoryId(), InventoryStatus.ON_SALE);
+        // 5. 更新库存状态为出售中（条件更新，并发上架只有一个成功）
+        int updateCount = inventoryMapper.transition(dto.getInventoryId(), InventoryTransition.LIST);
         if (updateCount == 0) {
             throw new BusinessException(ResultCode.ERROR.getCode(), "更新库存状态失败");
         }
 
         // 6. 创建挂单
         MarketListing listing = new MarketListing();
+        listing.setId(idGenerator.nextId());
         listing.setSellerId(userId);
         listing.setInventoryId(dto.getInventoryId());
         listing.setTemplateId(inventory.getTemplateId());
@@ -95,13 +187,134 @@ public class MarketListingServiceImpl implements MarketListingService {
         listing.setCreateTime(LocalDateTime.now());
 
         marketListingMapper.insert(listing);
-        redisUtils.delete(RedisKey.HOT_ITEMS_KEY);
+        eventPublisher.publishEvent(ListingChangedEvent.of(new ListingChange(
+                listing.getId(), listing.getTemplateId(), ListingStatus.ON_SALE, listing.getPrice())));
 
         log.info("用户上架商品成功: userId={}, inventoryId={}, price={}", userId, dto.getInventoryId(), dto.getPrice());
 
         return listing.getId();
     }
 
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public ListingBatchResultVO createListings(ListingBatchCreateDTO dto) {
+        Long userId = UserContext.getUserId();
+        if (userId == null) {
+            throw new BusinessException(ResultCode.UNAUTHORIZED);
+        }
+
+        List<ListingCreateDTO> items = dto.getItems();
+        List<Long> inventoryIds = items.stream().map(ListingCreateDTO::getInventoryId).distinct().toList();
+
+        // 1. 一次 IN 查询锁定全部库存，再一次查询已存在的在售挂单
+        Map<Long, UserInventory> inventories = new HashMap<>();
+        for (UserInventory inventory : inventoryMapper.selectByIdsForUpdate(inventoryIds)) {
+            inventories.put(inventory.getId(), inventory);
+        }
+        Set<Long> alreadyListed = new HashSet<>(marketListingMapper.selectOnSaleInventoryIds(inventoryIds));
+
+        // 2. 逐项校验，不合格的记录原因，其余进入待上架列表
+        String[] failures = new String[items.size()];
+        Set<Long> seen = new HashSet<>();
+        List<MarketListing> listings = new ArrayList<>(items.size());
+        Map<Long, Integer> itemIndex = new HashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < items.size(); i++) {
+            ListingCreateDTO item = items.get(i);
+            failures[i] = validateBatchItem(userId, item.getInventoryId(),
+                    inventories.get(item.getInventoryId()), alreadyListed, seen);
+            if (failures[i] != null) {
+                continue;
+            }
+            itemIndex.put(item.getInventoryId(), i);
+            MarketListing listing = new MarketListing();
+            listing.setId(idGenerator.nextId());
+            listing.setSellerId(userId);
+            listing.setInventoryId(item.getInventoryId());
+            listing.setTemplateId(inventories.get(item.getInventoryId()).getTemplateId());
+            listing.setPrice(item.getPrice());
+            listing.setStatus(ListingStatus.ON_SALE);
+            listing.setVersion(0);
+            listing.setCreateTime(now);
+            listings.add(listing);
+        }
+
+        // 3. 条件批量更新库存状态；有行未命中时按最新状态逐项确认，未命中的单独记为失败，其余照常上架
+        if (!listings.isEmpty()) {
+            List<Long> listedIds = listings.stream().map(MarketListing::getInventoryId).toList();
+            int updated = inventoryMapper.updateStatusBatch(listedIds, InventoryStatus.IN_STOCK, InventoryStatus.ON_SALE);
+            if (updated != listedIds.size()) {
+                Set<Long> listedNow = new HashSet<>();
+                for (UserInventory inventory : inventoryMapper.selectByIdsForUpdate(listedIds)) {
+                    if (inventory.getStatus() == InventoryStatus.ON_SALE) {
+                        listedNow.add(inventory.getId());
+                    }
+                }
+                listings.removeIf(listing -> {
+                    if (listedNow.contains(listing.getInventoryId())) {
+                        return false;
+                    }
+                    failures[itemIndex.get(listing.getInventoryId())] = "该饰品不在库中，无法上架";
+                    return true;
+                });
+            }
+        }
+
+        // 4. 多行插入挂单，合并发布一个变更事件
+        if (!listings.isEmpty()) {
+            marketListingMapper.insertBatch(listings);
+
+            List<ListingChange> changes = new ArrayList<>(listings.size());
+            for (MarketListing listing : listings) {
+                changes.add(new ListingChange(listing.getId(), listing.getTemplateId(), ListingStatus.ON_SALE, listing.getPrice()));
+            }
+            eventPublisher.publishEvent(new ListingChangedEvent(changes));
+        }
+
+        // 5. 按请求顺序组装逐项结果
+        List<ListingBatchResultVO.Item> results = new ArrayList<>(items.size());
+        Iterator<MarketListing> created = listings.iterator();
+        for (int i = 0; i < items.size(); i++) {
+            Long inventoryId = items.get(i).getInventoryId();
+            if (failures[i] == null) {
+                results.add(new ListingBatchResultVO.Item(inventoryId, true, created.next().getId(), null));
+            } else {
+                results.add(new ListingBatchResultVO.Item(inventoryId, false, null, failures[i]));
+            }
+        }
+        log.info("用户批量上架商品: userId={}, requested={}, success={}", userId, items.size(), listings.size());
+        return toBatchResult(results);
+    }
+
+    /**
+     * 校验单个批量上架条目，通过返回 null，否则返回失败原因（规则与 {@link #createListing} 一致）
+     */
+    private static String validateBatchItem(Long userId, Long inventoryId, UserInventory inventory,
+                                            Set<Long> alreadyListed, Set<Long> seen) {
+        if (!seen.add(inventoryId)) {
+            return "重复的库存ID";
+        }
+        if (inventory == null) {
+            return "库存不存在";
+        }
+        if (!inventory.getUserId().equals(userId)) {
+            return "无权操作该库存";
+        }
+        if (inventory.getStatus() == InventoryStatus.ON_SALE || alreadyListed.contains(inventoryId)) {
+            return "该饰品已在出售中，请勿重复操作";
+        }
+        if (inventory.getStatus() == InventoryStatus.LOCKED) {
+            String expireStr = inventory.getLockExpireTime() != null
+                    ? inventory.getLockExpireTime().format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"))
+                    : "未知";
+            return "该饰品交易锁定中，解锁时间：" + expireStr;
+        }
+        if (inventory.getStatus() != InventoryStatus.IN_STOCK) {
+            return "该饰品不在库中，无法上架";
+        }
+        return null;
+    }
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public void cancelListing(Long id) {
@@ -126,15 +339,16 @@ public class MarketListingServiceImpl implements MarketListingService {
             throw new BusinessException(ResultCode.ERROR.getCode(), "该商品不在上架中，无法下架");
         }
 
-        // 4. 更新挂单状态为已下架
-        int updateCount = marketListingMapper.updateStatus(id, ListingStatus.OFF_SALE, listing.getVersion());
+        // 4. 更新挂单状态为已下架（条件更新，已被购买的挂单不会被下架）
+        int updateCount = marketListingMapper.transition(id, ListingTransition.TAKE_DOWN);
         if (updateCount == 0) {
-            throw new BusinessException(ResultCode.ERROR.getCode(), "下架失败，请重试");
+            throw new BusinessException(ResultCode.ERROR.getCode(), "该商品不在上架中，无法下架");
         }
 
         // 5. 恢复库存状态为在库
-        inventoryMapper.updateStatus(listing.getInventoryId(), InventoryStatus.IN_STOCK);
-        redisUtils.delete(RedisKey.HOT_ITEMS_KEY);
+        inventoryMapper.transition(listing.getInventoryId(), InventoryTransition.DELIST);
+        eventPublisher.publishEvent(ListingChangedEvent.of(new ListingChange(
+                id, listing.getTemplateId(), ListingStatus.OFF_SALE, listing.getPrice())));
 
         log.info("用户下架商品成功: userId={}, listingId={}", userId, id);
     }
@@ -158,19 +372,214 @@ public class MarketListingServiceImpl implements MarketListingService {
             throw new BusinessException(ResultCode.ERROR.getCode(), "无权操作该挂单");
         }
 
-        // 3. 更新挂单状态为已下架（带乐观锁）
-        int updateCount = marketListingMapper.updateStatus(listing.getId(), ListingStatus.OFF_SALE, listing.getVersion());
+        // 3. 更新挂单状态为已下架（条件更新）
+        int updateCount = marketListingMapper.transition(listing.getId(), ListingTransition.TAKE_DOWN);
         if (updateCount == 0) {
-            throw new BusinessException(ResultCode.ERROR.getCode(), "下架失败，请重试");
+            throw new BusinessException(ResultCode.ERROR.getCode(), "该饰品未在市场上架中");
         }
 
         // 4. 恢复库存状态为在库
-        inventoryMapper.updateStatus(inventoryId, InventoryStatus.IN_STOCK);
-        redisUtils.delete(RedisKey.HOT_ITEMS_KEY);
+        inventoryMapper.transition(inventoryId, InventoryTransition.DELIST);
+        eventPublisher.publishEvent(ListingChangedEvent.of(new ListingChange(
+                listing.getId(), listing.getTemplateId(), ListingStatus.OFF_SALE, listing.getPrice())));
 
         log.info("用户通过inventoryId下架成功: userId={}, inventoryId={}, listingId={}", userId, inventoryId, listing.getId());
     }
 
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void repriceListing(ListingRepriceDTO dto) {
+        Long userId = UserContext.getUserId();
+        if (userId == null) {
+            throw new BusinessException(ResultCode.UNAUTHORIZED);
+        }
+
+        MarketListing listing = marketListingMapper.selectById(dto.getListingId());
+        if (listing == null) {
+            throw new BusinessException(ResultCode.ERROR.getCode(), "挂单不存在");
+        }
+        String failure = validateOwnedOnSale(userId, listing);
+        if (failure != null) {
+            throw new BusinessException(ResultCode.ERROR.getCode(), failure);
+        }
+
+        listing.setPrice(dto.getPrice());
+        if (marketListingMapper.updatePriceBatch(List.of(listing)) == 0) {
+            throw new BusinessException(ResultCode.ERROR.getCode(), "改价失败，请重试");
+        }
+        eventPublisher.publishEvent(ListingChangedEvent.of(new ListingChange(
+                listing.getId(), listing.getTemplateId(), ListingStatus.ON_SALE, listing.getPrice())));
+
+        log.info("用户改价成功: userId={}, listingId={}, price={}", userId, listing.getId(), dto.getPrice());
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public ListingBatchResultVO repriceListings(ListingBatchRepriceDTO dto) {
+        Long userId = UserContext.getUserId();
+        if (userId == null) {
+            throw new BusinessException(ResultCode.UNAUTHORIZED);
+        }
+
+        List<ListingRepriceDTO> items = dto.getItems();
+        Map<Long, MarketListing> existing = new HashMap<>();
+        for (MarketListing listing : marketListingMapper.selectByIds(
+                items.stream().map(ListingRepriceDTO::getListingId).distinct().toList())) {
+            existing.put(listing.getId(), listing);
+        }
+
+        List<ListingBatchResultVO.Item> results = new ArrayList<>(items.size());
+        List<MarketListing> updates = new ArrayList<>(items.size());
+        Map<Long, ListingBatchResultVO.Item> applied = new HashMap<>();
+        Set<Long> seen = new HashSet<>();
+        for (ListingRepriceDTO item : items) {
+            MarketListing listing = existing.get(item.getListingId());
+            String failure = !seen.add(item.getListingId()) ? "重复的挂单ID"
+                    : listing == null ? "挂单不存在"
+                    : validateOwnedOnSale(userId, listing);
+            if (failure != null) {
+                results.add(new ListingBatchResultVO.Item(
+                        listing == null ? null : listing.getInventoryId(), false, item.getListingId(), failure));
+                continue;
+            }
+            listing.setPrice(item.getPrice());
+            updates.add(listing);
+            ListingBatchResultVO.Item result = new ListingBatchResultVO.Item(listing.getInventoryId(), true, listing.getId(), null);
+            applied.put(listing.getId(), result);
+            results.add(result);
+        }
+
+        // 单条 CASE 语句改价；有行版本不符说明该挂单已被并发修改，按最新状态逐项确认，未命中的单独记为失败，其余照常生效
+        if (!updates.isEmpty() && marketListingMapper.updatePriceBatch(updates) != updates.size()) {
+            updates = retainApplied(updates, ListingStatus.ON_SALE, applied);
+        }
+        if (!updates.isEmpty()) {
+            List<ListingChange> changes = new ArrayList<>(updates.size());
+            for (MarketListing listing : updates) {
+                changes.add(new ListingChange(listing.getId(), listing.getTemplateId(), ListingStatus.ON_SALE, listing.getPrice()));
+            }
+            eventPublisher.publishEvent(new ListingChangedEvent(changes));
+        }
+
+        log.info("用户批量改价: userId={}, requested={}, success={}", userId, items.size(), updates.size());
+        return toBatchResult(results);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public ListingBatchResultVO cancelListingsByInventoryIds(List<Long> inventoryIds) {
+        Long userId = UserContext.getUserId();
+        if (userId == null) {
+            throw new BusinessException(ResultCode.UNAUTHORIZED);
+        }
+
+        Map<Long, MarketListing> onSale = new HashMap<>();
+        for (MarketListing listing : marketListingMapper.selectOnSaleByInventoryIds(
+                inventoryIds.stream().distinct().toList())) {
+            onSale.put(listing.getInventoryId(), listing);
+        }
+
+        List<ListingBatchResultVO.Item> results = new ArrayList<>(inventoryIds.size());
+        List<MarketListing> cancels = new ArrayList<>(inventoryIds.size());
+        Map<Long, ListingBatchResultVO.Item> applied = new HashMap<>();
+        Set<Long> seen = new HashSet<>();
+        for (Long inventoryId : inventoryIds) {
+            MarketListing listing = onSale.get(inventoryId);
+            String failure = !seen.add(inventoryId) ? "重复的库存ID"
+                    : listing == null ? "该饰品未在市场上架中"
+                    : validateOwnedOnSale(userId, listing);
+            if (failure != null) {
+                results.add(new ListingBatchResultVO.Item(
+                        inventoryId, false, listing == null ? null : listing.getId(), failure));
+                continue;
+            }
+            cancels.add(listing);
+            ListingBatchResultVO.Item result = new ListingBatchResultVO.Item(inventoryId, true, listing.getId(), null);
+            applied.put(listing.getId(), result);
+            results.add(result);
+        }
+
+        // 与批量改价相同：被并发修改的挂单单独记为失败，其余照常下架
+        if (!cancels.isEmpty() && marketListingMapper.updateStatusBatch(cancels, ListingStatus.OFF_SALE) != cancels.size()) {
+            cancels = retainApplied(cancels, ListingStatus.OFF_SALE, applied);
+        }
+        if (!cancels.isEmpty()) {
+            // 已下架挂单的库存应全部处于出售中；未命中的行只允许是已回到库中，否则库存与挂单状态不一致，整批回滚
+            List<Long> cancelledInventoryIds = cancels.stream().map(MarketListing::getInventoryId).toList();
+            int restored = inventoryMapper.updateStatusBatch(cancelledInventoryIds, InventoryStatus.ON_SALE, InventoryStatus.IN_STOCK);
+            if (restored != cancelledInventoryIds.size()) {
+                for (UserInventory inventory : inventoryMapper.selectByIdsForUpdate(cancelledInventoryIds)) {
+                    if (inventory.getStatus() != InventoryStatus.IN_STOCK) {
+                        log.error("批量下架库存状态异常: inventoryId={}, status={}", inventory.getId(), inventory.getStatus());
+                        throw new BusinessException(ResultCode.ERROR.getCode(), "库存状态异常，请刷新后重试");
+                    }
+                }
+            }
+
+            List<ListingChange> changes = new ArrayList<>(cancels.size());
+            for (MarketListing listing : cancels) {
+                changes.add(new ListingChange(listing.getId(), listing.getTemplateId(), ListingStatus.OFF_SALE, listing.getPrice()));
+            }
+            eventPublisher.publishEvent(new ListingChangedEvent(changes));
+        }
+
+        log.info("用户批量下架: userId={}, requested={}, success={}", userId, inventoryIds.size(), cancels.size());
+        return toBatchResult(results);
+    }
+
+    /**
+     * 批量条件更新未全部命中时重新读取挂单，返回本次实际更新成功的挂单，其余对应的结果项改为失败。
+     * 本事务更新过的行版本号恰好比读取时大 1 且状态为目标状态；被并发修改的行不满足。
+     */
+    private List<MarketListing> retainApplied(List<MarketListing> attempted, int expectedStatus,
+                                              Map<Long, ListingBatchResultVO.Item> results) {
+        Map<Long, MarketListing> current = new HashMap<>();
+        for (MarketListing listing : marketListingMapper.selectByIds(
+                attempted.stream().map(MarketListing::getId).toList())) {
+            current.put(listing.getId(), listing);
+        }
+        List<MarketListing> retained = new ArrayList<>(attempted.size());
+        for (MarketListing listing : attempted) {
+            MarketListing latest = current.get(listing.getId());
+            if (latest != null && latest.getStatus() == expectedStatus
+                    && latest.getVersion() == listing.getVersion() + 1) {
+                retained.add(listing);
+                continue;
+            }
+            ListingBatchResultVO.Item result = results.get(listing.getId());
+            result.setSuccess(false);
+            result.setMessage("挂单已发生变化，请刷新后重试");
+        }
+        return retained;
+    }
+
+    /**
+     * 校验挂单属于当前用户且在售，通过返回 null，否则返回失败原因
+     */
+    private static String validateOwnedOnSale(Long userId, MarketListing listing) {
+        if (!listing.getSellerId().equals(userId)) {
+            return "无权操作该挂单";
+        }
+        if (listing.getStatus() != ListingStatus.ON_SALE) {
+            return "该商品不在上架中";
+        }
+        return null;
+    }
+
+    private static ListingBatchResultVO toBatchResult(List<ListingBatchResultVO.Item> items) {
+        int success = 0;
+        for (ListingBatchResultVO.Item item : items) {
+            if (Boolean.TRUE.equals(item.getSuccess())) {
+                success++;
+            }
+        }
+        ListingBatchResultVO result = new ListingBatchResultVO();
+        result.setSuccessCount(success);
+        result.setFailureCount(items.size() - success);
+        result.setItems(items);
+        return result;
+    }
+
     @Override
     public PageResult<MarketListingVO> getMarketListings(MarketQueryDTO queryDTO) {
         // 参数校验
@@ -183,36 +592,375 @@ public class MarketListingServiceImpl implements MarketListingService {
 
         // 计算偏移量
         int offset = (queryDTO.getPageNum() - 1) * queryDTO.getPageSize();
+        PageCursor cursor = PageCursor.decode(queryDTO.getCursor());
 
-        // 查询总数
-        Long total = marketListingMapper.countMarketListings(
+        // 关键字经名称索引解析为模板ID（null 表示索引不可用，回退 LIKE），无命中直接返回
+        List<Long> keywordTemplateIds = templateNameIndex.resolve(queryDTO.getKeyword());
+        if (keywordTemplateIds != null && (keywordTemplateIds.isEmpty()
+                || (queryDTO.getTemplateId() != null && !keywordTemplateIds.contains(queryDTO.getTemplateId())))) {
+            return PageResult.empty(queryDTO.getPageNum(), queryDTO.getPageSize());
+        }
+
+        // 指定模板且关键字已满足时直接由进程内订单簿应答
+        if (canServeFromOrderBook(queryDTO, keywordTemplateIds)) {
+            return queryOrderBook(queryDTO, offset, cursor);
+        }
+
+        // 游标模式：seek 查询，不统计总数
+        if (cursor != null) {
+            boolean byTime = "createTime".equals(queryDTO.getSortField());
+            List<MarketListingVO> rows = marketListingMapper.selectMarketListingsAfter(
+                    queryDTO.getKeyword(),
+                    keywordTemplateIds,
+                    queryDTO.getTemplateId(),
+                    queryDTO.getMinPrice(),
+                    queryDTO.getMaxPrice(),
+                    queryDTO.getMinWear(),
+                    queryDTO.getMaxWear(),
+                    queryDTO.getSortField(),
+                    queryDTO.getSortOrder(),
+                    byTime ? null : cursor.decimalKey(),
+                    byTime ? cursor.timeKey() : null,
+                    cursor.getId(),
+                    queryDTO.getPageSize() + 1
+            );
+            return PageResult.ofCursor(rows, queryDTO.getPageSize(), listingCursorOf(queryDTO.getSortField()));
+        }
+
+        // 第一页结果按规范化查询条件缓存，挂单变更时只失效受影响模板的结果
+        boolean cacheable = queryDTO.getPageNum() == 1;
+        if (cacheable) {
+            PageResult<MarketListingVO> cached = marketQueryCache.get(queryDTO);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        // 查询总数（廉价条件取订单簿计数，昂贵条件封顶计数并短期缓存）
+        ListingTotal total = countMarketListings(queryDTO, keywordTemplateIds);
+
+        if (total.count() == 0) {
+            PageResult<MarketListingVO> empty = PageResult.empty(queryDTO.getPageNum(), queryDTO.getPageSize());
+            if (cacheable) {
+                marketQueryCache.put(queryDTO, keywordTemplateIds, empty);
+            }
+            return empty;
+        }
+
+        // 查询列表
+        List<MarketListingVO> list = marketListingMapper.selectMarketListings(
                 queryDTO.getKeyword(),
+                keywordTemplateIds,
                 queryDTO.getTemplateId(),
                 queryDTO.getMinPrice(),
                 queryDTO.getMaxPrice(),
                 queryDTO.getMinWear(),
-                queryDTO.getMaxWear()
+                queryDTO.getMaxWear(),
+                queryDTO.getSortField(),
+                queryDTO.getSortOrder(),
+                offset,
+                queryDTO.getPageSize()
         );
 
-        if (total == 0) {
-            return PageResult.empty(queryDTO.getPageNum(), queryDTO.getPageSize());
+        PageResult<MarketListingVO> result = new PageResult<>(
+                total.count(), list, queryDTO.getPageNum(), queryDTO.getPageSize(), total.exact())
+                .withCursor(listingCursorOf(queryDTO.getSortField()));
+        if (cacheable) {
+            marketQueryCache.put(queryDTO, keywordTemplateIds, result);
         }
+        return result;
+    }
 
-        // 查询列表
-        List<MarketListingVO> list = marketListingMapper.selectMarketListings(
+    @Override
+    public MarketFacetVO getMarketFacets(MarketQueryDTO queryDTO) {
+        List<Long> keywordTemplateIds = templateNameIndex.resolve(queryDTO.getKeyword());
+        if (keywordTemplateIds != null && (keywordTemplateIds.isEmpty()
+                || (queryDTO.getTemplateId() != null && !keywordTemplateIds.contains(queryDTO.getTemplateId())))) {
+            return buildFacets(List.of());
+        }
+
+        String key = RedisKey.getMarketFacetKey(normalizeCountQuery(queryDTO));
+        try {
+            Object cached = redisUtils.get(key);
+            if (cached instanceof MarketFacetVO facets) {
+                return facets;
+            }
+        } catch (Exception e) {
+            log.warn("读取市场分面缓存失败: {}", e.getMessage());
+        }
+
+        List<Map<String, Object>> rows = marketListingMapper.selectMarketFacets(
                 queryDTO.getKeyword(),
+                keywordTemplateIds,
+                queryDTO.getTemplateId(),
+                queryDTO.getMinPrice(),
+                queryDTO.getMaxPrice(),
+                queryDTO.getMinWear(),
+                queryDTO.getMaxWear(),
+                List.of(WearTier.values()),
+                PRICE_BOUNDS
+        );
+        MarketFacetVO facets = buildFacets(rows);
+        try {
+            redisUtils.set(key, facets, FACET_CACHE_SECONDS);
+        } catch (Exception e) {
+            log.warn("写入市场分面缓存失败: {}", e.getMessage());
+        }
+        return facets;
+    }
+
+    /**
+     * 将 (模板, 外观, 价格区间) 分组计数汇总为各维度分面，类型与稀有度取自模板字典
+     */
+    private MarketFacetVO buildFacets(List<Map<String, Object>> rows) {
+        Map<String, Long> wearCounts = new LinkedHashMap<>();
+        for (WearTier tier : WearTier.values()) {
+            wearCounts.put(tier.getLabel(), 0L);
+        }
+        Map<String, Long> typeCounts = new HashMap<>();
+        Map<String, Long> rarityCounts = new HashMap<>();
+        long[] bands = new long[PRICE_BOUNDS.size() + 1];
+        long total = 0;
+
+        for (Map<String, Object> row : rows) {
+            long count = toLong(row.get("count"));
+            total += count;
+
+            Object wearTier = row.get("wearTier");
+            if (wearTier != null) {
+                wearCounts.merge(wearTier.toString(), count, Long::sum);
+            }
+            Object band = row.get("priceBand");
+            if (band != null) {
+                int index = (int) toLong(band);
+                if (index >= 0 && index < bands.length) {
+                    bands[index] += count;
+                }
+            }
+            Object templateId = row.get("templateId");
+            ItemTemplate template = templateId == null ? null : itemTemplateDictionary.get(toLong(templateId));
+            if (template != null) {
+                if (template.getType() != null) {
+                    typeCounts.merge(template.getType(), count, Long::sum);
+                }
+                if (template.getRarity() != null) {
+                    rarityCounts.merge(template.getRarity(), count, Long::sum);
+                }
+            }
+        }
+
+        List<MarketFacetVO.PriceBucket> histogram = new ArrayList<>(bands.length);
+        for (int i = 0; i < bands.length; i++) {
+            BigDecimal lower = i == 0 ? BigDecimal.ZERO : PRICE_BOUNDS.get(i - 1);
+            BigDecimal upper = i < PRICE_BOUNDS.size() ? PRICE_BOUNDS.get(i) : null;
+            histogram.add(new MarketFacetVO.PriceBucket(lower, upper, bands[i]));
+        }
+
+        MarketFacetVO facets = new MarketFacetVO();
+        facets.setTotal(total);
+        facets.setWearCounts(wearCounts);
+        facets.setTypeCounts(typeCounts);
+        facets.setRarityCounts(rarityCounts);
+        facets.setPriceHistogram(histogram);
+        return facets;
+    }
+
+    private static long toLong(Object value) {
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        return Long.parseLong(value.toString());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportMarketListings(MarketQueryDTO queryDTO, boolean csv, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (csv) {
+            writer.write(EXPORT_CSV_HEADER);
+        }
+
+        List<Long> keywordTemplateIds = templateNameIndex.resolve(queryDTO.getKeyword());
+        if (keywordTemplateIds != null && keywordTemplateIds.isEmpty()) {
+            writer.flush();
+            return 0;
+        }
+
+        long rows = 0;
+        try (Cursor<MarketListingVO> cursor = marketListingMapper.streamMarketListings(
+                queryDTO.getKeyword(),
+                keywordTemplateIds,
+                queryDTO.getTemplateId(),
+                queryDTO.getMinPrice(),
+                queryDTO.getMaxPrice(),
+                queryDTO.getMinWear(),
+                queryDTO.getMaxWear())) {
+            for (MarketListingVO listing : cursor) {
+                if (csv) {
+                    writeCsvRow(writer, listing);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(listing));
+                    writer.write('\n');
+                }
+                if (++rows % EXPORT_FLUSH_ROWS == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+        log.info("导出市场在售商品: format={}, rows={}", csv ? "csv" : "ndjson", rows);
+        return rows;
+    }
+
+    private static void writeCsvRow(Writer writer, MarketListingVO listing) throws IOException {
+        writer.write(String.join(",",
+                Objects.toString(listing.getId(), ""),
+                Objects.toString(listing.getTemplateId(), ""),
+                csvField(listing.getItemName()),
+                csvField(listing.getItemType()),
+                listing.getWearValue() == null ? "" : listing.getWearValue().toPlainString(),
+                listing.getPrice() == null ? "" : listing.getPrice().toPlainString(),
+                Objects.toString(listing.getSellerId(), ""),
+                csvField(listing.getSellerName()),
+                Objects.toString(listing.getCreateTime(), "")));
+        writer.write('\n');
+    }
+
+    /**
+     * CSV 字段转义：含逗号、引号或换行时整体加引号，内部引号加倍
+     */
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * 市场搜索总数
+     * <p>
+     * 无磨损条件且关键字为空或已由名称索引解析时，由订单簿按价格区间二分计数，结果精确；
+     * 其余条件最多数到 {@link #COUNT_CAP} + 1 条，超过即返回封顶值并标记为非精确，
+     * 计数结果按归一化查询条件缓存 {@link #COUNT_CACHE_SECONDS} 秒。
+     */
+    private ListingTotal countMarketListings(MarketQueryDTO queryDTO, List<Long> keywordTemplateIds) {
+        if (listingOrderBook.isReady()
+                && (StringUtils.isBlank(queryDTO.getKeyword()) || keywordTemplateIds != null)
+                && queryDTO.getMinWear() == null
+                && queryDTO.getMaxWear() == null) {
+            long count = listingOrderBook.onSaleCount(
+                    keywordTemplateIds, queryDTO.getMinPrice(), queryDTO.getMaxPrice());
+            return new ListingTotal(count, true);
+        }
+
+        String key = RedisKey.getMarketCountKey(normalizeCountQuery(queryDTO));
+        Long count = null;
+        try {
+            Object cached = redisUtils.get(key);
+            if (cached instanceof Number number) {
+                count = number.longValue();
+            }
+        } catch (Exception e) {
+            log.warn("读取市场计数缓存失败: {}", e.getMessage());
+        }
+
+        if (count == null) {
+            count = marketListingMapper.countMarketListingsCapped(
+                    queryDTO.getKeyword(),
+                    keywordTemplateIds,
+                    queryDTO.getTemplateId(),
+                    queryDTO.getMinPrice(),
+                    queryDTO.getMaxPrice(),
+                    queryDTO.getMinWear(),
+                    queryDTO.getMaxWear(),
+                    COUNT_CAP + 1
+            );
+            try {
+                redisUtils.set(key, count, COUNT_CACHE_SECONDS);
+            } catch (Exception e) {
+                log.warn("写入市场计数缓存失败: {}", e.getMessage());
+            }
+        }
+
+        return count > COUNT_CAP ? new ListingTotal(COUNT_CAP, false) : new ListingTotal(count, true);
+    }
+
+    /**
+     * 归一化影响总数的查询条件（忽略排序与分页），返回其摘要作为缓存Key
+     */
+    private static String normalizeCountQuery(MarketQueryDTO queryDTO) {
+        String keyword = StringUtils.isBlank(queryDTO.getKeyword())
+                ? "" : queryDTO.getKeyword().trim().toLowerCase(Locale.ROOT);
+        String normalized = String.join("|",
+                keyword,
+                Objects.toString(queryDTO.getTemplateId(), ""),
+                plain(queryDTO.getMinPrice()),
+                plain(queryDTO.getMaxPrice()),
+                plain(queryDTO.getMinWear()),
+                plain(queryDTO.getMaxWear()));
+        return DigestUtils.md5DigestAsHex(normalized.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String plain(BigDecimal value) {
+        return value == null ? "" : value.stripTrailingZeros().toPlainString();
+    }
+
+    /**
+     * 总数及其是否精确
+     */
+    private record ListingTotal(long count, boolean exact) {
+    }
+
+    /**
+     * 订单簿已就绪、指定了模板且没有关键字条件（或关键字已由名称索引判定命中该模板）时，可完全在内存中应答
+     */
+    private boolean canServeFromOrderBook(MarketQueryDTO queryDTO, List<Long> keywordTemplateIds) {
+        return listingOrderBook.isReady()
+                && queryDTO.getTemplateId() != null
+                && (StringUtils.isBlank(queryDTO.getKeyword()) || keywordTemplateIds != null);
+    }
+
+    private PageResult<MarketListingVO> queryOrderBook(MarketQueryDTO queryDTO, int offset, PageCursor cursor) {
+        List<MarketListingVO> matched = listingOrderBook.select(
                 queryDTO.getTemplateId(),
                 queryDTO.getMinPrice(),
                 queryDTO.getMaxPrice(),
                 queryDTO.getMinWear(),
                 queryDTO.getMaxWear(),
                 queryDTO.getSortField(),
-                queryDTO.getSortOrder(),
-                offset,
-                queryDTO.getPageSize()
+                queryDTO.getSortOrder()
         );
 
-        return new PageResult<>(total, list, queryDTO.getPageNum(), queryDTO.getPageSize());
+        if (cursor != null) {
+            int fromIndex = ListingOrderBook.indexAfter(
+                    matched, queryDTO.getSortField(), queryDTO.getSortOrder(), cursor);
+            int toIndex = Math.min(fromIndex + queryDTO.getPageSize() + 1, matched.size());
+            return PageResult.ofCursor(List.copyOf(matched.subList(fromIndex, toIndex)),
+                    queryDTO.getPageSize(), listingCursorOf(queryDTO.getSortField()));
+        }
+
+        if (matched.isEmpty()) {
+            return PageResult.empty(queryDTO.getPageNum(), queryDTO.getPageSize());
+        }
+
+        int fromIndex = Math.min(offset, matched.size());
+        int toIndex = Math.min(offset + queryDTO.getPageSize(), matched.size());
+        List<MarketListingVO> list = List.copyOf(matched.subList(fromIndex, toIndex));
+        return new PageResult<>((long) matched.size(), list, queryDTO.getPageNum(), queryDTO.getPageSize())
+                .withCursor(listingCursorOf(queryDTO.getSortField()));
+    }
+
+    /**
+     * 市场列表游标：按当前排序字段取 (排序键, ID)
+     */
+    private static Function<MarketListingVO, String> listingCursorOf(String sortField) {
+        if ("createTime".equals(sortField)) {
+            return vo -> PageCursor.encode(vo.getCreateTime(), vo.getId());
+        }
+        return vo -> PageCursor.encode(vo.getPrice(), vo.getId());
     }
 
     @Override
@@ -221,16 +969,17 @@ public class MarketListingServiceImpl implements MarketListingService {
             throw new BusinessException(ResultCode.PARAM_ERROR);
         }
 
-        MarketListingVO listingVO = marketListingMapper.selectListingDetailById(id);
+        MarketListingVO listingVO = listingDetailCache.get(id, marketListingMapper::selectListingDetailById);
         if (listingVO == null) {
             throw new BusinessException(ResultCode.ERROR.getCode(), "挂单不存在");
         }
+        hotItemRanking.recordView(listingVO.getTemplateId());
 
         return listingVO;
     }
 
     @Override
-    public PageResult<MarketListingVO> getMyListings(Integer status, Integer pageNum, Integer pageSize) {
+    public PageResult<MarketListingVO> getMyListings(Integer status, Integer pageNum, Integer pageSize, String cursor) {
         Long userId = UserContext.getUserId();
         if (userId == null) {
             throw new BusinessException(ResultCode.UNAUTHORIZED);
@@ -244,6 +993,14 @@ public class MarketListingServiceImpl implements MarketListingService {
             pageSize = 20;
         }
 
+        // 游标模式
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        if (pageCursor != null) {
+            List<MarketListingVO> rows = marketListingMapper.selectMyListingsAfter(
+                    userId, status, pageCursor.timeKey(), pageCursor.getId(), pageSize + 1);
+            return PageResult.ofCursor(rows, pageSize, vo -> PageCursor.encode(vo.getCreateTime(), vo.getId()));
+        }
+
         // 计算偏移量
         int offset = (pageNum - 1) * pageSize;
 
@@ -257,7 +1014,8 @@ public class MarketListingServiceImpl implements MarketListingService {
         // 查询列表
         List<MarketListingVO> list = marketListingMapper.selectMyListings(userId, status, offset, pageSize);
 
-        return new PageResult<>(total, list, pageNum, pageSize);
+        return new PageResult<>(total, list, pageNum, pageSize)
+                .withCursor(vo -> PageCursor.encode(vo.getCreateTime(), vo.getId()));
     }
 
     @Override
@@ -270,22 +1028,16 @@ public class MarketListingServiceImpl implements MarketListingService {
             pageSize = 10;
         }
 
-        // 尝试从Redis获取热门饰品列表
-        @SuppressWarnings("unchecked")
-        List<MarketListingVO> cachedList = (List<MarketListingVO>) redisUtils.get(RedisKey.HOT_ITEMS_KEY);
-        
-        if (cachedList == null || cachedList.isEmpty()) {
-            // 缓存不存在，刷新缓存
-            refreshHotItems();
-            cachedList = (List<MarketListingVO>) redisUtils.get(RedisKey.HOT_ITEMS_KEY);
-        }
+        // 逻辑过期缓存：过期后仍返回旧列表，由单个节点在后台刷新
+        List<MarketListingVO> hotItems = logicalExpiryCache.get(
+                "hotItems", RedisKey.HOT_ITEMS_VIEW_KEY, HOT_ITEMS_TTL_SECONDS, this::loadHotItems);
 
-        if (cachedList == null || cachedList.isEmpty()) {
+        if (hotItems == null || hotItems.isEmpty()) {
             return PageResult.empty(pageNum, pageSize);
         }
 
         // 计算分页
-        int total = cachedList.size();
+        int total = hotItems.size();
         int fromIndex = (pageNum - 1) * pageSize;
         int toIndex = Math.min(fromIndex + pageSize, total);
 
@@ -293,27 +1045,85 @@ public class MarketListingServiceImpl implements MarketListingService {
             return PageResult.empty(pageNum, pageSize);
         }
 
-        List<MarketListingVO> pageList = cachedList.subList(fromIndex, toIndex);
+        List<MarketListingVO> pageList = List.copyOf(hotItems.subList(fromIndex, toIndex));
         return new PageResult<>((long) total, pageList, pageNum, pageSize);
     }
 
+    @Override
+    public PageResult<CatalogItemVO> getCatalog(String sortField, String sortOrder, Integer pageNum, Integer pageSize) {
+        if (pageNum == null || pageNum < 1) {
+            pageNum = 1;
+        }
+        if (pageSize == null || pageSize < 1) {
+            pageSize = 20;
+        }
+
+        long total;
+        List<Long> templateIds;
+        try {
+            total = templateCatalog.size(sortField);
+            if (total == 0) {
+                return PageResult.empty(pageNum, pageSize);
+            }
+            templateIds = templateCatalog.page(sortField, "desc".equals(sortOrder),
+                    (long) (pageNum - 1) * pageSize, pageSize);
+        } catch (Exception e) {
+            log.error("读取模板目录失败", e);
+            throw new BusinessException(ResultCode.ERROR.getCode(), "目录暂不可用，请稍后重试");
+        }
+
+        // 排序取自 Redis 目录，展示值取本节点订单簿与模板字典的最新值
+        List<CatalogItemVO> list = new ArrayList<>(templateIds.size());
+        for (Long templateId : templateIds) {
+            CatalogItemVO vo = new CatalogItemVO();
+            vo.setTemplateId(templateId);
+            vo.setFloorPrice(listingOrderBook.floorPrice(templateId));
+            vo.setOnSaleCount(listingOrderBook.onSaleCount(templateId));
+            ItemTemplate template = itemTemplateDictionary.get(templateId);
+            if (template != null) {
+                vo.setName(template.getName());
+                vo.setType(template.getType());
+                vo.setRarity(template.getRarity());
+                vo.setIconUrl(template.getIconUrl());
+                vo.setRefPrice(template.getRefPrice());
+                if (vo.getFloorPrice() != null && template.getRefPrice() != null && template.getRefPrice().signum() > 0) {
+                    vo.setPriceRatio(vo.getFloorPrice().divide(template.getRefPrice(), 4, RoundingMode.HALF_UP));
+                }
+            }
+            list.add(vo);
+        }
+        return new PageResult<>(total, list, pageNum, pageSize);
+    }
+
     @Override
     public void refreshHotItems() {
-        log.info("开始刷新热门饰品缓存");
-        
-        // 查询最新上架的10个商品作为热门饰品
-        List<MarketListingVO> hotItems = marketListingMapper.selectMarketListings(
-                null, null, null, null, null, null,
-                "createTime", "desc", 0, 10
-        );
+        log.info("开始刷新热门饰品排行");
+        hotItemRanking.flushAndRank();
+        logicalExpiryCache.evict(RedisKey.HOT_ITEMS_VIEW_KEY);
+        log.info("热门饰品排行刷新完成，共{}个模板", hotItemRanking.ranking().size());
+    }
+
+    /**
+     * 按热度排行取各模板当前最低价的在售挂单
+     */
+    private List<MarketListingVO> loadHotItems() {
+        List<MarketListingVO> hotItems = new ArrayList<>();
+        if (listingOrderBook.isReady()) {
+            for (Long templateId : hotItemRanking.ranking()) {
+                MarketListingVO floor = listingOrderBook.floorListing(templateId);
+                if (floor != null) {
+                    hotItems.add(floor);
+                }
+            }
+        }
 
-        if (hotItems != null && !hotItems.isEmpty()) {
-            // 存入Redis，设置1小时过期
-            redisUtils.set(RedisKey.HOT_ITEMS_KEY, hotItems, 3600);
-            log.info("热门饰品缓存刷新成功，共{}个商品", hotItems.size());
-        } else {
-            redisUtils.delete(RedisKey.HOT_ITEMS_KEY);
-            log.warn("未查询到热门饰品数据");
+        // 尚无热度数据（冷启动）时退化为最新上架的商品
+        if (hotItems.isEmpty()) {
+            hotItems = marketListingMapper.selectMarketListings(
+                    null, null, null, null, null, null, null,
+                    "createTime", "desc", 0, 10
+            );
         }
+        return hotItems;
     }
 }
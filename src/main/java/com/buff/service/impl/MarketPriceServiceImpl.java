@@ -1,5 +1,6 @@
 package com.buff.service.impl;
 
+import com.buff.cache.ItemTemplateDictionary;
 import com.buff.mapper.ItemTemplateMapper;
 import com.buff.model.entity.ItemTemplate;
 import com.buff.service.MarketPriceService;
@@ -13,11 +14,13 @@ import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * 市场价格服务实现类
  * <p>
  * 合并 item_market_price 表后，直接操作 item_template 的 ref_price 字段。
+ * 价格读取优先走进程内模板字典，字典未加载时回退数据库。
  *
  * @author Administrator
  */
@@ -27,13 +30,16 @@ import java.util.Map;
 public class MarketPriceServiceImpl implements MarketPriceService {
 
     private final ItemTemplateMapper itemTemplateMapper;
+    private final ItemTemplateDictionary itemTemplateDictionary;
 
     @Override
     public BigDecimal getPriceByTemplateId(Long templateId) {
         if (templateId == null) {
             return BigDecimal.ZERO;
         }
-        ItemTemplate template = itemTemplateMapper.selectById(templateId);
+        ItemTemplate template = itemTemplateDictionary.isLoaded()
+                ? itemTemplateDictionary.getActive(templateId)
+                : itemTemplateMapper.selectById(templateId);
         return (template != null && template.getRefPrice() != null)
                 ? template.getRefPrice() : BigDecimal.ZERO;
     }
@@ -43,7 +49,9 @@ public class MarketPriceServiceImpl implements MarketPriceService {
         if (templateIds == null || templateIds.isEmpty()) {
             return new HashMap<>();
         }
-        List<ItemTemplate> templates = itemTemplateMapper.selectByIds(templateIds);
+        List<ItemTemplate> templates = itemTemplateDictionary.isLoaded()
+                ? templateIds.stream().map(itemTemplateDictionary::getActive).filter(Objects::nonNull).toList()
+                : itemTemplateMapper.selectByIds(templateIds);
         Map<Long, BigDecimal> result = new HashMap<>();
         for (ItemTemplate t : templates) {
             if (t.getRefPrice() != null) {
@@ -0,0 +1,91 @@
+package com.buff.service.impl;
+
+import com.buff.common.ResultCode;
+import com.buff.constant.CandlePeriod;
+import com.buff.exception.BusinessException;
+import com.buff.mapper.PriceCandleMapper;
+import com.buff.model.vo.PriceCandleVO;
+import com.buff.service.PriceCandleService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 成交价K线服务实现类
+ * <p>
+ * 每笔成交在写入时即合并进 1h / 1d 两个粒度的K线行，图表查询只读取预聚合结果，不扫描 trade_order。
+ * 1h K线只保留 {@link #HOURLY_RETENTION_DAYS} 天，更早的历史由 1d K线承载。
+ *
+ * @author Administrator
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PriceCandleServiceImpl implements PriceCandleService {
+
+    /**
+     * 小时K线保留天数
+     */
+    private static final int HOURLY_RETENTION_DAYS = 90;
+
+    /**
+     * 单次查询的最大条数
+     */
+    private static final int MAX_LIMIT = 500;
+
+    /**
+     * 单次清理删除的行数上限（与 Mapper 中的 LIMIT 一致）
+     */
+    private static final int PURGE_BATCH = 10000;
+
+    private final PriceCandleMapper priceCandleMapper;
+
+    @Override
+    public void recordTrade(Long templateId, BigDecimal price, LocalDateTime tradeTime) {
+        if (templateId == null || price == null) {
+            return;
+        }
+        Map<String, LocalDateTime> buckets = new LinkedHashMap<>();
+        for (CandlePeriod period : CandlePeriod.values()) {
+            buckets.put(period.getCode(), period.bucketStart(tradeTime));
+        }
+        priceCandleMapper.upsertTrade(templateId, buckets, price, tradeTime);
+    }
+
+    @Override
+    public List<PriceCandleVO> getCandles(Long templateId, String period, Integer limit) {
+        if (templateId == null) {
+            throw new BusinessException(ResultCode.PARAM_ERROR);
+        }
+        CandlePeriod candlePeriod = CandlePeriod.ofCode(period);
+        if (candlePeriod == null) {
+            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "K线粒度仅支持 1h 或 1d");
+        }
+        if (limit == null || limit < 1) {
+            limit = candlePeriod == CandlePeriod.HOUR ? 168 : 90;
+        }
+        List<PriceCandleVO> candles = priceCandleMapper.selectRecent(templateId, candlePeriod.getCode(),
+                Math.min(limit, MAX_LIMIT));
+        Collections.reverse(candles);
+        return candles;
+    }
+
+    @Override
+    public int purgeExpiredHourly() {
+        LocalDateTime before = CandlePeriod.HOUR.bucketStart(LocalDateTime.now()).minusDays(HOURLY_RETENTION_DAYS);
+        int total = 0;
+        int deleted;
+        do {
+            deleted = priceCandleMapper.deleteBefore(CandlePeriod.HOUR.getCode(), before);
+            total += deleted;
+        } while (deleted >= PURGE_BATCH);
+        return total;
+    }
+}
@@ -1,35 +1,57 @@
 package com.buff.service.impl;
 
+import com.buff.cache.ListingReservation;
+import com.buff.common.PageCursor;
 import com.buff.common.PageResult;
 import com.buff.common.ResultCode;
 import com.buff.constant.ListingStatus;
+import com.buff.constant.ListingTransition;
 import com.buff.constant.OrderStatus;
+import com.buff.constant.OrderTransition;
+import com.buff.constant.RedisKey;
 import com.buff.constant.WalletLogType;
+import com.buff.event.ListingChange;
+import com.buff.event.ListingChangedEvent;
 import com.buff.exception.BusinessException;
 import com.buff.mapper.InventoryMapper;
 import com.buff.mapper.MarketListingMapper;
 import com.buff.mapper.TradeOrderMapper;
 import com.buff.mapper.UserMapper;
+import com.buff.model.dto.CartCheckoutDTO;
 import com.buff.model.dto.OrderCreateDTO;
+import com.buff.model.dto.WalletLogDraft;
 import com.buff.model.entity.MarketListing;
 import com.buff.model.entity.TradeOrder;
 import com.buff.model.entity.User;
+import com.buff.model.entity.WalletLog;
+import com.buff.model.vo.CartCheckoutResultVO;
+import com.buff.model.vo.OrderPlaceResultVO;
 import com.buff.model.vo.OrderVO;
 import com.buff.mq.config.RabbitMQConfig;
 import com.buff.mq.message.OrderConfirmedMessage;
+import com.buff.mq.message.OrderPlaceMessage;
+import com.buff.mq.message.OrderTimeoutMessage;
 import com.buff.service.TradeOrderService;
 import com.buff.service.WalletService;
+import com.buff.util.IdGenerator;
 import com.buff.util.UserContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 交易订单服务实现类
@@ -41,21 +63,408 @@ import java.util.Random;
 @RequiredArgsConstructor
 public class TradeOrderServiceImpl implements TradeOrderService {
 
+    /**
+     * 异步下单的挂单预占有效期（毫秒），覆盖请求在分区队列中的排队时间
+     */
+    private static final long PLACE_RESERVE_TTL_MILLIS = 60_000;
+
+    /**
+     * 异步下单结果保留时间（分钟）
+     */
+    private static final long PLACE_RESULT_TTL_MINUTES = 30;
+
+    /**
+     * 异步下单遇到数据库超时、连接池耗尽等临时故障时的最大尝试次数
+     */
+    private static final int PLACE_MAX_ATTEMPTS = 3;
+
+    /**
+     * 异步下单重试的退避基数（毫秒），第 n 次重试前等待 n 倍
+     */
+    private static final long PLACE_RETRY_BACKOFF_MILLIS = 500;
+
     private final TradeOrderMapper tradeOrderMapper;
     private final MarketListingMapper marketListingMapper;
     private final InventoryMapper inventoryMapper;
     private final UserMapper userMapper;
     private final WalletService walletService;
     private final RabbitTemplate rabbitTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ListingReservation listingReservation;
+    private final TransactionTemplate transactionTemplate;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final IdGenerator idGenerator;
 
     @Override
-    @Transactional(rollbackFor = Exception.class)
     public String createOrder(OrderCreateDTO dto) {
         Long buyerId = UserContext.getUserId();
         if (buyerId == null) {
             throw new BusinessException(ResultCode.UNAUTHORIZED);
         }
 
+        // 先在 Redis 上原子预占挂单，抢不到的请求不进入数据库事务
+        if (!listingReservation.tryReserve(dto.getListingId(), buyerId)) {
+            throw new BusinessException(ResultCode.ERROR.getCode(), "商品已被他人购买，请选择其他商品");
+        }
+        try {
+            return transactionTemplate.execute(status -> doCreateOrder(dto, buyerId));
+        } catch (RuntimeException e) {
+            // 数据库步骤失败，释放预占让其他买家可以继续购买
+            listingReservation.release(dto.getListingId(), buyerId);
+            throw e;
+        }
+    }
+
+    @Override
+    public String buyNow(OrderCreateDTO dto) {
+        Long buyerId = UserContext.getUserId();
+        if (buyerId == null) {
+            throw new BusinessException(ResultCode.UNAUTHORIZED);
+        }
+
+        if (!listingReservation.tryReserve(dto.getListingId(), buyerId)) {
+            throw new BusinessException(ResultCode.ERROR.getCode(), "商品已被他人购买，请选择其他商品");
+        }
+        try {
+            return transactionTemplate.execute(status -> doBuyNow(dto.getListingId(), buyerId));
+        } catch (RuntimeException e) {
+            listingReservation.release(dto.getListingId(), buyerId);
+            throw e;
+        }
+    }
+
+    /**
+     * 立即购买的数据库步骤（在事务中执行）
+     * <p>
+     * 挂单行的更新放在最后一条语句，争抢激烈的挂单行锁只在该语句到提交之间持有；
+     * 余额采用条件扣减，不需要先查询买家再走乐观锁重试。
+     */
+    private String doBuyNow(Long listingId, Long buyerId) {
+        // 1. 查询并校验挂单
+        MarketListing listing = marketListingMapper.selectById(listingId);
+        if (listing == null) {
+            throw new BusinessException(ResultCode.ERROR.getCode(), "挂单不存在");
+        }
+        if (listing.getStatus() != ListingStatus.ON_SALE) {
+            throw new BusinessException(ResultCode.ERROR.getCode(), "该商品已下架或已售出");
+        }
+        if (listing.getSellerId().equals(buyerId)) {
+            throw new BusinessException(ResultCode.ERROR.getCode(), "不能购买自己的商品");
+        }
+
+        // 2. 条件扣减买家余额
+        if (userMapper.deductBalance(buyerId, listing.getPrice()) == 0) {
+            throw new BusinessException(ResultCode.ERROR.getCode(), "余额不足，请先充值");
+        }
+
+        // 3. 直接写入已支付订单
+        long orderId = idGenerator.nextId();
+        String orderNo = Long.toString(orderId);
+        LocalDateTime now = LocalDateTime.now();
+        TradeOrder order = new TradeOrder();
+        order.setId(orderId);
+        order.setOrderNo(orderNo);
+        order.setBuyerId(buyerId);
+        order.setSellerId(listing.getSellerId());
+        order.setListingId(listingId);
+        order.setInventoryId(listing.getInventoryId());
+        order.setTotalAmount(listing.getPrice());
+        order.setStatus(OrderStatus.PAID_WAIT_DELIVERY);
+        order.setCreateTime(now);
+        order.setPayTime(now);
+        tradeOrderMapper.insert(order);
+
+        // 4. 记录资金流水（变动后余额在插入语句中取自已扣减并锁定的余额行）
+        walletService.recordWalletLogFromBalance(buyerId, WalletLogType.PURCHASE,
+                listing.getPrice().negate(), orderNo, "购买商品");
+
+        // 5. 乐观锁锁定挂单（失败则整个事务回滚，扣款和订单一并撤销）
+        int updateCount = marketListingMapper.updateStatus(listingId, ListingStatus.PURCHASED, listing.getVersion());
+        if (updateCount == 0) {
+            throw new BusinessException(ResultCode.ERROR.getCode(), "商品已被他人购买，请选择其他商品");
+        }
+        eventPublisher.publishEvent(ListingChangedEvent.of(new ListingChange(
+                listing.getId(), listing.getTemplateId(), ListingStatus.PURCHASED, listing.getPrice())));
+
+        log.info("立即购买成功: orderNo={}, buyerId={}, sellerId={}, amount={}",
+                orderNo, buyerId, listing.getSellerId(), listing.getPrice());
+        return orderNo;
+    }
+
+    @Override
+    public CartCheckoutResultVO checkoutCart(CartCheckoutDTO dto) {
+        Long buyerId = UserContext.getUserId();
+        if (buyerId == null) {
+            throw new BusinessException(ResultCode.UNAUTHORIZED);
+        }
+
+        // 1. Redis 预占，被其他买家预占的挂单直接判定失败，不进入事务
+        List<Long> listingIds = dto.getListingIds().stream().distinct().toList();
+        Map<Long, String> failures = new HashMap<>();
+        List<Long> reserved = new ArrayList<>(listingIds.size());
+        for (Long listingId : listingIds) {
+            if (listingReservation.tryReserve(listingId, buyerId)) {
+                reserved.add(listingId);
+            } else {
+                failures.put(listingId, "商品已被他人购买");
+            }
+        }
+
+        // 2. 事务内批量锁定、扣款、建单
+        Map<Long, TradeOrder> orders = new HashMap<>();
+        if (!reserved.isEmpty()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> doCheckout(reserved, buyerId, orders, failures));
+            } catch (RuntimeException e) {
+                reserved.forEach(listingId -> listingReservation.release(listingId, buyerId));
+                throw e;
+            }
+            // 预占成功但未买到的挂单释放预占
+            reserved.stream().filter(failures::containsKey)
+                    .forEach(listingId -> listingReservation.release(listingId, buyerId));
+        }
+
+        // 3. 按请求顺序组装逐项结果（重复的挂单ID只算一项）
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        List<CartCheckoutResultVO.Item> items = new ArrayList<>(listingIds.size());
+        for (Long listingId : listingIds) {
+            TradeOrder order = orders.get(listingId);
+            if (order != null) {
+                items.add(new CartCheckoutResultVO.Item(listingId, true, order.getOrderNo(), null));
+            } else {
+                items.add(new CartCheckoutResultVO.Item(listingId, false, null, failures.get(listingId)));
+            }
+        }
+        for (TradeOrder order : orders.values()) {
+            totalAmount = totalAmount.add(order.getTotalAmount());
+        }
+        CartCheckoutResultVO result = new CartCheckoutResultVO();
+        result.setSuccessCount(orders.size());
+        result.setFailureCount(items.size() - orders.size());
+        result.setTotalAmount(totalAmount);
+        result.setItems(items);
+
+        log.info("购物车结算完成: buyerId={}, success={}, failure={}, totalAmount={}",
+                buyerId, result.getSuccessCount(), result.getFailureCount(), totalAmount);
+        return result;
+    }
+
+    /**
+     * 购物车结算的数据库步骤（在事务中执行）
+     * <p>
+     * SKIP LOCKED 锁定读只拿到当前可买的挂单，被其它事务锁住的行直接跳过并判定失败，不排队等待；
+     * 之后的条件批量更新、一次余额扣减、多行插入订单和流水都只针对已锁定的挂单，语句数与件数无关。
+     */
+    private void doCheckout(List<Long> listingIds, Long buyerId,
+                            Map<Long, TradeOrder> orders, Map<Long, String> failures) {
+        // 1. 锁定可购买的挂单
+        List<MarketListing> locked = marketListingMapper.selectOnSaleByIdsSkipLocked(listingIds);
+        Map<Long, MarketListing> lockedById = new HashMap<>();
+        for (MarketListing listing : locked) {
+            lockedById.put(listing.getId(), listing);
+        }
+        List<MarketListing> buying = new ArrayList<>(locked.size());
+        BigDecimal total = BigDecimal.ZERO;
+        for (Long listingId : listingIds) {
+            MarketListing listing = lockedById.get(listingId);
+            if (listing == null) {
+                failures.put(listingId, "该商品已下架或已被他人购买");
+            } else if (listing.getSellerId().equals(buyerId)) {
+                failures.put(listingId, "不能购买自己的商品");
+            } else {
+                buying.add(listing);
+                total = total.add(listing.getPrice());
+            }
+        }
+        if (buying.isEmpty()) {
+            return;
+        }
+
+        // 2. 一次扣减总额
+        if (userMapper.deductBalance(buyerId, total) == 0) {
+            throw new BusinessException(ResultCode.ERROR.getCode(), "余额不足，请先充值");
+        }
+
+        // 3. 条件批量更新挂单为已被购买（行已锁定，理应全部命中）
+        if (marketListingMapper.updateStatusBatch(buying, ListingStatus.PURCHASED) != buying.size()) {
+            throw new BusinessException(ResultCode.ERROR.getCode(), "结算失败，请重试");
+        }
+
+        // 4. 多行插入订单和资金流水（流水余额按扣款顺序逐笔递减，记为相对扣款后余额的差额，插入时取实际余额）
+        LocalDateTime now = LocalDateTime.now();
+        List<TradeOrder> orderList = new ArrayList<>(buying.size());
+        List<WalletLogDraft> walletLogs = new ArrayList<>(buying.size());
+        BigDecimal remaining = total;
+        List<ListingChange> changes = new ArrayList<>(buying.size());
+        for (MarketListing listing : buying) {
+            long orderId = idGenerator.nextId();
+            TradeOrder order = new TradeOrder();
+            order.setId(orderId);
+            order.setOrderNo(Long.toString(orderId));
+            order.setBuyerId(buyerId);
+            order.setSellerId(listing.getSellerId());
+            order.setListingId(listing.getId());
+            order.setInventoryId(listing.getInventoryId());
+            order.setTotalAmount(listing.getPrice());
+            order.setStatus(OrderStatus.PAID_WAIT_DELIVERY);
+            order.setCreateTime(now);
+            order.setPayTime(now);
+            orderList.add(order);
+            orders.put(listing.getId(), order);
+
+            remaining = remaining.subtract(listing.getPrice());
+            WalletLog walletLog = new WalletLog();
+            walletLog.setUserId(buyerId);
+            walletLog.setType(WalletLogType.PURCHASE);
+            walletLog.setAmount(listing.getPrice().negate());
+            walletLog.setOrderNo(order.getOrderNo());
+            walletLog.setRemark("购买商品");
+            walletLog.setCreateTime(now);
+            walletLogs.add(new WalletLogDraft(walletLog, remaining));
+
+            changes.add(new ListingChange(listing.getId(), listing.getTemplateId(), ListingStatus.PURCHASED, listing.getPrice()));
+        }
+        tradeOrderMapper.insertBatch(orderList);
+        walletService.recordWalletLogs(walletLogs);
+        eventPublisher.publishEvent(new ListingChangedEvent(changes));
+    }
+
+    @Override
+    public OrderPlaceResultVO placeOrderAsync(OrderCreateDTO dto) {
+        Long buyerId = UserContext.getUserId();
+        if (buyerId == null) {
+            throw new BusinessException(ResultCode.UNAUTHORIZED);
+        }
+
+        // 入队前做只读校验，明显无效的请求不占用队列
+        MarketListing listing = marketListingMapper.selectById(dto.getListingId());
+        if (listing == null) {
+            throw new BusinessException(ResultCode.ERROR.getCode(), "挂单不存在");
+        }
+        if (listing.getStatus() != ListingStatus.ON_SALE) {
+            throw new BusinessException(ResultCode.ERROR.getCode(), "该商品已下架或已售出");
+        }
+        if (listing.getSellerId().equals(buyerId)) {
+            throw new BusinessException(ResultCode.ERROR.getCode(), "不能购买自己的商品");
+        }
+
+        // 同一挂单只放行一个买家入队，其余请求立即失败，队列中不会堆积注定失败的请求
+        if (!listingReservation.tryReserve(dto.getListingId(), buyerId, PLACE_RESERVE_TTL_MILLIS)) {
+            throw new BusinessException(ResultCode.ERROR.getCode(), "商品已被他人购买，请选择其他商品");
+        }
+
+        String token = UUID.randomUUID().toString().replace("-", "");
+        OrderPlaceResultVO result = new OrderPlaceResultVO(token, OrderPlaceResultVO.PENDING, null, null, buyerId);
+        saveResult(result);
+
+        OrderPlaceMessage message = new OrderPlaceMessage(token, buyerId, dto.getListingId(), LocalDateTime.now());
+        try {
+            rabbitTemplate.convertAndSend(
+                    RabbitMQConfig.ORDER_EXCHANGE,
+                    RabbitMQConfig.ORDER_PLACE_ROUTING_KEY_PREFIX + RabbitMQConfig.orderPlacePartition(dto.getListingId()),
+                    message
+            );
+        } catch (RuntimeException e) {
+            log.error("下单请求入队失败: token={}, listingId={}", token, dto.getListingId(), e);
+            listingReservation.release(dto.getListingId(), buyerId);
+            result.setStatus(OrderPlaceResultVO.FAILED);
+            result.setMessage("系统繁忙，请稍后重试");
+            saveResult(result);
+            throw new BusinessException(ResultCode.ERROR.getCode(), "系统繁忙，请稍后重试");
+        }
+
+        log.info("下单请求已受理: token={}, buyerId={}, listingId={}", token, buyerId, dto.getListingId());
+        return result;
+    }
+
+    @Override
+    public OrderPlaceResultVO getPlaceResult(String token) {
+        Long userId = UserContext.getUserId();
+        if (userId == null) {
+            throw new BusinessException(ResultCode.UNAUTHORIZED);
+        }
+        OrderPlaceResultVO result = loadResult(token);
+        if (result == null || !userId.equals(result.getBuyerId())) {
+            throw new BusinessException(ResultCode.ERROR.getCode(), "下单请求不存在或已过期");
+        }
+        return result;
+    }
+
+    @Override
+    public void processPlaceOrder(OrderPlaceMessage message) {
+        OrderPlaceResultVO result = loadResult(message.getToken());
+        if (result != null && result.isFinished()) {
+            log.warn("下单请求已处理，消息重复消费，跳过: token={}", message.getToken());
+            return;
+        }
+        if (result == null) {
+            result = new OrderPlaceResultVO(message.getToken(), OrderPlaceResultVO.PENDING, null, null, message.getBuyerId());
+        }
+
+        OrderCreateDTO dto = new OrderCreateDTO();
+        dto.setListingId(message.getListingId());
+        for (int attempt = 1; ; attempt++) {
+            try {
+                String orderNo = transactionTemplate.execute(status -> doCreateOrder(dto, message.getBuyerId()));
+                result.setStatus(OrderPlaceResultVO.SUCCESS);
+                result.setOrderNo(orderNo);
+                saveResult(result);
+                return;
+            } catch (BusinessException e) {
+                // 业务失败（已售出、已下架等）是确定结果，写回后无需重试
+                listingReservation.release(message.getListingId(), message.getBuyerId());
+                result.setStatus(OrderPlaceResultVO.FAILED);
+                result.setMessage(e.getMessage());
+                saveResult(result);
+                log.info("异步下单失败: token={}, listingId={}, reason={}",
+                        message.getToken(), message.getListingId(), e.getMessage());
+                return;
+            } catch (RuntimeException e) {
+                // 临时故障：结果保持排队中、保留预占，退避后重试；重试耗尽才标记失败
+                if (attempt >= PLACE_MAX_ATTEMPTS) {
+                    listingReservation.release(message.getListingId(), message.getBuyerId());
+                    result.setStatus(OrderPlaceResultVO.FAILED);
+                    result.setMessage("系统繁忙，请稍后重试");
+                    saveResult(result);
+                    throw e;
+                }
+                log.warn("异步下单临时失败，第 {} 次重试: token={}, listingId={}, error={}",
+                        attempt, message.getToken(), message.getListingId(), e.getMessage());
+                try {
+                    Thread.sleep(PLACE_RETRY_BACKOFF_MILLIS * attempt);
+                } catch (InterruptedException interrupted) {
+                    // 停机中断：结果仍为排队中，消息由消费者重新入队后继续处理
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private void saveResult(OrderPlaceResultVO result) {
+        try {
+            redisTemplate.opsForValue().set(RedisKey.getOrderPlaceKey(result.getToken()), result,
+                    PLACE_RESULT_TTL_MINUTES, TimeUnit.MINUTES);
+        } catch (Exception e) {
+            log.warn("写入下单结果失败: token={}, status={}, error={}",
+                    result.getToken(), result.getStatus(), e.getMessage());
+        }
+    }
+
+    private OrderPlaceResultVO loadResult(String token) {
+        try {
+            Object value = redisTemplate.opsForValue().get(RedisKey.getOrderPlaceKey(token));
+            return value instanceof OrderPlaceResultVO vo ? vo : null;
+        } catch (Exception e) {
+            log.warn("读取下单结果失败: token={}, error={}", token, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 下单的数据库步骤（在事务中执行）
+     */
+    private String doCreateOrder(OrderCreateDTO dto, Long buyerId) {
         // 1. 查询挂单信息
         MarketListing listing = marketListingMapper.selectById(dto.getListingId());
         if (listing == null) {
@@ -81,12 +490,16 @@ public class TradeOrderServiceImpl implements TradeOrderService {
         if (updateCount == 0) {
             throw new BusinessException(ResultCode.ERROR.getCode(), "商品已被他人购买，请选择其他商品");
         }
+        eventPublisher.publishEvent(ListingChangedEvent.of(new ListingChange(
+                listing.getId(), listing.getTemplateId(), ListingStatus.PURCHASED, listing.getPrice())));
 
-        // 5. 生成订单号
-        String orderNo = generateOrderNo();
+        // 5. 生成订单ID，订单号由同一ID派生
+        long orderId = idGenerator.nextId();
+        String orderNo = Long.toString(orderId);
 
         // 6. 创建订单
         TradeOrder order = new TradeOrder();
+        order.setId(orderId);
         order.setOrderNo(orderNo);
         order.setBuyerId(buyerId);
         order.setSellerId(listing.getSellerId());
@@ -98,6 +511,9 @@ public class TradeOrderServiceImpl implements TradeOrderService {
 
         tradeOrderMapper.insert(order);
 
+        // 7. 投递支付超时消息，到期仍未支付则自动取消并释放挂单
+        scheduleTimeout(RabbitMQConfig.ORDER_PAY_TIMEOUT_DELAY_ROUTING_KEY, order, OrderStatus.PENDING_PAY);
+
         log.info("创建订单成功: orderNo={}, buyerId={}, sellerId={}, amount={}",
                 orderNo, buyerId, listing.getSellerId(), listing.getPrice());
 
@@ -145,9 +561,10 @@ public class TradeOrderServiceImpl implements TradeOrderService {
         walletService.recordWalletLog(buyerId, WalletLogType.PURCHASE,
                 order.getTotalAmount().negate(), newBalance, order.getOrderNo(), "购买商品");
 
-        // 7. 更新订单状态为待发货
-        tradeOrderMapper.updateStatus(id, OrderStatus.PAID_WAIT_DELIVERY);
-        tradeOrderMapper.updatePayTime(id);
+        // 7. 更新订单状态为待发货并写入支付时间（条件更新，与支付超时取消互斥，失败则回滚扣款）
+        if (tradeOrderMapper.transition(id, OrderTransition.PAY) == 0) {
+            throw new BusinessException(ResultCode.ERROR.getCode(), "订单状态已变更，无法支付");
+        }
 
         log.info("订单支付成功: orderId={}, buyerId={}, amount={}", id, buyerId, order.getTotalAmount());
     }
@@ -176,9 +593,13 @@ public class TradeOrderServiceImpl implements TradeOrderService {
             throw new BusinessException(ResultCode.ERROR.getCode(), "订单状态异常，无法发货");
         }
 
-        // 4. 更新订单状态为已发货
-        tradeOrderMapper.updateStatus(id, OrderStatus.DELIVERED);
-        tradeOrderMapper.updateDeliverTime(id);
+        // 4. 更新订单状态为已发货并写入发货时间
+        if (tradeOrderMapper.transition(id, OrderTransition.DELIVER) == 0) {
+            throw new BusinessException(ResultCode.ERROR.getCode(), "订单状态已变更，无法发货");
+        }
+
+        // 5. 投递自动确认收货消息，买家到期未确认则自动完成交易
+        scheduleTimeout(RabbitMQConfig.ORDER_AUTO_CONFIRM_DELAY_ROUTING_KEY, order, OrderStatus.DELIVERED);
 
         log.info("订单发货成功: orderId={}, sellerId={}", id, sellerId);
     }
@@ -207,28 +628,56 @@ public class TradeOrderServiceImpl implements TradeOrderService {
             throw new BusinessException(ResultCode.ERROR.getCode(), "订单状态异常，无法确认收货");
         }
 
-        // 4. 核心事务：更新订单状态为交易成功
-        tradeOrderMapper.updateStatus(id, OrderStatus.SUCCESS);
-        tradeOrderMapper.updateFinishTime(id);
+        // 4. 完成交易
+        if (!completeOrder(order)) {
+            throw new BusinessException(ResultCode.ERROR.getCode(), "订单状态已变更，无法确认收货");
+        }
+
+        log.info("订单确认收货成功，后处理消息已发送: orderId={}, buyerId={}, sellerId={}",
+                id, buyerId, order.getSellerId());
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void autoConfirmOrder(Long id) {
+        TradeOrder order = tradeOrderMapper.selectById(id);
+        if (order == null || order.getStatus() != OrderStatus.DELIVERED) {
+            return;
+        }
+        if (completeOrder(order)) {
+            log.info("订单超时自动确认收货: orderId={}, buyerId={}, sellerId={}",
+                    id, order.getBuyerId(), order.getSellerId());
+        }
+    }
+
+    /**
+     * 已发货订单完成交易：条件更新为交易成功，并发送 MQ 消息异步完成卖家打款、库存转移、挂单已售
+     *
+     * @return false 表示订单状态已被并发修改
+     */
+    private boolean completeOrder(TradeOrder order) {
+        if (tradeOrderMapper.transition(order.getId(), OrderTransition.CONFIRM) == 0) {
+            return false;
+        }
+        // finish_time 由数据库写入，回读后随消息下发，K线与离线回填按同一时间归档
+        TradeOrder finished = tradeOrderMapper.selectById(order.getId());
 
-        // 5. 发送 MQ 消息，异步完成：卖家打款 + 库存转移 + 挂单已售
         OrderConfirmedMessage message = new OrderConfirmedMessage(
-                id,
+                order.getId(),
                 order.getOrderNo(),
-                buyerId,
+                order.getBuyerId(),
                 order.getSellerId(),
                 order.getTotalAmount(),
                 order.getInventoryId(),
-                order.getListingId()
+                order.getListingId(),
+                finished.getFinishTime()
         );
         rabbitTemplate.convertAndSend(
                 RabbitMQConfig.ORDER_EXCHANGE,
                 RabbitMQConfig.ORDER_CONFIRMED_ROUTING_KEY,
                 message
         );
-
-        log.info("订单确认收货成功，后处理消息已发送: orderId={}, buyerId={}, sellerId={}",
-                id, buyerId, order.getSellerId());
+        return true;
     }
 
     @Override
@@ -255,18 +704,55 @@ public class TradeOrderServiceImpl implements TradeOrderService {
             throw new BusinessException(ResultCode.ERROR.getCode(), "该订单无法取消");
         }
 
-        // 4. 更新订单状态为已取消
-        tradeOrderMapper.updateStatus(id, OrderStatus.CANCELLED);
+        // 4. 取消订单并恢复挂单
+        if (!cancelPendingOrder(order)) {
+            throw new BusinessException(ResultCode.ERROR.getCode(), "该订单无法取消");
+        }
+
+        log.info("订单取消成功: orderId={}, userId={}", id, userId);
+    }
 
-        // 5. 恢复挂单状态为上架中（先查当前version再更新）
-        MarketListing listing = marketListingMapper.selectById(order.getListingId());
-        int updateCount = marketListingMapper.updateStatus(
-                order.getListingId(), ListingStatus.ON_SALE, listing.getVersion());
-        if (updateCount == 0) {
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void cancelUnpaidOrder(Long id) {
+        TradeOrder order = tradeOrderMapper.selectById(id);
+        if (order == null || order.getStatus() != OrderStatus.PENDING_PAY) {
+            return;
+        }
+        if (cancelPendingOrder(order)) {
+            log.info("订单支付超时自动取消: orderId={}, buyerId={}", id, order.getBuyerId());
+        }
+    }
+
+    /**
+     * 取消待支付订单：条件更新为已取消，并恢复挂单为上架中
+     *
+     * @return false 表示订单状态已被并发修改（如已支付）
+     */
+    private boolean cancelPendingOrder(TradeOrder order) {
+        if (tradeOrderMapper.transition(order.getId(), OrderTransition.CANCEL) == 0) {
+            return false;
+        }
+
+        // 恢复挂单状态为上架中
+        if (marketListingMapper.transition(order.getListingId(), ListingTransition.RELEASE) == 0) {
             throw new BusinessException(ResultCode.ERROR.getCode(), "恢复挂单状态失败，请重试");
         }
+        MarketListing listing = marketListingMapper.selectById(order.getListingId());
+        eventPublisher.publishEvent(ListingChangedEvent.of(new ListingChange(
+                listing.getId(), listing.getTemplateId(), ListingStatus.ON_SALE, listing.getPrice())));
+        return true;
+    }
 
-        log.info("订单取消成功: orderId={}, userId={}", id, userId);
+    /**
+     * 投递订单超时消息到延迟队列（到期后经死信转入对应处理队列）
+     */
+    private void scheduleTimeout(String delayRoutingKey, TradeOrder order, int expectStatus) {
+        rabbitTemplate.convertAndSend(
+                RabbitMQConfig.ORDER_EXCHANGE,
+                delayRoutingKey,
+                new OrderTimeoutMessage(order.getId(), order.getOrderNo(), expectStatus, 0)
+        );
     }
 
     @Override
@@ -294,7 +780,7 @@ public class TradeOrderServiceImpl implements TradeOrderService {
     }
 
     @Override
-    public PageResult<OrderVO> getMyBuyOrders(Integer status, Integer pageNum, Integer pageSize) {
+    public PageResult<OrderVO> getMyBuyOrders(Integer status, Integer pageNum, Integer pageSize, String cursor) {
         Long buyerId = UserContext.getUserId();
         if (buyerId == null) {
             throw new BusinessException(ResultCode.UNAUTHORIZED);
@@ -307,6 +793,13 @@ public class TradeOrderServiceImpl implements TradeOrderService {
             pageSize = 20;
         }
 
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        if (pageCursor != null) {
+            List<OrderVO> rows = tradeOrderMapper.selectMyBuyOrdersAfter(
+                    buyerId, status, pageCursor.timeKey(), pageCursor.getId(), pageSize + 1);
+            return PageResult.ofCursor(rows, pageSize, vo -> PageCursor.encode(vo.getCreateTime(), vo.getId()));
+        }
+
         int offset = (pageNum - 1) * pageSize;
         Long total = tradeOrderMapper.countMyBuyOrders(buyerId, status);
 
@@ -315,11 +808,12 @@ public class TradeOrderServiceImpl implements TradeOrderService {
         }
 
         List<OrderVO> list = tradeOrderMapper.selectMyBuyOrders(buyerId, status, offset, pageSize);
-        return new PageResult<>(total, list, pageNum, pageSize);
+        return new PageResult<>(total, list, pageNum, pageSize)
+                .withCursor(vo -> PageCursor.encode(vo.getCreateTime(), vo.getId()));
     }
 
     @Override
-    public PageResult<OrderVO> getMySellOrders(Integer status, Integer pageNum, Integer pageSize) {
+    public PageResult<OrderVO> getMySellOrders(Integer status, Integer pageNum, Integer pageSize, String cursor) {
         Long sellerId = UserContext.getUserId();
         if (sellerId == null) {
             throw new BusinessException(ResultCode.UNAUTHORIZED);
@@ -332,6 +826,13 @@ public class TradeOrderServiceImpl implements TradeOrderService {
             pageSize = 20;
         }
 
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        if (pageCursor != null) {
+            List<OrderVO> rows = tradeOrderMapper.selectMySellOrdersAfter(
+                    sellerId, status, pageCursor.timeKey(), pageCursor.getId(), pageSize + 1);
+            return PageResult.ofCursor(rows, pageSize, vo -> PageCursor.encode(vo.getCreateTime(), vo.getId()));
+        }
+
         int offset = (pageNum - 1) * pageSize;
         Long total = tradeOrderMapper.countMySellOrders(sellerId, status);
 
@@ -340,15 +841,7 @@ public class TradeOrderServiceImpl implements TradeOrderService {
         }
 
         List<OrderVO> list = tradeOrderMapper.selectMySellOrders(sellerId, status, offset, pageSize);
-        return new PageResult<>(total, list, pageNum, pageSize);
-    }
-
-    /**
-     * 生成订单号：yyyyMMddHHmmss + 6位随机数
-     */
-    private String generateOrderNo() {
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
-        int random = new Random().nextInt(900000) + 100000;
-        return timestamp + random;
+        return new PageResult<>(total, list, pageNum, pageSize)
+                .withCursor(vo -> PageCursor.encode(vo.getCreateTime(), vo.getId()));
     }
 }
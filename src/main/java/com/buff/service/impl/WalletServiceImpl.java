@@ -1,5 +1,6 @@
 package com.buff.service.impl;
 
+import com.buff.common.PageCursor;
 import com.buff.common.PageResult;
 import com.buff.common.ResultCode;
 import com.buff.constant.WalletLogType;
@@ -7,6 +8,7 @@ import com.buff.exception.BusinessException;
 import com.buff.mapper.UserMapper;
 import com.buff.mapper.WalletLogMapper;
 import com.buff.model.dto.RechargeDTO;
+import com.buff.model.dto.WalletLogDraft;
 import com.buff.model.dto.WithdrawDTO;
 import com.buff.model.entity.User;
 import com.buff.model.entity.WalletLog;
@@ -114,7 +116,7 @@ public class WalletServiceImpl implements WalletService {
     }
 
     @Override
-    public PageResult<WalletLogVO> getWalletLogs(Integer type, Integer pageNum, Integer pageSize) {
+    public PageResult<WalletLogVO> getWalletLogs(Integer type, Integer pageNum, Integer pageSize, String cursor) {
         Long userId = UserContext.getUserId();
         if (userId == null) {
             throw new BusinessException(ResultCode.UNAUTHORIZED);
@@ -128,6 +130,14 @@ public class WalletServiceImpl implements WalletService {
             pageSize = 20;
         }
 
+        // 游标模式
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        if (pageCursor != null) {
+            List<WalletLogVO> rows = walletLogMapper.selectUserLogsAfter(
+                    userId, type, pageCursor.timeKey(), pageCursor.getId(), pageSize + 1);
+            return PageResult.ofCursor(rows, pageSize, vo -> PageCursor.encode(vo.getCreateTime(), vo.getId()));
+        }
+
         // 计算偏移量
         int offset = (pageNum - 1) * pageSize;
 
@@ -141,7 +151,8 @@ public class WalletServiceImpl implements WalletService {
         // 查询列表
         List<WalletLogVO> list = walletLogMapper.selectUserLogs(userId, type, offset, pageSize);
 
-        return new PageResult<>(total, list, pageNum, pageSize);
+        return new PageResult<>(total, list, pageNum, pageSize)
+                .withCursor(vo -> PageCursor.encode(vo.getCreateTime(), vo.getId()));
     }
 
     @Override
@@ -160,4 +171,52 @@ public class WalletServiceImpl implements WalletService {
 
         log.debug("记录资金流水: userId={}, type={}, amount={}, balanceAfter={}", userId, type, amount, balanceAfter);
     }
+
+    @Override
+    public void recordWalletLogFromBalance(Long userId, Integer type, BigDecimal amount, String orderNo, String remark) {
+        WalletLog walletLog = new WalletLog();
+        walletLog.setUserId(userId);
+        walletLog.setType(type);
+        walletLog.setAmount(amount);
+        walletLog.setOrderNo(orderNo);
+        walletLog.setRemark(remark);
+        walletLog.setCreateTime(LocalDateTime.now());
+
+        walletLogMapper.insertBatchFromBalance(List.of(new WalletLogDraft(walletLog, BigDecimal.ZERO)));
+
+        log.debug("记录资金流水: userId={}, type={}, amount={}", userId, type, amount);
+    }
+
+    @Override
+    public void freezeBalance(Long userId, BigDecimal amount, String orderNo, String remark) {
+        if (userMapper.deductBalance(userId, amount) == 0) {
+            throw new BusinessException(ResultCode.BALANCE_NOT_ENOUGH);
+        }
+        recordWalletLogFromBalance(userId, WalletLogType.BUY_ORDER_FREEZE, amount.negate(), orderNo, remark);
+    }
+
+    @Override
+    public void unfreezeBalance(Long userId, BigDecimal amount, String orderNo, String remark) {
+        if (amount.signum() <= 0) {
+            return;
+        }
+        userMapper.addBalance(userId, amount);
+        recordWalletLogFromBalance(userId, WalletLogType.BUY_ORDER_REFUND, amount, orderNo, remark);
+    }
+
+    @Override
+    public void recordWalletLogs(List<WalletLogDraft> drafts) {
+        if (drafts.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (WalletLogDraft draft : drafts) {
+            if (draft.getWalletLog().getCreateTime() == null) {
+                draft.getWalletLog().setCreateTime(now);
+            }
+        }
+        walletLogMapper.insertBatchFromBalance(drafts);
+
+        log.debug("批量记录资金流水: count={}", drafts.size());
+    }
 }
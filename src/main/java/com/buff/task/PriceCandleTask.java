@@ -0,0 +1,36 @@
+package com.buff.task;
+
+import com.buff.service.PriceCandleService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * K线降采样定时任务
+ * 每天凌晨清理超过保留期的小时K线，更早的历史只保留日K线
+ *
+ * @author Administrator
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PriceCandleTask {
+
+    private final PriceCandleService priceCandleService;
+
+    /**
+     * 每天 04:30 执行
+     * cron: 秒 分 时 日 月 周
+     */
+    @Scheduled(cron = "0 30 4 * * ?")
+    public void purgeExpiredHourly() {
+        log.info("开始清理过期小时K线");
+        try {
+            int count = priceCandleService.purgeExpiredHourly();
+            log.info("过期小时K线清理完成，共删除 {} 行", count);
+        } catch (Exception e) {
+            log.error("过期小时K线清理失败", e);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.buff.task;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Redis 订阅启动任务
+ * 启动 Redis 消息监听容器，连接失败时每 30 秒重试一次。
+ *
+ * @author Administrator
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RedisSubscriptionTask {
+
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+
+    @Scheduled(initialDelay = 0, fixedDelay = 30_000)
+    public void ensureSubscribed() {
+        if (redisMessageListenerContainer.isRunning()) {
+            return;
+        }
+        try {
+            redisMessageListenerContainer.start();
+            log.info("Redis 消息订阅已启动");
+        } catch (Exception e) {
+            log.warn("Redis 消息订阅启动失败，30 秒后重试: {}", e.getMessage());
+        }
+    }
+}
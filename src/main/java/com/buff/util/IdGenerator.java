@@ -0,0 +1,264 @@
+package com.buff.util;
+
+import com.buff.constant.RedisKey;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 分布式有序ID生成器（Snowflake）
+ * <p>
+ * 64 位ID布局：1 位符号 + 41 位毫秒时间戳（相对 {@link #EPOCH}）+ 10 位节点号 + 12 位序列号，
+ * 同一节点内单调递增，不同节点间按时间大致有序，不依赖数据库自增主键。
+ * <ul>
+ *   <li>节点号从 Redis 租用（id:worker:{n}，SET NX 加过期时间），由独立线程定时续租（不与其它定时任务共用调度线程，
+ *   避免被长任务拖到租约过期）；租约丢失时重新租用其它节点号</li>
+ *   <li>时间戳与序列号打包在一个 AtomicLong 中通过 CAS 推进，无锁</li>
+ *   <li>时钟回拨不超过 {@link #MAX_BACKWARD_MILLIS} 时沿用上次时间戳继续发号，超过则拒绝发号</li>
+ * </ul>
+ * 只在确认持有租约期间发号：尚未租到节点号，或距最近一次成功租用/续租已接近租约有效期（Redis 不可用导致续租失败）时拒绝发号，
+ * 避免租约过期后被其它节点占用同一节点号而产生重复ID。
+ *
+ * @author Administrator
+ */
+@Slf4j
+@Component
+public class IdGenerator {
+
+    /**
+     * 起始时间 2026-01-01 00:00:00 UTC
+     */
+    private static final long EPOCH = 1767225600000L;
+
+    private static final int WORKER_BITS = 10;
+
+    private static final int SEQUENCE_BITS = 12;
+
+    private static final long MAX_WORKER_ID = (1L << WORKER_BITS) - 1;
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    /**
+     * 允许的最大时钟回拨（毫秒），同时限制序列号耗尽时向未来借用的时间
+     */
+    private static final long MAX_BACKWARD_MILLIS = 5_000;
+
+    private static final Duration LEASE_TTL = Duration.ofSeconds(60);
+
+    /**
+     * 本地判定租约有效时预留的余量，覆盖 Redis 往返耗时与节点间时钟速率差异
+     */
+    private static final Duration LEASE_SAFETY_MARGIN = Duration.ofSeconds(5);
+
+    /**
+     * 续租间隔，租约有效期内可重试两次
+     */
+    private static final Duration RENEW_INTERVAL = Duration.ofSeconds(20);
+
+    /**
+     * 仅当租约持有者为本节点时续期
+     */
+    private static final DefaultRedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then "
+                    + "  return redis.call('PEXPIRE', KEYS[1], ARGV[2]) "
+                    + "end "
+                    + "return 0",
+            Long.class);
+
+    /**
+     * 仅当租约持有者为本节点时删除
+     */
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then "
+                    + "  return redis.call('DEL', KEYS[1]) "
+                    + "end "
+                    + "return 0",
+            Long.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    /**
+     * 墙上时钟（毫秒），用于ID时间戳
+     */
+    private final LongSupplier currentTimeMillis;
+
+    /**
+     * 单调时钟（纳秒），用于判定租约是否仍在有效期内
+     */
+    private final LongSupplier nanoTime;
+
+    private final ScheduledExecutorService renewExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "id-lease-renew");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final String leaseOwner = UUID.randomUUID().toString().replace("-", "");
+
+    /**
+     * 高位为时间戳，低 12 位为序列号
+     */
+    private final AtomicLong state = new AtomicLong();
+
+    private volatile long workerId = -1;
+
+    private volatile boolean leased;
+
+    /**
+     * 最近一次成功租用或续租的时间（单调时钟，取发出命令之前的时刻）
+     */
+    private volatile long leaseConfirmedNanos;
+
+    @Autowired
+    public IdGenerator(RedisTemplate<String, Object> redisTemplate) {
+        this(redisTemplate, System::currentTimeMillis, System::nanoTime);
+    }
+
+    /**
+     * 可替换时钟，供单元测试模拟时钟回拨与租约过期
+     */
+    IdGenerator(RedisTemplate<String, Object> redisTemplate, LongSupplier currentTimeMillis, LongSupplier nanoTime) {
+        this.redisTemplate = redisTemplate;
+        this.currentTimeMillis = currentTimeMillis;
+        this.nanoTime = nanoTime;
+    }
+
+    @PostConstruct
+    public void init() {
+        acquireLease();
+        renewExecutor.scheduleWithFixedDelay(this::renewLease,
+                RENEW_INTERVAL.toMillis(), RENEW_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 生成下一个ID
+     */
+    public long nextId() {
+        long worker = leasedWorkerId();
+        while (true) {
+            long current = state.get();
+            long lastTimestamp = current >>> SEQUENCE_BITS;
+            long now = currentTimeMillis.getAsLong() - EPOCH;
+
+            long timestamp;
+            long sequence;
+            if (now > lastTimestamp) {
+                timestamp = now;
+                sequence = 0;
+            } else {
+                if (lastTimestamp - now > MAX_BACKWARD_MILLIS) {
+                    throw new IllegalStateException("系统时钟回拨 " + (lastTimestamp - now) + "ms，拒绝生成ID");
+                }
+                // 时钟回拨或同一毫秒内：沿用上次时间戳，序列号耗尽时借用下一毫秒
+                timestamp = lastTimestamp;
+                sequence = (current & SEQUENCE_MASK) + 1;
+                if (sequence > SEQUENCE_MASK) {
+                    timestamp++;
+                    sequence = 0;
+                }
+            }
+
+            if (state.compareAndSet(current, (timestamp << SEQUENCE_BITS) | sequence)) {
+                return (timestamp << (WORKER_BITS + SEQUENCE_BITS)) | (worker << SEQUENCE_BITS) | sequence;
+            }
+        }
+    }
+
+    /**
+     * 当前节点号（尚未租到时为 -1）
+     */
+    public long getWorkerId() {
+        return workerId;
+    }
+
+    /**
+     * 定时续租；租约丢失（过期后被其它节点抢占）或尚未租到时重新租用
+     */
+    void renewLease() {
+        if (leased) {
+            long start = nanoTime.getAsLong();
+            try {
+                Long renewed = redisTemplate.execute(RENEW_SCRIPT,
+                        List.of(RedisKey.getIdWorkerKey(workerId)), leaseOwner, LEASE_TTL.toMillis());
+                if (renewed != null && renewed == 1L) {
+                    leaseConfirmedNanos = start;
+                    return;
+                }
+                log.warn("ID节点号租约已丢失，重新租用: workerId={}", workerId);
+                leased = false;
+            } catch (Exception e) {
+                // 租约在 Redis 侧仍可能有效，保留节点号继续重试续租；超过有效期后 nextId 拒绝发号
+                log.warn("ID节点号续租失败: workerId={}, error={}", workerId, e.getMessage());
+                return;
+            }
+        }
+        acquireLease();
+    }
+
+    @PreDestroy
+    public void releaseLease() {
+        renewExecutor.shutdownNow();
+        if (!leased) {
+            return;
+        }
+        try {
+            leased = false;
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(RedisKey.getIdWorkerKey(workerId)), leaseOwner);
+        } catch (Exception e) {
+            log.warn("释放ID节点号失败，等待自动过期: workerId={}, error={}", workerId, e.getMessage());
+        }
+    }
+
+    /**
+     * 从随机位置开始依次尝试租用节点号
+     */
+    private void acquireLease() {
+        long start = ThreadLocalRandom.current().nextLong(MAX_WORKER_ID + 1);
+        try {
+            for (long i = 0; i <= MAX_WORKER_ID; i++) {
+                long candidate = (start + i) & MAX_WORKER_ID;
+                long requestedAt = nanoTime.getAsLong();
+                Boolean ok = redisTemplate.opsForValue()
+                        .setIfAbsent(RedisKey.getIdWorkerKey(candidate), leaseOwner, LEASE_TTL);
+                if (Boolean.TRUE.equals(ok)) {
+                    workerId = candidate;
+                    leaseConfirmedNanos = requestedAt;
+                    leased = true;
+                    log.info("ID节点号租用成功: workerId={}", candidate);
+                    return;
+                }
+            }
+            log.error("ID节点号已全部被占用，暂停生成ID，等待下次重试租用");
+        } catch (Exception e) {
+            log.warn("ID节点号租用失败，暂停生成ID，等待下次重试租用: error={}", e.getMessage());
+        }
+    }
+
+    /**
+     * 返回确认持有租约的节点号，否则拒绝发号
+     */
+    private long leasedWorkerId() {
+        if (!leased) {
+            throw new IllegalStateException("ID节点号尚未租用，暂停生成ID");
+        }
+        long elapsed = nanoTime.getAsLong() - leaseConfirmedNanos;
+        if (elapsed > LEASE_TTL.minus(LEASE_SAFETY_MARGIN).toNanos()) {
+            throw new IllegalStateException("ID节点号租约可能已过期，暂停生成ID: workerId=" + workerId);
+        }
+        return workerId;
+    }
+}
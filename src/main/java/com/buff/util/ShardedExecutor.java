@@ -0,0 +1,59 @@
+package com.buff.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 分片单线程执行器
+ * <p>
+ * 按 key 取模分配到固定的单线程执行器，同一 key 的任务严格串行、按提交顺序执行，
+ * 不同分片之间并行。任务内访问该 key 独占的内存结构无需加锁。
+ *
+ * @author Administrator
+ */
+public class ShardedExecutor {
+
+    private final ExecutorService[] shards;
+
+    public ShardedExecutor(String namePrefix, int shardCount) {
+        this.shards = new ExecutorService[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            String name = namePrefix + i;
+            shards[i] = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * 在 key 所属分片上执行任务
+     */
+    public <T> CompletableFuture<T> submit(long key, Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, shards[(int) Math.floorMod(key, (long) shards.length)]);
+    }
+
+    /**
+     * 在 key 所属分片上执行任务（无返回值）
+     */
+    public CompletableFuture<Void> execute(long key, Runnable task) {
+        return CompletableFuture.runAsync(task, shards[(int) Math.floorMod(key, (long) shards.length)]);
+    }
+
+    /**
+     * 停止接收新任务并等待已提交任务执行完毕
+     */
+    public void shutdown(long timeoutMillis) throws InterruptedException {
+        for (ExecutorService shard : shards) {
+            shard.shutdown();
+        }
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        for (ExecutorService shard : shards) {
+            shard.awaitTermination(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        }
+    }
+}
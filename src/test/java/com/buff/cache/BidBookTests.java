@@ -0,0 +1,187 @@
+package com.buff.cache;
+
+import com.buff.constant.BuyOrderStatus;
+import com.buff.mapper.BuyOrderMapper;
+import com.buff.model.entity.BuyOrder;
+import com.buff.model.vo.BidLevelVO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BidBookTests {
+
+    private static final Long TEMPLATE_ID = 1L;
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    private BuyOrderMapper buyOrderMapper;
+
+    private BidBook bidBook;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        buyOrderMapper = mock(BuyOrderMapper.class);
+        bidBook = new BidBook(buyOrderMapper, mock(RedisTemplate.class), mock(RedisMessageListenerContainer.class));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        bidBook.shutdown();
+    }
+
+    @Test
+    void higherPriceWinsThenEarlierBid() {
+        BuyOrder cheap = bid(1L, 100L, "10.00", T0);
+        BuyOrder late = bid(2L, 101L, "12.00", T0.plusMinutes(2));
+        BuyOrder early = bid(3L, 102L, "12.00", T0.plusMinutes(1));
+        bidBook.upsert(cheap);
+        bidBook.upsert(late);
+        bidBook.upsert(early);
+
+        assertSame(early, bidBook.bestBid(TEMPLATE_ID, 999L, null, null));
+        bidBook.consumeOne(early);
+        assertSame(late, bidBook.bestBid(TEMPLATE_ID, 999L, null, null));
+        bidBook.consumeOne(late);
+        assertSame(cheap, bidBook.bestBid(TEMPLATE_ID, 999L, null, null));
+    }
+
+    @Test
+    void bestBidStopsBelowMinPrice() {
+        bidBook.upsert(bid(1L, 100L, "10.00", T0));
+
+        assertNull(bidBook.bestBid(TEMPLATE_ID, 999L, null, new BigDecimal("10.01")));
+        assertEquals(1L, bidBook.bestBid(TEMPLATE_ID, 999L, null, new BigDecimal("10.00")).getId());
+    }
+
+    @Test
+    void bestBidSkipsSellersOwnBid() {
+        bidBook.upsert(bid(1L, 100L, "12.00", T0));
+        bidBook.upsert(bid(2L, 101L, "11.00", T0));
+
+        assertEquals(2L, bidBook.bestBid(TEMPLATE_ID, 100L, null, null).getId());
+    }
+
+    @Test
+    void wearRangeIncludesMinAndExcludesMax() {
+        BuyOrder ranged = bid(1L, 100L, "12.00", T0);
+        ranged.setMinWear(new BigDecimal("0.07"));
+        ranged.setMaxWear(new BigDecimal("0.15"));
+        bidBook.upsert(ranged);
+
+        assertSame(ranged, bidBook.bestBid(TEMPLATE_ID, 999L, new BigDecimal("0.07"), null));
+        assertSame(ranged, bidBook.bestBid(TEMPLATE_ID, 999L, new BigDecimal("0.1499"), null));
+        assertNull(bidBook.bestBid(TEMPLATE_ID, 999L, new BigDecimal("0.0699"), null));
+        assertNull(bidBook.bestBid(TEMPLATE_ID, 999L, new BigDecimal("0.15"), null));
+        assertNull(bidBook.bestBid(TEMPLATE_ID, 999L, null, null));
+    }
+
+    @Test
+    void itemWithoutWearOnlyMatchesUnrestrictedBids() {
+        BuyOrder unrestricted = bid(1L, 100L, "10.00", T0);
+        BuyOrder ranged = bid(2L, 101L, "12.00", T0);
+        ranged.setMaxWear(new BigDecimal("0.15"));
+        bidBook.upsert(unrestricted);
+        bidBook.upsert(ranged);
+
+        assertSame(unrestricted, bidBook.bestBid(TEMPLATE_ID, 999L, null, null));
+        assertSame(ranged, bidBook.bestBid(TEMPLATE_ID, 999L, new BigDecimal("0.01"), null));
+    }
+
+    @Test
+    void consumeOneFillsAndRemovesLastUnit() {
+        BuyOrder bid = bid(1L, 100L, "12.00", T0);
+        bid.setQuantity(2);
+        bidBook.upsert(bid);
+
+        bidBook.consumeOne(bid);
+        assertEquals(1, bid.getFilledQuantity());
+        assertEquals(BuyOrderStatus.OPEN, bid.getStatus());
+        assertTrue(bidBook.hasBids(TEMPLATE_ID));
+
+        bidBook.consumeOne(bid);
+        assertEquals(2, bid.getFilledQuantity());
+        assertEquals(BuyOrderStatus.FILLED, bid.getStatus());
+        assertFalse(bidBook.hasBids(TEMPLATE_ID));
+        assertNull(bidBook.bestBid(TEMPLATE_ID, 999L, null, null));
+    }
+
+    @Test
+    void upsertDropsClosedBid() {
+        BuyOrder bid = bid(1L, 100L, "12.00", T0);
+        bidBook.upsert(bid);
+        assertTrue(bidBook.hasBids(TEMPLATE_ID));
+
+        BuyOrder cancelled = bid(1L, 100L, "12.00", T0);
+        cancelled.setStatus(BuyOrderStatus.CANCELLED);
+        bidBook.upsert(cancelled);
+        assertFalse(bidBook.hasBids(TEMPLATE_ID));
+    }
+
+    @Test
+    void levelsAggregateRemainingQuantityByPrice() {
+        BuyOrder first = bid(1L, 100L, "12.00", T0);
+        first.setQuantity(3);
+        first.setFilledQuantity(1);
+        bidBook.upsert(first);
+        bidBook.upsert(bid(2L, 101L, "12.00", T0.plusMinutes(1)));
+        bidBook.upsert(bid(3L, 102L, "10.00", T0));
+        bidBook.upsert(bid(4L, 103L, "9.00", T0));
+
+        List<BidLevelVO> levels = bidBook.levels(TEMPLATE_ID, 2);
+        assertEquals(2, levels.size());
+        assertEquals(0, levels.get(0).getPrice().compareTo(new BigDecimal("12.00")));
+        assertEquals(3, levels.get(0).getQuantity());
+        assertEquals(0, levels.get(1).getPrice().compareTo(new BigDecimal("10.00")));
+        assertEquals(1, levels.get(1).getQuantity());
+    }
+
+    @Test
+    void reloadReadsEachTemplateOnItsShard() throws Exception {
+        Long staleTemplate = 2L;
+        BuyOrder stale = bid(9L, 100L, "5.00", T0);
+        stale.setTemplateId(staleTemplate);
+        bidBook.upsert(stale);
+        when(buyOrderMapper.selectOpenTemplateIds()).thenReturn(List.of(TEMPLATE_ID));
+        when(buyOrderMapper.selectOpenByTemplate(TEMPLATE_ID)).thenReturn(List.of(bid(1L, 100L, "12.00", T0)));
+        when(buyOrderMapper.selectOpenByTemplate(staleTemplate)).thenReturn(List.of());
+
+        bidBook.reload();
+        bidBook.submit(TEMPLATE_ID, () -> null).get(5, TimeUnit.SECONDS);
+        bidBook.submit(staleTemplate, () -> null).get(5, TimeUnit.SECONDS);
+
+        assertTrue(bidBook.hasBids(TEMPLATE_ID));
+        assertEquals(1L, bidBook.submit(TEMPLATE_ID, () -> bidBook.bestBid(TEMPLATE_ID, 999L, null, null))
+                .get(5, TimeUnit.SECONDS).getId());
+        assertFalse(bidBook.hasBids(staleTemplate));
+    }
+
+    private static BuyOrder bid(Long id, Long buyerId, String price, LocalDateTime createTime) {
+        BuyOrder bid = new BuyOrder();
+        bid.setId(id);
+        bid.setBuyerId(buyerId);
+        bid.setTemplateId(TEMPLATE_ID);
+        bid.setPrice(new BigDecimal(price));
+        bid.setQuantity(1);
+        bid.setFilledQuantity(0);
+        bid.setStatus(BuyOrderStatus.OPEN);
+        bid.setVersion(0);
+        bid.setCreateTime(createTime);
+        return bid;
+    }
+}
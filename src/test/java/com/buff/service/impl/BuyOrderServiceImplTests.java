@@ -0,0 +1,189 @@
+package com.buff.service.impl;
+
+import com.buff.cache.BidBook;
+import com.buff.cache.ItemTemplateDictionary;
+import com.buff.cache.ListingOrderBook;
+import com.buff.constant.BuyOrderStatus;
+import com.buff.constant.ListingStatus;
+import com.buff.event.ListingChange;
+import com.buff.event.ListingSyncEvent;
+import com.buff.mapper.BuyOrderMapper;
+import com.buff.mapper.InventoryMapper;
+import com.buff.mapper.MarketListingMapper;
+import com.buff.mapper.TradeOrderMapper;
+import com.buff.model.dto.BuyOrderCreateDTO;
+import com.buff.model.entity.BuyOrder;
+import com.buff.model.entity.ItemTemplate;
+import com.buff.model.entity.MarketListing;
+import com.buff.model.entity.TradeOrder;
+import com.buff.model.entity.UserInventory;
+import com.buff.model.vo.MarketListingVO;
+import com.buff.service.WalletService;
+import com.buff.util.IdGenerator;
+import com.buff.util.UserContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BuyOrderServiceImplTests {
+
+    private static final Long TEMPLATE_ID = 1L;
+    private static final Long BUYER_ID = 100L;
+    private static final Long SELLER_ID = 200L;
+    private static final Long LISTING_ID = 10L;
+    private static final Long INVENTORY_ID = 20L;
+
+    private final AtomicLong ids = new AtomicLong(1000);
+
+    private BuyOrderMapper buyOrderMapper;
+    private MarketListingMapper marketListingMapper;
+    private InventoryMapper inventoryMapper;
+    private TradeOrderMapper tradeOrderMapper;
+    private WalletService walletService;
+    private ListingOrderBook listingOrderBook;
+    private BidBook bidBook;
+    private BuyOrderServiceImpl service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        buyOrderMapper = mock(BuyOrderMapper.class);
+        marketListingMapper = mock(MarketListingMapper.class);
+        inventoryMapper = mock(InventoryMapper.class);
+        tradeOrderMapper = mock(TradeOrderMapper.class);
+        walletService = mock(WalletService.class);
+        listingOrderBook = mock(ListingOrderBook.class);
+        bidBook = new BidBook(buyOrderMapper, mock(RedisTemplate.class), mock(RedisMessageListenerContainer.class));
+
+        ItemTemplateDictionary dictionary = mock(ItemTemplateDictionary.class);
+        when(dictionary.getActive(TEMPLATE_ID)).thenReturn(new ItemTemplate());
+        IdGenerator idGenerator = mock(IdGenerator.class);
+        when(idGenerator.nextId()).thenAnswer(inv -> ids.incrementAndGet());
+
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(inv ->
+                inv.getArgument(0, TransactionCallback.class).doInTransaction(mock(TransactionStatus.class)));
+        doAnswer(inv -> {
+            inv.getArgument(0, Consumer.class).accept(mock(TransactionStatus.class));
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        service = new BuyOrderServiceImpl(buyOrderMapper, marketListingMapper, inventoryMapper, tradeOrderMapper,
+                walletService, bidBook, listingOrderBook, dictionary, idGenerator, transactionTemplate,
+                mock(ApplicationEventPublisher.class));
+
+        when(buyOrderMapper.fillOne(anyLong())).thenReturn(1);
+        when(marketListingMapper.updateStatus(anyLong(), anyInt(), anyInt())).thenReturn(1);
+        UserInventory inventory = new UserInventory();
+        inventory.setId(INVENTORY_ID);
+        inventory.setWearValue(new BigDecimal("0.10"));
+        when(inventoryMapper.selectById(INVENTORY_ID)).thenReturn(inventory);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        UserContext.clear();
+        bidBook.shutdown();
+    }
+
+    @Test
+    void newBidFillsRestingListingAtListingPriceAndRefundsDifference() throws Exception {
+        when(marketListingMapper.selectById(LISTING_ID)).thenReturn(listing("80.00"));
+        MarketListingVO candidate = new MarketListingVO();
+        candidate.setId(LISTING_ID);
+        candidate.setSellerId(SELLER_ID);
+        when(listingOrderBook.select(eq(TEMPLATE_ID), isNull(), any(), any(), any(), anyString(), anyString()))
+                .thenReturn(List.of(candidate));
+
+        UserContext.setUserId(BUYER_ID);
+        BuyOrderCreateDTO dto = new BuyOrderCreateDTO();
+        dto.setTemplateId(TEMPLATE_ID);
+        dto.setPrice(new BigDecimal("100.00"));
+        dto.setQuantity(1);
+        service.createBuyOrder(dto);
+        drain();
+
+        ArgumentCaptor<TradeOrder> order = ArgumentCaptor.forClass(TradeOrder.class);
+        verify(tradeOrderMapper).insert(order.capture());
+        assertEquals(0, order.getValue().getTotalAmount().compareTo(new BigDecimal("80.00")));
+        verify(walletService).unfreezeBalance(eq(BUYER_ID), argThat(a -> a.compareTo(new BigDecimal("20.00")) == 0),
+                eq(order.getValue().getOrderNo()), anyString());
+        assertFalse(bidBook.hasBids(TEMPLATE_ID));
+    }
+
+    @Test
+    void newListingFillsRestingBidAtBidPriceWithoutRefund() throws Exception {
+        when(marketListingMapper.selectById(LISTING_ID)).thenReturn(listing("80.00"));
+        BuyOrder bid = new BuyOrder();
+        bid.setId(1L);
+        bid.setBuyerId(BUYER_ID);
+        bid.setTemplateId(TEMPLATE_ID);
+        bid.setPrice(new BigDecimal("100.00"));
+        bid.setQuantity(1);
+        bid.setFilledQuantity(0);
+        bid.setStatus(BuyOrderStatus.OPEN);
+        bid.setCreateTime(LocalDateTime.now());
+        bidBook.submit(TEMPLATE_ID, () -> {
+            bidBook.upsert(bid);
+            return null;
+        }).get(5, TimeUnit.SECONDS);
+
+        service.onListingSync(new ListingSyncEvent("node", false, List.of(
+                new ListingChange(LISTING_ID, TEMPLATE_ID, ListingStatus.ON_SALE, new BigDecimal("80.00")))));
+        drain();
+
+        ArgumentCaptor<TradeOrder> order = ArgumentCaptor.forClass(TradeOrder.class);
+        verify(tradeOrderMapper).insert(order.capture());
+        assertEquals(0, order.getValue().getTotalAmount().compareTo(new BigDecimal("100.00")));
+        verify(walletService).unfreezeBalance(eq(BUYER_ID), argThat(a -> a.signum() == 0), anyString(), anyString());
+        assertEquals(BuyOrderStatus.FILLED, bid.getStatus());
+        assertFalse(bidBook.hasBids(TEMPLATE_ID));
+    }
+
+    private static MarketListing listing(String price) {
+        MarketListing listing = new MarketListing();
+        listing.setId(LISTING_ID);
+        listing.setSellerId(SELLER_ID);
+        listing.setInventoryId(INVENTORY_ID);
+        listing.setTemplateId(TEMPLATE_ID);
+        listing.setPrice(new BigDecimal(price));
+        listing.setStatus(ListingStatus.ON_SALE);
+        listing.setVersion(0);
+        return listing;
+    }
+
+    /**
+     * 等待模板分片线程上已排队的撮合执行完
+     */
+    private void drain() throws Exception {
+        bidBook.submit(TEMPLATE_ID, () -> null).get(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,178 @@
+package com.buff.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class IdGeneratorTests {
+
+    private static final long START_MILLIS = 1767225600000L + 1_000_000L;
+
+    private final AtomicLong millis = new AtomicLong(START_MILLIS);
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private RedisTemplate<String, Object> redisTemplate;
+
+    private ValueOperations<String, Object> valueOperations;
+
+    private IdGenerator generator;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(RedisTemplate.class);
+        valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), any(), any(Duration.class))).thenReturn(true);
+        generator = new IdGenerator(redisTemplate, millis::get, nanos::get);
+    }
+
+    @AfterEach
+    void tearDown() {
+        generator.releaseLease();
+    }
+
+    @Test
+    void idsIncreaseWithinOneMillisecondAndAcrossMilliseconds() {
+        generator.init();
+        long previous = generator.nextId();
+        for (int i = 0; i < 10_000; i++) {
+            if (i % 1000 == 0) {
+                millis.incrementAndGet();
+            }
+            long id = generator.nextId();
+            assertTrue(id > previous);
+            previous = id;
+        }
+    }
+
+    @Test
+    void concurrentCallersGetUniqueIncreasingIds() throws Exception {
+        IdGenerator realClock = new IdGenerator(redisTemplate);
+        realClock.init();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<Long>>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                Callable<List<Long>> task = () -> {
+                    List<Long> ids = new ArrayList<>(20_000);
+                    for (int i = 0; i < 20_000; i++) {
+                        ids.add(realClock.nextId());
+                    }
+                    return ids;
+                };
+                futures.add(pool.submit(task));
+            }
+            Set<Long> all = new HashSet<>();
+            for (Future<List<Long>> future : futures) {
+                List<Long> ids = future.get(30, TimeUnit.SECONDS);
+                for (int i = 1; i < ids.size(); i++) {
+                    assertTrue(ids.get(i) > ids.get(i - 1));
+                }
+                all.addAll(ids);
+            }
+            assertEquals(80_000, all.size());
+        } finally {
+            pool.shutdownNow();
+            realClock.releaseLease();
+        }
+    }
+
+    @Test
+    void exhaustedSequenceBorrowsNextMillisecond() {
+        generator.init();
+        long first = generator.nextId();
+        long timestamp = first >>> 22;
+        assertEquals(0, first & 0xFFF);
+        long last = first;
+        for (int i = 1; i <= 4095; i++) {
+            last = generator.nextId();
+            assertEquals(timestamp, last >>> 22);
+            assertEquals(i, last & 0xFFF);
+        }
+
+        long rolled = generator.nextId();
+        assertTrue(rolled > last);
+        assertEquals(timestamp + 1, rolled >>> 22);
+        assertEquals(0, rolled & 0xFFF);
+    }
+
+    @Test
+    void smallClockRollbackKeepsLastTimestamp() {
+        generator.init();
+        long before = generator.nextId();
+        millis.addAndGet(-1_000);
+
+        long after = generator.nextId();
+        assertTrue(after > before);
+        assertEquals(before >>> 22, after >>> 22);
+    }
+
+    @Test
+    void largeClockRollbackIsRefused() {
+        generator.init();
+        generator.nextId();
+        millis.addAndGet(-5_001);
+
+        assertThrows(IllegalStateException.class, generator::nextId);
+
+        millis.addAndGet(5_001);
+        generator.nextId();
+    }
+
+    @Test
+    void refusesWithoutLease() {
+        when(valueOperations.setIfAbsent(anyString(), any(), any(Duration.class))).thenReturn(false);
+        generator.init();
+
+        assertEquals(-1, generator.getWorkerId());
+        assertThrows(IllegalStateException.class, generator::nextId);
+    }
+
+    @Test
+    void refusesOnceLeaseMayHaveExpired() {
+        generator.init();
+        nanos.addAndGet(Duration.ofSeconds(54).toNanos());
+        generator.nextId();
+
+        nanos.addAndGet(Duration.ofSeconds(2).toNanos());
+        assertThrows(IllegalStateException.class, generator::nextId);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void renewalExtendsLease() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any())).thenReturn(1L);
+        generator.init();
+        nanos.addAndGet(Duration.ofSeconds(50).toNanos());
+        generator.renewLease();
+
+        nanos.addAndGet(Duration.ofSeconds(50).toNanos());
+        generator.nextId();
+    }
+}